@@ -0,0 +1,155 @@
+package com.movies.Movies.benchmarks;
+
+import com.movies.Movies.MoviesApplication;
+import com.movies.Movies.Service.BulkImportService;
+
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.function.IntFunction;
+
+/**
+ * A SQLite catalog of a given number of movies, for the benchmarks that run through the application. The database
+ * is built once, through the bulk import, and kept under target/, so later runs only pay for starting the application.
+ * In the catalog of the repository benchmarks every movie has two actors and one genre; there is one actor per ten
+ * movies and twenty genres. The catalog of the collaboration graph benchmarks is described at
+ * {@link #openCollaborationGraph(int)}.
+ */
+final class CatalogDatabase {
+
+    static final int GENRES = 20;
+
+    // Actors per movie in the collaboration graph catalog
+    private static final int CAST_SIZE = 5;
+
+    // Rows per bulk import request
+    private static final int CHUNK = 10_000;
+
+    // Builds the rows of an empty catalog
+    private interface Seeder {
+        void seed(BulkImportService importService, int movieCount) throws IOException;
+    }
+
+    private CatalogDatabase() {
+    }
+
+    /**
+     * Starts the application, without the web server, on the catalog of the given size, building it first if needed.
+     *
+     * @param movieCount      the number of movies in the catalog
+     * @param catalogSnapshot whether lookups are served by the in-memory catalog snapshot
+     * @return the running application context; the caller closes it
+     */
+    static ConfigurableApplicationContext open(int movieCount, boolean catalogSnapshot) throws IOException {
+        return open("movies-" + movieCount, movieCount, catalogSnapshot, CatalogDatabase::seed);
+    }
+
+    /**
+     * Starts the application, with the catalog snapshot, on a catalog shaped for the co-star and path searches,
+     * building it first if needed. There is one actor per five movies and five actors per movie, so 1M movies make
+     * 5M credits. Casts are drawn with a skew towards the first actors, so a few are in hundreds of movies,
+     * as in real catalogs.
+     *
+     * @param movieCount the number of movies in the catalog
+     * @return the running application context; the caller closes it
+     */
+    static ConfigurableApplicationContext openCollaborationGraph(int movieCount) throws IOException {
+        return open("graph-" + movieCount, movieCount, true, CatalogDatabase::seedCollaborationGraph);
+    }
+
+    private static ConfigurableApplicationContext open(String name, int movieCount, boolean catalogSnapshot, Seeder seeder)
+            throws IOException {
+        Path directory = Path.of("target", "catalogs");
+        Files.createDirectories(directory);
+        Path file = directory.resolve(name + ".db");
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(MoviesApplication.class)
+                .web(WebApplicationType.NONE)
+                // Arguments rather than default properties, which application.properties would override
+                .run("--spring.datasource.url=jdbc:sqlite:" + file,
+                        "--spring.main.banner-mode=off",
+                        "--logging.level.root=WARN",
+                        "--spring.jpa.properties.hibernate.generate_statistics=false",
+                        "--movies.catalog-snapshot.enabled=" + catalogSnapshot);
+        JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+        Integer movies = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM movie", Integer.class);
+        if (movies == null || movies == 0) {
+            seeder.seed(context.getBean(BulkImportService.class), movieCount);
+            jdbcTemplate.execute("ANALYZE");
+        } else if (movies != movieCount) {
+            context.close();
+            throw new IllegalStateException(file + " holds " + movies + " movies instead of " + movieCount
+                    + "; delete it to have it rebuilt");
+        }
+        return context;
+    }
+
+    private static void seed(BulkImportService importService, int movieCount) throws IOException {
+        int actorCount = Math.max(movieCount / 10, 2);
+        long firstGenre = importService.importGenres(ndjson(GENRES, i -> "{\"name\":\"Genre " + i + "\"}"))
+                .getRows().get(0).getId();
+        long actorBase = importActors(importService, actorCount);
+        for (int from = 0; from < movieCount; from += CHUNK) {
+            int offset = from;
+            importService.importMovies(ndjson(Math.min(CHUNK, movieCount - from), i -> {
+                int n = offset + i;
+                return "{\"title\":\"Movie " + n + "\",\"releaseYear\":" + (1900 + n % 125) + ",\"duration\":" + (60 + n % 120)
+                        + ",\"actorIds\":[" + (actorBase + n % actorCount) + "," + (actorBase + (n + 1) % actorCount) + "]"
+                        + ",\"genreIds\":[" + (firstGenre + n % GENRES) + "]}";
+            }));
+        }
+    }
+
+    private static void seedCollaborationGraph(BulkImportService importService, int movieCount) throws IOException {
+        int actorCount = Math.max(movieCount / 5, CAST_SIZE);
+        long genre = importService.importGenres(ndjson(1, i -> "{\"name\":\"Drama\"}")).getRows().get(0).getId();
+        long actorBase = importActors(importService, actorCount);
+        SplittableRandom random = new SplittableRandom(42);
+        long[] cast = new long[CAST_SIZE];
+        for (int from = 0; from < movieCount; from += CHUNK) {
+            int offset = from;
+            importService.importMovies(ndjson(Math.min(CHUNK, movieCount - from), i -> {
+                int size = 0;
+                while (size < CAST_SIZE) {
+                    double r = random.nextDouble();
+                    long actor = actorBase + (long) (actorCount * r * r);
+                    if (Arrays.stream(cast, 0, size).noneMatch(id -> id == actor)) {
+                        cast[size++] = actor;
+                    }
+                }
+                return "{\"title\":\"Movie " + (offset + i) + "\",\"releaseYear\":2000,\"duration\":100"
+                        + ",\"actorIds\":" + Arrays.toString(cast).replace(" ", "") + ",\"genreIds\":[" + genre + "]}";
+            }));
+        }
+    }
+
+    // Imports actors named by their position, and returns the id of the first; the ids are consecutive
+    private static long importActors(BulkImportService importService, int actorCount) throws IOException {
+        long firstActor = -1;
+        for (int from = 0; from < actorCount; from += CHUNK) {
+            int offset = from;
+            long first = importService.importActors(ndjson(Math.min(CHUNK, actorCount - from),
+                    i -> "{\"name\":\"Actor " + (offset + i) + "\",\"birthDate\":\"1970-01-01\"}")).getRows().get(0).getId();
+            if (firstActor < 0) {
+                firstActor = first;
+            }
+        }
+        return firstActor;
+    }
+
+    private static ByteArrayInputStream ndjson(int rows, IntFunction<String> row) {
+        StringBuilder body = new StringBuilder();
+        for (int i = 0; i < rows; i++) {
+            body.append(row.apply(i)).append('\n');
+        }
+        return new ByteArrayInputStream(body.toString().getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,82 @@
+package com.movies.Movies.benchmarks;
+
+import com.movies.Movies.Service.ActorService;
+import com.movies.Movies.dto.ActorPathDTO;
+import com.movies.Movies.dto.CoStarDTO;
+import com.movies.Movies.exception.ResourceNotFoundException;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The co-star and degrees-of-separation queries, through ActorService and the in-memory catalog snapshot,
+ * on a catalog with skewed casts (see {@link CatalogDatabase#openCollaborationGraph(int)}).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = "-Xmx2g")
+public class CollaborationGraphBenchmarks {
+
+    // Random actors and pairs of actors, taken in turn
+    private static final int SAMPLES = 1024;
+
+    @Param({"100000", "1000000"})
+    public int movies;
+
+    private ConfigurableApplicationContext context;
+    private ActorService actorService;
+    private long[] actorIds;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void openCatalog() throws IOException {
+        context = CatalogDatabase.openCollaborationGraph(movies);
+        actorService = context.getBean(ActorService.class);
+        JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+        long firstActor = jdbcTemplate.queryForObject("SELECT MIN(id) FROM actor", Long.class);
+        long lastActor = jdbcTemplate.queryForObject("SELECT MAX(id) FROM actor", Long.class);
+        actorIds = new SplittableRandom(42).longs(SAMPLES * 2, firstActor, lastActor + 1).toArray();
+    }
+
+    @TearDown(Level.Trial)
+    public void closeCatalog() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<CoStarDTO> topCoStars() {
+        return actorService.getCoStars(actorIds[next++ & (SAMPLES * 2 - 1)], 10);
+    }
+
+    @Benchmark
+    public ActorPathDTO shortestPath() {
+        int sample = next++ & (SAMPLES - 1);
+        try {
+            return actorService.getPath(actorIds[sample * 2], actorIds[sample * 2 + 1], 6);
+        } catch (ResourceNotFoundException ex) {
+            // More than six degrees apart; the search is as costly as one that finds a path
+            return null;
+        }
+    }
+}
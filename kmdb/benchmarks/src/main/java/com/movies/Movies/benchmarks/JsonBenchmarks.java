@@ -0,0 +1,88 @@
+package com.movies.Movies.benchmarks;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.movies.Movies.dto.MovieDTO;
+import com.movies.Movies.util.CustomLocalDateDeserializer;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.text.SimpleDateFormat;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JSON work done per request: reading an actor's birth date, and writing a page of movies the way
+ * GET /api/movies does.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JsonBenchmarks {
+
+    private static final byte[] BIRTH_DATE = "\"1937-06-01\"".getBytes(StandardCharsets.UTF_8);
+
+    // Default page size of GET /api/movies
+    private static final int PAGE_SIZE = 100;
+
+    private ObjectMapper objectMapper;
+    private CustomLocalDateDeserializer dateDeserializer;
+    private Page<MovieDTO> page;
+
+    @Setup
+    public void setUp() {
+        // Same modules and date settings as the application's mapper
+        objectMapper = Jackson2ObjectMapperBuilder.json()
+                .dateFormat(new SimpleDateFormat("yyyy-MM-dd"))
+                .build();
+        dateDeserializer = new CustomLocalDateDeserializer();
+        List<MovieDTO> movies = new ArrayList<>();
+        for (int i = 0; i < PAGE_SIZE; i++) {
+            MovieDTO movie = new MovieDTO();
+            movie.setId((long) i);
+            movie.setTitle("Movie " + i);
+            movie.setReleaseYear(1950 + i % 70);
+            movie.setDuration(90 + i % 60);
+            movie.setActorIds(List.of(2L * i, 2L * i + 1));
+            movie.setActors(Optional.of(List.of("Actor " + 2 * i, "Actor " + (2 * i + 1))));
+            movie.setGenreIds(List.of((long) i % 20));
+            movie.setGenres(Optional.of(List.of("Genre " + i % 20)));
+            movies.add(movie);
+        }
+        page = new PageImpl<>(movies, PageRequest.of(3, PAGE_SIZE), 10_000);
+    }
+
+    @Benchmark
+    public LocalDate deserializeBirthDate() throws IOException {
+        try (JsonParser parser = objectMapper.getFactory().createParser(BIRTH_DATE)) {
+            parser.nextToken();
+            return dateDeserializer.deserialize(parser, objectMapper.getDeserializationContext());
+        }
+    }
+
+    @Benchmark
+    public byte[] serializeMoviePage() throws IOException {
+        return objectMapper.writeValueAsBytes(page);
+    }
+}
@@ -0,0 +1,72 @@
+package com.movies.Movies.benchmarks;
+
+import com.movies.Movies.Entity.Actor;
+import com.movies.Movies.Entity.Genre;
+import com.movies.Movies.Entity.Movie;
+import com.movies.Movies.Service.MovieService;
+import com.movies.Movies.dto.MovieDTO;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDate;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Entity to DTO mapping of MovieService, which runs once per movie loaded as an entity, together with the names
+ * and ids of its actors and genres. The mapper uses none of the service's dependencies, so the service is built
+ * without them.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MappingBenchmarks {
+
+    private MovieService movieService;
+    private Movie movie;
+
+    @Setup
+    public void setUp() {
+        movieService = new MovieService(null, null, null, null, null, null, null, null, null, null);
+        movie = new Movie();
+        movie.setId(1L);
+        movie.setTitle("The Shawshank Redemption");
+        movie.setReleaseYear(1994);
+        movie.setDuration(142);
+        movie.setActors(new LinkedHashSet<>(List.of(actor(1L, "Morgan Freeman", "1937-06-01"), actor(2L, "Tim Robbins", "1958-10-16"), actor(3L, "Bob Gunton", "1945-11-15"))));
+        movie.setGenres(new LinkedHashSet<>(List.of(genre(1L, "Drama"), genre(2L, "Crime"))));
+    }
+
+    @Benchmark
+    public MovieDTO movieToDTO() {
+        return movieService.mapToDTO(movie);
+    }
+
+    private static Actor actor(Long id, String name, String birthDate) {
+        Actor actor = new Actor();
+        actor.setId(id);
+        actor.setName(name);
+        actor.setBirthDate(LocalDate.parse(birthDate));
+        return actor;
+    }
+
+    private static Genre genre(Long id, String name) {
+        Genre genre = new Genre();
+        genre.setId(id);
+        genre.setName(name);
+        return genre;
+    }
+}
@@ -0,0 +1,104 @@
+package com.movies.Movies.benchmarks;
+
+import com.movies.Movies.Service.MovieService;
+import com.movies.Movies.dto.CursorPage;
+import com.movies.Movies.dto.MovieDTO;
+import com.movies.Movies.util.CursorCodec;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The movie list and filter queries, end to end through MovieService, the repositories and SQLite,
+ * against catalogs of 10k, 100k and 1M movies (see {@link CatalogDatabase}).
+ * Pages are taken from the middle of the catalog, where offset pagination is at its average cost.
+ * With catalogSnapshot set, the lookups by genre and by actor are answered by the in-memory catalog snapshot.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = "-Xmx2g")
+public class RepositoryBenchmarks {
+
+    private static final int PAGE_SIZE = 20;
+
+    @Param({"10000", "100000", "1000000"})
+    public int movies;
+
+    @Param({"false", "true"})
+    public boolean catalogSnapshot;
+
+    private ConfigurableApplicationContext context;
+    private MovieService movieService;
+    private int middlePage;
+    private String middleCursor;
+    private Long genreId;
+    private Long actorId;
+
+    @Setup(Level.Trial)
+    public void openCatalog() throws IOException {
+        context = CatalogDatabase.open(movies, catalogSnapshot);
+        movieService = context.getBean(MovieService.class);
+        JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+        middlePage = movies / 2 / PAGE_SIZE;
+        middleCursor = CursorCodec.encode(jdbcTemplate.queryForObject(
+                "SELECT id FROM movie ORDER BY id LIMIT 1 OFFSET ?", Long.class, movies / 2));
+        genreId = jdbcTemplate.queryForObject("SELECT MIN(id) FROM genre", Long.class);
+        actorId = jdbcTemplate.queryForObject("SELECT MIN(id) FROM actor", Long.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void closeCatalog() {
+        context.close();
+    }
+
+    @Benchmark
+    public Page<MovieDTO> offsetPage() {
+        return movieService.getAllMovies(PageRequest.of(middlePage, PAGE_SIZE));
+    }
+
+    @Benchmark
+    public CursorPage<MovieDTO> keysetPage() {
+        return movieService.getMoviesAfter(middleCursor, PAGE_SIZE);
+    }
+
+    @Benchmark
+    public Page<MovieDTO> titleSearch() {
+        return movieService.searchMoviesByTitle("Movie 4242", PageRequest.of(0, PAGE_SIZE));
+    }
+
+    @Benchmark
+    public Page<MovieDTO> moviesByReleaseYear() {
+        return movieService.getMoviesByReleaseYear(1950, PageRequest.of(0, PAGE_SIZE));
+    }
+
+    @Benchmark
+    public Page<MovieDTO> moviesByGenre() {
+        return movieService.getMoviesByGenre(genreId, PageRequest.of(0, PAGE_SIZE));
+    }
+
+    @Benchmark
+    public Page<MovieDTO> moviesByActor() {
+        return movieService.getMoviesByActorId(actorId, PageRequest.of(0, PAGE_SIZE));
+    }
+}
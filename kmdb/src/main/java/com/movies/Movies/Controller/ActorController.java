@@ -1,6 +1,10 @@
 package com.movies.Movies.Controller;
 
+import com.movies.Movies.cache.ResponseCache;
 import com.movies.Movies.dto.ActorDTO;
+import com.movies.Movies.dto.ActorPathDTO;
+import com.movies.Movies.dto.CoStarDTO;
+import com.movies.Movies.dto.CursorPage;
 
 import jakarta.validation.Valid;
 
@@ -13,18 +17,22 @@ import org.springframework.data.domain.Pageable;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
+import java.util.Set;
 
 @RestController
 @RequestMapping("/api/actors")
 public class ActorController {
 
     private final ActorService actorService;
+    private final ResponseCache responseCache;
     
 
-    public ActorController(ActorService actorService) {
+    public ActorController(ActorService actorService, ResponseCache responseCache) {
         this.actorService = actorService;
+        this.responseCache = responseCache;
     }
 
     
@@ -37,14 +45,49 @@ public class ActorController {
         return ResponseEntity.ok(actorPage);
     }
 
+    @GetMapping(params = "after")
+    public CursorPage<ActorDTO> getActorsAfter(
+            @RequestParam String after,
+            @RequestParam(defaultValue = "100") int size) {
+        return actorService.getActorsAfter(after, size);
+    }
+
     @GetMapping("/{id}")
-    public ResponseEntity<ActorDTO> getActorById(@PathVariable Long id) {
-        return ResponseEntity.ok(actorService.getActorById(id));
+    public ResponseEntity<byte[]> getActorById(@PathVariable Long id, WebRequest request) {
+        return responseCache.serve("actor:" + id, request,
+                () -> new ResponseCache.Cacheable(actorService.getActorById(id), Set.of(ResponseCache.actorTag(id))));
     }
 
     @GetMapping(params = "name")
-    public List<ActorDTO> getActorsByName(@RequestParam String name) {
-        return actorService.getActorsByName(name);
+    public Page<ActorDTO> getActorsByName(
+            @RequestParam String name,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "100") int size) {
+        Pageable pageable = PageRequest.of(page, size);
+        return actorService.getActorsByName(name, pageable);
+    }
+
+    @GetMapping(params = {"bornFrom", "bornTo"})
+    public Page<ActorDTO> getActorsByBirthYear(
+            @RequestParam int bornFrom,
+            @RequestParam int bornTo,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "100") int size) {
+        Pageable pageable = PageRequest.of(page, size);
+        return actorService.getActorsByBirthYear(bornFrom, bornTo, pageable);
+    }
+
+    @GetMapping("/{id}/co-stars")
+    public List<CoStarDTO> getCoStars(@PathVariable Long id, @RequestParam(defaultValue = "10") int limit) {
+        return actorService.getCoStars(id, limit);
+    }
+
+    @GetMapping(value = "/{id}/path", params = "to")
+    public ActorPathDTO getPath(
+            @PathVariable Long id,
+            @RequestParam Long to,
+            @RequestParam(defaultValue = "6") int maxDegrees) {
+        return actorService.getPath(id, to, maxDegrees);
     }
 
     @PostMapping
@@ -76,4 +119,10 @@ public class ActorController {
         actorService.deleteActor(id, force);
         return ResponseEntity.noContent().build();
     }
+
+    @DeleteMapping(params = "ids")
+    public ResponseEntity<Void> deleteActors(@RequestParam List<Long> ids, @RequestParam(defaultValue = "false") boolean force) {
+        actorService.deleteActors(ids, force);
+        return ResponseEntity.noContent().build();
+    }
 }
@@ -0,0 +1,39 @@
+package com.movies.Movies.Controller;
+
+import com.movies.Movies.Service.BulkImportService;
+import com.movies.Movies.dto.BulkImportResultDTO;
+
+import jakarta.servlet.http.HttpServletRequest;
+
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.IOException;
+
+@RestController
+@RequestMapping("/api")
+public class BulkImportController {
+
+    private final BulkImportService bulkImportService;
+
+    public BulkImportController(BulkImportService bulkImportService) {
+        this.bulkImportService = bulkImportService;
+    }
+
+    @PostMapping(value = "/movies/bulk", consumes = {"application/json", "application/x-ndjson"})
+    public ResponseEntity<BulkImportResultDTO> importMovies(HttpServletRequest request) throws IOException {
+        return ResponseEntity.ok(bulkImportService.importMovies(request.getInputStream()));
+    }
+
+    @PostMapping(value = "/actors/bulk", consumes = {"application/json", "application/x-ndjson"})
+    public ResponseEntity<BulkImportResultDTO> importActors(HttpServletRequest request) throws IOException {
+        return ResponseEntity.ok(bulkImportService.importActors(request.getInputStream()));
+    }
+
+    @PostMapping(value = "/genres/bulk", consumes = {"application/json", "application/x-ndjson"})
+    public ResponseEntity<BulkImportResultDTO> importGenres(HttpServletRequest request) throws IOException {
+        return ResponseEntity.ok(bulkImportService.importGenres(request.getInputStream()));
+    }
+}
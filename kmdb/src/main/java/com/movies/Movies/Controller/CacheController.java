@@ -0,0 +1,26 @@
+package com.movies.Movies.Controller;
+
+import com.movies.Movies.cache.SecondLevelCache;
+import com.movies.Movies.dto.CacheRegionStatsDTO;
+
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/cache")
+public class CacheController {
+
+    private final SecondLevelCache secondLevelCache;
+
+    public CacheController(SecondLevelCache secondLevelCache) {
+        this.secondLevelCache = secondLevelCache;
+    }
+
+    @GetMapping("/stats")
+    public Map<String, CacheRegionStatsDTO> getCacheStatistics() {
+        return secondLevelCache.getRegionStatistics();
+    }
+}
@@ -0,0 +1,34 @@
+package com.movies.Movies.Controller;
+
+import com.movies.Movies.datasource.PoolMetrics;
+import com.movies.Movies.dto.PoolStatsDTO;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/datasource")
+public class DataSourceController {
+
+    private final PoolMetrics writerPoolMetrics;
+    private final PoolMetrics readerPoolMetrics;
+
+    public DataSourceController(@Qualifier("writerPoolMetrics") PoolMetrics writerPoolMetrics,
+                                @Qualifier("readerPoolMetrics") PoolMetrics readerPoolMetrics) {
+        this.writerPoolMetrics = writerPoolMetrics;
+        this.readerPoolMetrics = readerPoolMetrics;
+    }
+
+    @GetMapping("/stats")
+    public Map<String, PoolStatsDTO> getPoolStatistics() {
+        Map<String, PoolStatsDTO> stats = new LinkedHashMap<>();
+        stats.put("writer", writerPoolMetrics.snapshot());
+        stats.put("reader", readerPoolMetrics.snapshot());
+        return stats;
+    }
+}
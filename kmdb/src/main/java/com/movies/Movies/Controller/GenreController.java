@@ -1,5 +1,6 @@
 package com.movies.Movies.Controller;
 
+import com.movies.Movies.cache.ResponseCache;
 import com.movies.Movies.dto.GenreDTO;
 
 import jakarta.validation.Valid;
@@ -12,23 +13,33 @@ import org.springframework.data.domain.Pageable;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+
+import java.util.List;
+import java.util.Set;
 
 @RestController
 @RequestMapping("/api/genres")
 public class GenreController {
 
     private final GenreService genreService;
+    private final ResponseCache responseCache;
 
-    public GenreController(GenreService genreService) {
+    public GenreController(GenreService genreService, ResponseCache responseCache) {
         this.genreService = genreService;
+        this.responseCache = responseCache;
     }
 
     @GetMapping
-    public Page<GenreDTO> getAllGenres(
+    public ResponseEntity<byte[]> getAllGenres(
             @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "10") int size) {
+            @RequestParam(defaultValue = "10") int size,
+            WebRequest request) {
         Pageable pageable = PageRequest.of(page, size);
-        return genreService.getAllGenres(pageable);
+        return responseCache.serve("genres:" + page + ":" + size, request, () -> {
+            Page<GenreDTO> genres = genreService.getAllGenres(pageable);
+            return new ResponseCache.Cacheable(genres, Set.of(ResponseCache.GENRES_TAG));
+        });
     }
 
     @GetMapping("/{id}")
@@ -51,4 +62,10 @@ public class GenreController {
         genreService.deleteGenre(id, force);
         return ResponseEntity.noContent().build();
     }
+
+    @DeleteMapping(params = "ids")
+    public ResponseEntity<Void> deleteGenres(@RequestParam List<Long> ids, @RequestParam(defaultValue = "false") boolean force) {
+        genreService.deleteGenres(ids, force);
+        return ResponseEntity.noContent().build();
+    }
 }
@@ -1,9 +1,15 @@
 package com.movies.Movies.Controller;
 
+import com.movies.Movies.cache.ResponseCache;
 import com.movies.Movies.Entity.Movie;
+import com.movies.Movies.Service.MovieExportService;
 import com.movies.Movies.Service.MovieService;
+import com.movies.Movies.Service.MovieUpdateQueue;
 import com.movies.Movies.dto.ActorDTO;
+import com.movies.Movies.dto.CursorPage;
 import com.movies.Movies.dto.MovieDTO;
+import com.movies.Movies.dto.MovieSearchResultDTO;
+import com.movies.Movies.dto.MovieUpdateStatusDTO;
 
 import jakarta.validation.Valid;
 
@@ -11,19 +17,32 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
 @RestController
 @RequestMapping("/api/movies")
 public class MovieController {
 
     private final MovieService movieService;
+    private final ResponseCache responseCache;
+    private final MovieExportService movieExportService;
+    private final MovieUpdateQueue movieUpdateQueue;
 
-    public MovieController(MovieService movieService) {
+    public MovieController(MovieService movieService, ResponseCache responseCache, MovieExportService movieExportService,
+                           MovieUpdateQueue movieUpdateQueue) {
         this.movieService = movieService;
+        this.responseCache = responseCache;
+        this.movieExportService = movieExportService;
+        this.movieUpdateQueue = movieUpdateQueue;
     }
 
     @PostMapping
@@ -34,9 +53,16 @@ public class MovieController {
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<Movie> getMovie(@PathVariable Long id) {
-        Movie movie = movieService.getMovieById(id);
-        return ResponseEntity.ok(movie);
+    public ResponseEntity<byte[]> getMovie(@PathVariable Long id, WebRequest request) {
+        return responseCache.serve("movie:" + id, request, () -> {
+            Movie movie = movieService.getMovieById(id);
+            // The body embeds the movie's actors and genres, so it goes stale when any of them changes
+            Set<String> tags = new HashSet<>();
+            tags.add(ResponseCache.movieTag(id));
+            movie.getActors().forEach(actor -> tags.add(ResponseCache.actorTag(actor.getId())));
+            movie.getGenres().forEach(genre -> tags.add(ResponseCache.genreTag(genre.getId())));
+            return new ResponseCache.Cacheable(movie, tags);
+        });
     }
 
     @GetMapping
@@ -47,16 +73,42 @@ public class MovieController {
         return movieService.getAllMovies(pageable);
     }
 
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportMovies(
+            @RequestParam(required = false) Long genre,
+            @RequestParam(required = false) Long actor,
+            @RequestParam(required = false) Integer year) {
+        StreamingResponseBody body = out -> movieExportService.exportMovies(genre, actor, year, out);
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType("application/x-ndjson"))
+                .body(body);
+    }
+
+    @GetMapping(params = "after")
+    public CursorPage<MovieDTO> getMoviesAfter(
+            @RequestParam String after,
+            @RequestParam(defaultValue = "100") int size) {
+        return movieService.getMoviesAfter(after, size);
+    }
+
     @GetMapping(params = "genre")
-public ResponseEntity<List<MovieDTO>> getMoviesByGenre(@RequestParam Long genre) {
-    List<MovieDTO> movies = movieService.getMoviesByGenre(genre);
-    return ResponseEntity.ok(movies);
-}
+    public ResponseEntity<Page<MovieDTO>> getMoviesByGenre(
+            @RequestParam Long genre,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "100") int size) {
+        Pageable pageable = PageRequest.of(page, size);
+        return ResponseEntity.ok(movieService.getMoviesByGenre(genre, pageable));
+    }
 
 @GetMapping("/{movieId}/actors")
-public ResponseEntity<List<ActorDTO>> getActorsByMovieId(@PathVariable Long movieId) {
-    List<ActorDTO> actors = movieService.getActorsByMovieId(movieId);
-    return ResponseEntity.ok(actors);
+public ResponseEntity<byte[]> getActorsByMovieId(@PathVariable Long movieId, WebRequest request) {
+    return responseCache.serve("movie-actors:" + movieId, request, () -> {
+        List<ActorDTO> actors = movieService.getActorsByMovieId(movieId);
+        Set<String> tags = new HashSet<>();
+        tags.add(ResponseCache.movieTag(movieId));
+        actors.forEach(actor -> tags.add(ResponseCache.actorTag(actor.getId())));
+        return new ResponseCache.Cacheable(actors, tags);
+    });
 }
 
     @DeleteMapping("/{id}")
@@ -65,26 +117,73 @@ public ResponseEntity<List<ActorDTO>> getActorsByMovieId(@PathVariable Long movi
         return ResponseEntity.noContent().build();
     }
 
+    @DeleteMapping(params = "ids")
+    public ResponseEntity<Void> deleteMovies(@RequestParam List<Long> ids, @RequestParam(defaultValue = "false") boolean force) {
+        movieService.deleteMovies(ids, force);
+        return ResponseEntity.noContent().build();
+    }
+
+    // With the write-behind queue enabled the patch is queued and answered with 202 and a status URL, unless sync=true
     @PatchMapping("/{id}")
-    public ResponseEntity<Movie> updateMovie(@PathVariable Long id, @RequestBody MovieDTO movieDTO) {
-        Movie updatedMovie = movieService.updateMovie(id, movieDTO);
-        return ResponseEntity.ok(updatedMovie);
+    public ResponseEntity<?> updateMovie(@PathVariable Long id, @RequestBody MovieDTO movieDTO,
+                                         @RequestParam(defaultValue = "false") boolean sync) {
+        if (sync || !movieUpdateQueue.isEnabled()) {
+            Movie updatedMovie = movieUpdateQueue.updateNow(id, movieDTO);
+            return ResponseEntity.ok(updatedMovie);
+        }
+        MovieUpdateStatusDTO status = movieUpdateQueue.enqueue(id, movieDTO);
+        return ResponseEntity.accepted()
+                .location(ServletUriComponentsBuilder.fromCurrentContextPath()
+                        .path("/api/movies/updates/{ticket}")
+                        .buildAndExpand(status.getTicket())
+                        .toUri())
+                .body(status);
+    }
+
+    @GetMapping("/updates/{ticket}")
+    public ResponseEntity<MovieUpdateStatusDTO> getUpdateStatus(@PathVariable long ticket) {
+        return ResponseEntity.ok(movieUpdateQueue.getStatus(ticket));
     }
 
     @GetMapping(params = "year")
-    public ResponseEntity<List<MovieDTO>> getMoviesByReleaseYear(@RequestParam int year) {
-        List<MovieDTO> movies = movieService.getMoviesByReleaseYear(year);
-        return ResponseEntity.ok(movies);
+    public ResponseEntity<Page<MovieDTO>> getMoviesByReleaseYear(
+            @RequestParam int year,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "100") int size) {
+        Pageable pageable = PageRequest.of(page, size);
+        return ResponseEntity.ok(movieService.getMoviesByReleaseYear(year, pageable));
     }
 
     @GetMapping(params = "actor")
-    public ResponseEntity<List<MovieDTO>> getMoviesByActor(@RequestParam Long actor) {
-        List<MovieDTO> movies = movieService.getMoviesByActorId(actor);
-        return ResponseEntity.ok(movies);
+    public ResponseEntity<Page<MovieDTO>> getMoviesByActor(
+            @RequestParam Long actor,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "100") int size) {
+        Pageable pageable = PageRequest.of(page, size);
+        return ResponseEntity.ok(movieService.getMoviesByActorId(actor, pageable));
+    }
+
+    @GetMapping("/query")
+    public MovieSearchResultDTO queryMovies(
+            @RequestParam(required = false) List<Long> genres,
+            @RequestParam(required = false) List<Long> actors,
+            @RequestParam(required = false) Integer yearFrom,
+            @RequestParam(required = false) Integer yearTo,
+            @RequestParam(required = false) Integer durationMin,
+            @RequestParam(required = false) Integer durationMax,
+            @RequestParam(required = false) String title,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "100") int size) {
+        Pageable pageable = PageRequest.of(page, size);
+        return movieService.queryMovies(genres, actors, yearFrom, yearTo, durationMin, durationMax, title, pageable);
     }
 
     @GetMapping("/search")
-    public List<MovieDTO> searchMovies(@RequestParam String title) {
-        return movieService.searchMoviesByTitle(title);
+    public Page<MovieDTO> searchMovies(
+            @RequestParam String title,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "100") int size) {
+        Pageable pageable = PageRequest.of(page, size);
+        return movieService.searchMoviesByTitle(title, pageable);
     }
 }
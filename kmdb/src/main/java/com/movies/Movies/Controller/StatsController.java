@@ -0,0 +1,35 @@
+package com.movies.Movies.Controller;
+
+import com.movies.Movies.dto.CatalogStatsDTO;
+import com.movies.Movies.dto.StatsBucketDTO;
+import com.movies.Movies.Service.StatsService;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/api/stats")
+public class StatsController {
+
+    private final StatsService statsService;
+
+    public StatsController(StatsService statsService) {
+        this.statsService = statsService;
+    }
+
+    @GetMapping
+    public CatalogStatsDTO getStats() {
+        return statsService.getStats();
+    }
+
+    @GetMapping("/actors")
+    public Page<StatsBucketDTO> getActorStats(
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size) {
+        return statsService.getActorStats(PageRequest.of(page, size));
+    }
+}
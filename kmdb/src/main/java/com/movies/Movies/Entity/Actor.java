@@ -1,17 +1,26 @@
 package com.movies.Movies.Entity;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.movies.Movies.id.PooledTableId;
+import com.movies.Movies.util.EpochDayConverter;
+
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
+import java.time.LocalDate;
 import java.util.List;
+import java.util.Objects;
 
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 public class Actor {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @PooledTableId("actor")
     private Long id;
 
     @Column(name = "name")
@@ -19,11 +28,13 @@ public class Actor {
     private String name;
 
     @Column(name = "birth_date")
+    @Convert(converter = EpochDayConverter.class)
     @NotNull(message = "Birth date cannot be null")
-    private String birthDate; // Store as String in ISO 8601 format
+    private LocalDate birthDate; // Stored as days since 1970-01-01
 
     @ManyToMany(mappedBy = "actors")
     @JsonIgnore
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
     private List<Movie> movies;
 
     // Getters and Setters
@@ -43,11 +54,11 @@ public class Actor {
         this.name = name;
     }
 
-    public String getBirthDate() {
+    public LocalDate getBirthDate() {
         return birthDate;
     }
 
-    public void setBirthDate(String birthDate) {
+    public void setBirthDate(LocalDate birthDate) {
         this.birthDate = birthDate;
     }
 
@@ -58,4 +69,20 @@ public class Actor {
     public void setMovies(List<Movie> movies) {
         this.movies = movies;
     }
+
+    // Equal by id, so a movie's set of actors holds each actor once however many times it was loaded, and Hibernate
+    // matches its join table rows by actor rather than by instance. The id is assigned when the actor is persisted,
+    // before it can be linked to a movie, so the hash code of a linked actor does not change.
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        return o instanceof Actor other && id != null && id.equals(other.getId());
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hashCode(id);
+    }
 }
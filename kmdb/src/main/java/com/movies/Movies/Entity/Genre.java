@@ -1,18 +1,25 @@
 package com.movies.Movies.Entity;
 
+import com.movies.Movies.id.PooledTableId;
+
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import java.util.List;
+import java.util.Objects;
 
 import com.fasterxml.jackson.annotation.JsonBackReference;
 
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 public class Genre {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @PooledTableId("genre")
     private Long id;
     @NotBlank(message = "Genre can not be blank")
     @NotNull(message = "Genre can not be null")
@@ -20,6 +27,7 @@ public class Genre {
 
     @ManyToMany(mappedBy = "genres")
     @JsonBackReference
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
     private List<Movie> movies;
 
     // Getters and Setters
@@ -47,4 +55,19 @@ public class Genre {
         this.movies = movies;
     }
 
+    // Equal by id, so a movie's set of genres holds each genre once however many times it was loaded, and Hibernate
+    // matches its join table rows by genre rather than by instance. The id is assigned when the genre is persisted,
+    // before it can be linked to a movie, so the hash code of a linked genre does not change.
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        return o instanceof Genre other && id != null && id.equals(other.getId());
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hashCode(id);
+    }
 }
@@ -1,24 +1,37 @@
 package com.movies.Movies.Entity;
 
+import com.movies.Movies.id.PooledTableId;
+import com.movies.Movies.util.TitleNormalizer;
+
 import jakarta.persistence.*;
 import jakarta.validation.constraints.Max;
 import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotNull;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
-import java.util.ArrayList;
-import java.util.List;
+import java.util.LinkedHashSet;
+import java.util.Set;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonManagedReference;
 
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 public class Movie {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @PooledTableId("movie")
     private Long id;
 
     @NotNull(message = "Title cannot be null")
     private String title;
+
+    // Key for duplicate detection, kept in step with the title; unique together with release year and duration
+    @JsonIgnore
+    @Column(name = "normalized_title")
+    private String normalizedTitle;
     
 
     @NotNull(message = "Release year cannot be null")
@@ -29,14 +42,19 @@ public class Movie {
     @Min(value = 1, message = "Duration must be at least 1 minute")
     private Integer duration;
 
+    // Genres and actors are sets, so Hibernate inserts and deletes single join table rows as links are added
+    // and removed; a list would be a bag, which it rewrites in full on any removal. Update them in place
+    // rather than replacing them: a new collection makes Hibernate rewrite every row too.
     @ManyToMany
     @JoinTable(
             name = "movie_genre",
             joinColumns = @JoinColumn(name = "movie_id"),
             inverseJoinColumns = @JoinColumn(name = "genre_id")
     )
+    @OrderBy("id")
     @JsonManagedReference
-    private List<Genre> genres;
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
+    private Set<Genre> genres = new LinkedHashSet<>();
 
     @ManyToMany
     @JoinTable(
@@ -44,7 +62,9 @@ public class Movie {
             joinColumns = @JoinColumn(name = "movie_id"),
             inverseJoinColumns = @JoinColumn(name = "actor_id")
     )
-    private List<Actor> actors;
+    @OrderBy("id")
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
+    private Set<Actor> actors = new LinkedHashSet<>();
 
     // Getters and Setters
     public Long getId() {
@@ -61,6 +81,11 @@ public class Movie {
 
     public void setTitle(String title) {
         this.title = title;
+        this.normalizedTitle = TitleNormalizer.normalize(title);
+    }
+
+    public String getNormalizedTitle() {
+        return normalizedTitle;
     }
 
     public Integer getReleaseYear() {
@@ -79,19 +104,19 @@ public class Movie {
         this.duration = duration;
     }
 
-    public List<Genre> getGenres() {
-        return genres != null ? genres : new ArrayList<>();
+    public Set<Genre> getGenres() {
+        return genres;
     }
 
-    public void setGenres(List<Genre> genres) {
+    public void setGenres(Set<Genre> genres) {
         this.genres = genres;
     }
 
-    public List<Actor> getActors() {
-        return actors != null ? actors : new ArrayList<>();
+    public Set<Actor> getActors() {
+        return actors;
     }
 
-    public void setActors(List<Actor> actors) {
+    public void setActors(Set<Actor> actors) {
         this.actors = actors;
     }
 }
@@ -0,0 +1,67 @@
+package com.movies.Movies.Repository;
+
+import com.movies.Movies.dto.CoStarDTO;
+import com.movies.Movies.util.BidirectionalSearch;
+
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The actor collaboration graph read straight from the movie_actor join table, for when the catalog snapshot
+ * (see {@link com.movies.Movies.cache.CatalogSnapshot}) is not loaded. Both queries self-join movie_actor on the
+ * covering indexes of V5, so a hop of a path search costs one query for a whole frontier, where walking
+ * {@code Actor.movies} and {@code Movie.actors} would cost two lazy loads per actor and movie.
+ */
+@Repository
+public class ActorGraphRepository {
+
+    // Ids bound per IN list when expanding a frontier
+    private static final int CHUNK = 500;
+
+    private final NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+
+    public ActorGraphRepository(NamedParameterJdbcTemplate namedParameterJdbcTemplate) {
+        this.namedParameterJdbcTemplate = namedParameterJdbcTemplate;
+    }
+
+    /**
+     * Returns the actors who share the most movies with an actor.
+     *
+     * @param actorId the id of the actor
+     * @param limit   the number of co-stars to return
+     * @return the co-stars, most shared movies first, then by id
+     */
+    public List<CoStarDTO> findCoStars(long actorId, int limit) {
+        return namedParameterJdbcTemplate.query("SELECT a.id, a.name, COUNT(*) AS shared "
+                        + "FROM movie_actor mine "
+                        + "JOIN movie_actor theirs ON theirs.movie_id = mine.movie_id AND theirs.actor_id <> mine.actor_id "
+                        + "JOIN actor a ON a.id = theirs.actor_id "
+                        + "WHERE mine.actor_id = :actorId "
+                        + "GROUP BY a.id, a.name ORDER BY shared DESC, a.id LIMIT :limit",
+                Map.of("actorId", actorId, "limit", limit),
+                (rs, rowNum) -> new CoStarDTO(rs.getLong(1), rs.getString(2), rs.getLong(3)));
+    }
+
+    /**
+     * Hands over, for each of the given actors, every co-star with a movie they share.
+     *
+     * @param actorIds the ids of the actors
+     * @param edges    receives the actor id, the shared movie id and the co-star id
+     */
+    public void findCoStarEdges(long[] actorIds, BidirectionalSearch.EdgeConsumer edges) {
+        for (int from = 0; from < actorIds.length; from += CHUNK) {
+            List<Long> ids = Arrays.stream(actorIds, from, Math.min(from + CHUNK, actorIds.length)).boxed().toList();
+            namedParameterJdbcTemplate.query("SELECT mine.actor_id, mine.movie_id, theirs.actor_id "
+                            + "FROM movie_actor mine "
+                            + "JOIN movie_actor theirs ON theirs.movie_id = mine.movie_id AND theirs.actor_id <> mine.actor_id "
+                            + "WHERE mine.actor_id IN (:ids)", Map.of("ids", ids),
+                    rs -> {
+                        edges.edge(rs.getLong(1), rs.getLong(2), rs.getLong(3));
+                    });
+        }
+    }
+}
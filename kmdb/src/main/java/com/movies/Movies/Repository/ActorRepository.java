@@ -1,21 +1,48 @@
 package com.movies.Movies.Repository;
 
 import com.movies.Movies.Entity.Actor;
+import com.movies.Movies.dto.ActorDTO;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
+import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface ActorRepository extends JpaRepository<Actor, Long> {
-    @Query("SELECT a FROM Actor a WHERE LOWER(a.name) LIKE LOWER(CONCAT('%', :name, '%'))")
-    List<Actor> findByNameContainingIgnoreCase(@Param("name") String name);
-
     @Query("SELECT a FROM Actor a WHERE a.name = :name AND a.birthDate = :birthDate")
-    Optional<Actor> findByNameAndBirthDate(@Param("name") String name, @Param("birthDate") String birthDate);
+    Optional<Actor> findByNameAndBirthDate(@Param("name") String name, @Param("birthDate") LocalDate birthDate);
+
+    // Read model: actors projected straight into DTOs, without managed entities
+
+    @Query(value = "SELECT new com.movies.Movies.dto.ActorDTO(a.id, a.name, a.birthDate) FROM Actor a",
+            countQuery = "SELECT COUNT(a) FROM Actor a")
+    Page<ActorDTO> findAllActorDTOs(Pageable pageable);
+
+    // Keyset pagination: seeks past the last id of the previous page on the primary key, without OFFSET or COUNT
+    @Query("SELECT new com.movies.Movies.dto.ActorDTO(a.id, a.name, a.birthDate) FROM Actor a WHERE a.id > :afterId ORDER BY a.id")
+    List<ActorDTO> findActorDTOsAfter(@Param("afterId") Long afterId, Pageable pageable);
+
+    @Query(value = "SELECT new com.movies.Movies.dto.ActorDTO(a.id, a.name, a.birthDate) FROM Actor a WHERE LOWER(a.name) LIKE LOWER(CONCAT('%', :name, '%')) ORDER BY a.id",
+            countQuery = "SELECT COUNT(a) FROM Actor a WHERE LOWER(a.name) LIKE LOWER(CONCAT('%', :name, '%'))")
+    Page<ActorDTO> findActorDTOsByNameContainingIgnoreCase(@Param("name") String name, Pageable pageable);
+
+    // Birth dates are stored as epoch days, so the range is an index range scan on ix_actor_birth_date
+    @Query(value = "SELECT new com.movies.Movies.dto.ActorDTO(a.id, a.name, a.birthDate) FROM Actor a "
+            + "WHERE a.birthDate >= :from AND a.birthDate < :until ORDER BY a.birthDate, a.id",
+            countQuery = "SELECT COUNT(a) FROM Actor a WHERE a.birthDate >= :from AND a.birthDate < :until")
+    Page<ActorDTO> findActorDTOsByBirthDateBetween(@Param("from") LocalDate from, @Param("until") LocalDate until, Pageable pageable);
+
+    @Query("SELECT new com.movies.Movies.dto.ActorDTO(a.id, a.name, a.birthDate) FROM Actor a WHERE a.id IN :ids")
+    List<ActorDTO> findActorDTOsByIdIn(@Param("ids") Collection<Long> ids);
 
-    
+    // In id order, like the catalog snapshot, rather than in whatever order the join table yields
+    @Query("SELECT new com.movies.Movies.dto.ActorDTO(a.id, a.name, a.birthDate) FROM Movie m JOIN m.actors a WHERE m.id = :movieId ORDER BY a.id")
+    List<ActorDTO> findActorDTOsByMovieId(@Param("movieId") Long movieId);
 }
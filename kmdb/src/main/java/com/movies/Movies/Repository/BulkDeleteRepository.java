@@ -0,0 +1,103 @@
+package com.movies.Movies.Repository;
+
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Set-based deletes for the delete endpoints: the join table rows of any number of movies, actors or genres go
+ * in one statement, and the rows themselves in another, instead of loading both sides of each association and
+ * merging them one by one. Hibernate does not see these writes, so callers evict the second-level cache entries
+ * of the deleted rows and of the rows they were linked to (see {@link com.movies.Movies.cache.SecondLevelCache}).
+ * Callers run each delete in a transaction.
+ */
+@Repository
+public class BulkDeleteRepository {
+
+    /**
+     * One side of the movie_actor or movie_genre join table: the rows of the owner column,
+     * and the ids they link to in the other column.
+     */
+    public enum Link {
+        MOVIE_ACTORS("movie_actor", "movie_id", "actor_id"),
+        MOVIE_GENRES("movie_genre", "movie_id", "genre_id"),
+        ACTOR_MOVIES("movie_actor", "actor_id", "movie_id"),
+        GENRE_MOVIES("movie_genre", "genre_id", "movie_id");
+
+        private final String table;
+        private final String ownerColumn;
+        private final String linkedColumn;
+
+        Link(String table, String ownerColumn, String linkedColumn) {
+            this.table = table;
+            this.ownerColumn = ownerColumn;
+            this.linkedColumn = linkedColumn;
+        }
+    }
+
+    private final NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+
+    public BulkDeleteRepository(NamedParameterJdbcTemplate namedParameterJdbcTemplate) {
+        this.namedParameterJdbcTemplate = namedParameterJdbcTemplate;
+    }
+
+    /**
+     * Returns which of the given ids exist in the given table.
+     *
+     * @param table one of movie, actor or genre
+     * @param ids   the ids to look up
+     * @return the subset of ids that exist
+     */
+    public Set<Long> findExistingIds(String table, Collection<Long> ids) {
+        return new HashSet<>(namedParameterJdbcTemplate.queryForList(
+                "SELECT id FROM " + table + " WHERE id IN (:ids)", Map.of("ids", ids), Long.class));
+    }
+
+    /**
+     * Returns the ids linked to each of the given owners, through one lookup on the join table index.
+     *
+     * @param link the join table and the side the ids are on
+     * @param ids  the ids of the owners
+     * @return the linked ids per owner; owners without links are absent
+     */
+    public Map<Long, List<Long>> findLinks(Link link, Collection<Long> ids) {
+        Map<Long, List<Long>> links = new LinkedHashMap<>();
+        namedParameterJdbcTemplate.query(
+                "SELECT " + link.ownerColumn + ", " + link.linkedColumn + " FROM " + link.table
+                        + " WHERE " + link.ownerColumn + " IN (:ids)", Map.of("ids", ids),
+                rs -> {
+                    links.computeIfAbsent(rs.getLong(1), owner -> new ArrayList<>()).add(rs.getLong(2));
+                });
+        return links;
+    }
+
+    /**
+     * Deletes every join table row of the given owners.
+     *
+     * @param link the join table and the side the ids are on
+     * @param ids  the ids of the owners
+     * @return the number of rows deleted
+     */
+    public int deleteLinks(Link link, Collection<Long> ids) {
+        return namedParameterJdbcTemplate.update(
+                "DELETE FROM " + link.table + " WHERE " + link.ownerColumn + " IN (:ids)", Map.of("ids", ids));
+    }
+
+    /**
+     * Deletes the given rows, once their join table rows are gone.
+     *
+     * @param table one of movie, actor or genre
+     * @param ids   the ids of the rows
+     * @return the number of rows deleted
+     */
+    public int deleteRows(String table, Collection<Long> ids) {
+        return namedParameterJdbcTemplate.update("DELETE FROM " + table + " WHERE id IN (:ids)", Map.of("ids", ids));
+    }
+}
@@ -0,0 +1,146 @@
+package com.movies.Movies.Repository;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Set-based lookups and JDBC batch inserts for the bulk import endpoints.
+ * Every method works on a whole chunk of rows at once, so a chunk costs a fixed number of statements
+ * and round trips no matter how many rows it holds. Callers run each chunk in a transaction.
+ */
+@Repository
+public class BulkImportRepository {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+
+    public BulkImportRepository(JdbcTemplate jdbcTemplate, NamedParameterJdbcTemplate namedParameterJdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.namedParameterJdbcTemplate = namedParameterJdbcTemplate;
+    }
+
+    /**
+     * Returns which of the given ids exist in the given table.
+     *
+     * @param table one of movie, actor or genre
+     * @param ids   the ids to look up
+     * @return the subset of ids that exist
+     */
+    public Set<Long> findExistingIds(String table, Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return Set.of();
+        }
+        return new HashSet<>(namedParameterJdbcTemplate.queryForList(
+                "SELECT id FROM " + table + " WHERE id IN (:ids)", Map.of("ids", ids), Long.class));
+    }
+
+    /**
+     * Returns the duplicate keys of the stored movies whose normalized title is one of the given titles.
+     *
+     * @param normalizedTitles the normalized titles of the incoming movies
+     * @return the keys built by {@link #movieKey(String, Integer, Integer)}
+     */
+    public Set<String> findMovieKeys(Collection<String> normalizedTitles) {
+        Set<String> keys = new HashSet<>();
+        if (normalizedTitles.isEmpty()) {
+            return keys;
+        }
+        namedParameterJdbcTemplate.query(
+                "SELECT normalized_title, release_year, duration FROM movie WHERE normalized_title IN (:titles)",
+                Map.of("titles", normalizedTitles),
+                rs -> {
+                    keys.add(movieKey(rs.getString(1), rs.getInt(2), rs.getInt(3)));
+                });
+        return keys;
+    }
+
+    /**
+     * Returns the duplicate keys of the stored actors whose name is one of the given names.
+     *
+     * @param names the names of the incoming actors
+     * @return the keys built by {@link #actorKey(String, long)}
+     */
+    public Set<String> findActorKeys(Collection<String> names) {
+        Set<String> keys = new HashSet<>();
+        if (names.isEmpty()) {
+            return keys;
+        }
+        namedParameterJdbcTemplate.query(
+                "SELECT name, birth_date FROM actor WHERE name IN (:names)", Map.of("names", names),
+                rs -> {
+                    keys.add(actorKey(rs.getString(1), rs.getLong(2)));
+                });
+        return keys;
+    }
+
+    /**
+     * Returns the names of all stored genres.
+     *
+     * @return the genre names
+     */
+    public List<String> findGenreNames() {
+        return jdbcTemplate.queryForList("SELECT name FROM genre", String.class);
+    }
+
+    // A movie is a duplicate of another with the same normalized title, release year and duration
+    public static String movieKey(String normalizedTitle, Integer releaseYear, Integer duration) {
+        return normalizedTitle + '\u0000' + releaseYear + '\u0000' + duration;
+    }
+
+    // An actor is a duplicate of another with the same name and birth date, in days since 1970-01-01
+    public static String actorKey(String name, long birthEpochDay) {
+        return name + '\u0000' + birthEpochDay;
+    }
+
+    /**
+     * Inserts movies as one JDBC batch.
+     *
+     * @param rows id, title, normalized title, release year and duration of each movie
+     */
+    public void insertMovies(List<Object[]> rows) {
+        jdbcTemplate.batchUpdate("INSERT INTO movie (id, title, normalized_title, release_year, duration) VALUES (?, ?, ?, ?, ?)", rows);
+    }
+
+    /**
+     * Inserts movie_actor links as one JDBC batch.
+     *
+     * @param rows movie id and actor id of each link
+     */
+    public void insertMovieActors(List<Object[]> rows) {
+        jdbcTemplate.batchUpdate("INSERT INTO movie_actor (movie_id, actor_id) VALUES (?, ?)", rows);
+    }
+
+    /**
+     * Inserts movie_genre links as one JDBC batch.
+     *
+     * @param rows movie id and genre id of each link
+     */
+    public void insertMovieGenres(List<Object[]> rows) {
+        jdbcTemplate.batchUpdate("INSERT INTO movie_genre (movie_id, genre_id) VALUES (?, ?)", rows);
+    }
+
+    /**
+     * Inserts actors as one JDBC batch.
+     *
+     * @param rows id, name and birth date, in days since 1970-01-01, of each actor
+     */
+    public void insertActors(List<Object[]> rows) {
+        jdbcTemplate.batchUpdate("INSERT INTO actor (id, name, birth_date) VALUES (?, ?, ?)", rows);
+    }
+
+    /**
+     * Inserts genres as one JDBC batch.
+     *
+     * @param rows id and name of each genre
+     */
+    public void insertGenres(List<Object[]> rows) {
+        jdbcTemplate.batchUpdate("INSERT INTO genre (id, name) VALUES (?, ?)", rows);
+    }
+}
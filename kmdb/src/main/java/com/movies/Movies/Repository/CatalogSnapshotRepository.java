@@ -0,0 +1,139 @@
+package com.movies.Movies.Repository;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reads the rows of the in-memory catalog snapshot (see {@link com.movies.Movies.cache.CatalogSnapshot}): the whole
+ * catalog in one forward-only pass per table at startup, and afterwards the rows named by committed change events.
+ * Rows are handed to a {@link CatalogRowHandler} as they are read, as primitives, so no entities or DTOs are built.
+ */
+@Repository
+public class CatalogSnapshotRepository {
+
+    /**
+     * Receives the rows of the catalog. Actors and genres come before the links that refer to them.
+     */
+    public interface CatalogRowHandler {
+
+        void genre(long id, String name);
+
+        void actor(long id, String name, long birthEpochDay);
+
+        // A duration of 0 stands for none
+        void movie(long id, String title, int releaseYear, int duration);
+
+        void movieActor(long movieId, long actorId);
+
+        void movieGenre(long movieId, long genreId);
+    }
+
+    // Ids bound per IN list when reading changed rows
+    private static final int CHUNK = 500;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+
+    public CatalogSnapshotRepository(JdbcTemplate jdbcTemplate, NamedParameterJdbcTemplate namedParameterJdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.namedParameterJdbcTemplate = namedParameterJdbcTemplate;
+    }
+
+    /**
+     * Streams the whole catalog. SQLite steps through each result as it is read, so no table is held in memory,
+     * and all tables are read in one read-only transaction, so they come from the same state of the database.
+     * Links are sorted by owner, then by target id.
+     *
+     * @param handler receives every row
+     */
+    @Transactional(readOnly = true)
+    public void loadAll(CatalogRowHandler handler) {
+        jdbcTemplate.query("SELECT id, name FROM genre",
+                rs -> {
+                    handler.genre(rs.getLong(1), rs.getString(2));
+                });
+        jdbcTemplate.query("SELECT id, name, birth_date FROM actor",
+                rs -> {
+                    handler.actor(rs.getLong(1), rs.getString(2), rs.getLong(3));
+                });
+        jdbcTemplate.query("SELECT id, title, release_year, duration FROM movie",
+                rs -> {
+                    handler.movie(rs.getLong(1), rs.getString(2), rs.getInt(3), rs.getInt(4));
+                });
+        // Both orders are served by the covering join table indexes of V5
+        jdbcTemplate.query("SELECT movie_id, actor_id FROM movie_actor ORDER BY movie_id, actor_id",
+                rs -> {
+                    handler.movieActor(rs.getLong(1), rs.getLong(2));
+                });
+        jdbcTemplate.query("SELECT movie_id, genre_id FROM movie_genre ORDER BY movie_id, genre_id",
+                rs -> {
+                    handler.movieGenre(rs.getLong(1), rs.getLong(2));
+                });
+    }
+
+    /**
+     * Reads the current state of the given rows. Each movie comes with all of its links, and with the actor and
+     * genre rows they point to. Rows that no longer exist are simply not handed over.
+     * This runs after the change that named the rows has committed, in a transaction of its own, as work in the
+     * committed transaction would no longer be visible to anybody.
+     *
+     * @param movieIds the ids of the movies to read
+     * @param actorIds the ids of the actors to read
+     * @param genreIds the ids of the genres to read
+     * @param handler  receives the rows
+     */
+    @Transactional(propagation = Propagation.REQUIRES_NEW, readOnly = true)
+    public void loadRows(Collection<Long> movieIds, Collection<Long> actorIds, Collection<Long> genreIds,
+                         CatalogRowHandler handler) {
+        for (List<Long> ids : chunks(genreIds)) {
+            namedParameterJdbcTemplate.query("SELECT id, name FROM genre WHERE id IN (:ids)", Map.of("ids", ids),
+                    rs -> {
+                        handler.genre(rs.getLong(1), rs.getString(2));
+                    });
+        }
+        for (List<Long> ids : chunks(actorIds)) {
+            namedParameterJdbcTemplate.query("SELECT id, name, birth_date FROM actor WHERE id IN (:ids)", Map.of("ids", ids),
+                    rs -> {
+                        handler.actor(rs.getLong(1), rs.getString(2), rs.getLong(3));
+                    });
+        }
+        for (List<Long> ids : chunks(movieIds)) {
+            namedParameterJdbcTemplate.query("SELECT id, title, release_year, duration FROM movie WHERE id IN (:ids)",
+                    Map.of("ids", ids),
+                    rs -> {
+                        handler.movie(rs.getLong(1), rs.getString(2), rs.getInt(3), rs.getInt(4));
+                    });
+            namedParameterJdbcTemplate.query("SELECT ma.movie_id, a.id, a.name, a.birth_date "
+                            + "FROM movie_actor ma JOIN actor a ON a.id = ma.actor_id WHERE ma.movie_id IN (:ids) "
+                            + "ORDER BY ma.movie_id, a.id", Map.of("ids", ids),
+                    rs -> {
+                        handler.actor(rs.getLong(2), rs.getString(3), rs.getLong(4));
+                        handler.movieActor(rs.getLong(1), rs.getLong(2));
+                    });
+            namedParameterJdbcTemplate.query("SELECT mg.movie_id, g.id, g.name "
+                            + "FROM movie_genre mg JOIN genre g ON g.id = mg.genre_id WHERE mg.movie_id IN (:ids) "
+                            + "ORDER BY mg.movie_id, g.id", Map.of("ids", ids),
+                    rs -> {
+                        handler.genre(rs.getLong(2), rs.getString(3));
+                        handler.movieGenre(rs.getLong(1), rs.getLong(2));
+                    });
+        }
+    }
+
+    private static List<List<Long>> chunks(Collection<Long> ids) {
+        List<List<Long>> chunks = new ArrayList<>();
+        List<Long> all = List.copyOf(ids);
+        for (int from = 0; from < all.size(); from += CHUNK) {
+            chunks.add(all.subList(from, Math.min(from + CHUNK, all.size())));
+        }
+        return chunks;
+    }
+}
@@ -1,17 +1,20 @@
 package com.movies.Movies.Repository;
 
 import com.movies.Movies.Entity.Genre;
+import com.movies.Movies.dto.GenreDTO;
 
-import java.util.Optional;
-
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
-import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 @Repository
 public interface GenreRepository extends JpaRepository<Genre, Long> {
 
-    @Query("SELECT g FROM Genre g WHERE g.name = :name")
-    Optional<Genre> findByName(@Param("name") String name);
+    // Read model: genres projected straight into DTOs, without managed entities
+
+    @Query(value = "SELECT new com.movies.Movies.dto.GenreDTO(g.id, g.name) FROM Genre g",
+            countQuery = "SELECT COUNT(g) FROM Genre g")
+    Page<GenreDTO> findAllGenreDTOs(Pageable pageable);
 }
@@ -0,0 +1,36 @@
+package com.movies.Movies.Repository;
+
+import com.movies.Movies.id.IdBlockAllocator;
+
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+/**
+ * The id_sequence table, from which Movie, Actor and Genre ids are allocated in blocks by {@link IdBlockAllocator}.
+ * Hibernate draws from it through the {@link com.movies.Movies.id.PooledTableId} generators of the entities,
+ * and the bulk import reserves whole blocks through {@link #reserve(String, int)}.
+ * The table and its starting values are created by the V2 migration.
+ */
+@Repository
+public class IdSequenceRepository {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public IdSequenceRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Reserves a block of consecutive ids, for rows inserted without going through Hibernate.
+     * Must run inside the transaction that inserts the rows.
+     *
+     * @param sequence the sequence to draw from: movie, actor or genre
+     * @param count    the number of ids to reserve
+     * @return the first id of the block
+     */
+    public long reserve(String sequence, int count) {
+        IdBlockAllocator allocator = IdBlockAllocator.forSequence(sequence);
+        return jdbcTemplate.execute((ConnectionCallback<Long>) connection -> allocator.reserve(connection, count));
+    }
+}
@@ -0,0 +1,117 @@
+package com.movies.Movies.Repository;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.movies.Movies.dto.MovieDTO;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+/**
+ * Reads the whole movie catalog, or the movies of one genre, actor or release year, in a single forward-only pass,
+ * for the NDJSON export.
+ * Each row carries the movie and, aggregated by SQLite into JSON arrays, the ids and names of its actors and genres,
+ * so the export needs one query however many movies there are. Rows are mapped straight to MovieDTOs and handed
+ * to the caller one at a time; no entities are loaded, so nothing accumulates in a persistence context.
+ */
+@Repository
+public class MovieExportRepository {
+
+    // Rows fetched from the driver per round trip; bounds the memory held by the cursor
+    private static final int FETCH_SIZE = 500;
+
+    private static final String EXPORT_QUERY = "SELECT m.id, m.title, m.release_year, m.duration, "
+            + "(SELECT json_group_array(json_array(a.id, a.name)) FROM movie_actor ma JOIN actor a ON a.id = ma.actor_id "
+            + "WHERE ma.movie_id = m.id) AS actors, "
+            + "(SELECT json_group_array(json_array(g.id, g.name)) FROM movie_genre mg JOIN genre g ON g.id = mg.genre_id "
+            + "WHERE mg.movie_id = m.id) AS genres "
+            + "FROM movie m";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+
+    public MovieExportRepository(JdbcTemplate jdbcTemplate, ObjectMapper objectMapper) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Streams every movie matching the given filters, in id order, to the given consumer.
+     * Filters left null do not restrict the export.
+     *
+     * @param genreId     only movies of this genre
+     * @param actorId     only movies with this actor
+     * @param releaseYear only movies released in this year
+     * @param sink        receives each movie as soon as its row is read
+     */
+    public void streamMovies(Long genreId, Long actorId, Integer releaseYear, Consumer<MovieDTO> sink) {
+        List<String> conditions = new ArrayList<>();
+        List<Object> params = new ArrayList<>();
+        if (genreId != null) {
+            conditions.add("m.id IN (SELECT movie_id FROM movie_genre WHERE genre_id = ?)");
+            params.add(genreId);
+        }
+        if (actorId != null) {
+            conditions.add("m.id IN (SELECT movie_id FROM movie_actor WHERE actor_id = ?)");
+            params.add(actorId);
+        }
+        if (releaseYear != null) {
+            conditions.add("m.release_year = ?");
+            params.add(releaseYear);
+        }
+        String sql = EXPORT_QUERY + (conditions.isEmpty() ? "" : " WHERE " + String.join(" AND ", conditions))
+                + " ORDER BY m.id";
+        jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(sql,
+                    ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            statement.setFetchSize(FETCH_SIZE);
+            for (int i = 0; i < params.size(); i++) {
+                statement.setObject(i + 1, params.get(i));
+            }
+            return statement;
+        }, (ResultSet rs) -> {
+            sink.accept(mapRow(rs));
+        });
+    }
+
+    private MovieDTO mapRow(ResultSet rs) throws SQLException {
+        MovieDTO dto = new MovieDTO(rs.getLong("id"), rs.getString("title"),
+                rs.getInt("release_year"), rs.getInt("duration"));
+        List<Long> actorIds = new ArrayList<>();
+        List<String> actorNames = new ArrayList<>();
+        readCredits(rs.getString("actors"), actorIds, actorNames);
+        List<Long> genreIds = new ArrayList<>();
+        List<String> genreNames = new ArrayList<>();
+        readCredits(rs.getString("genres"), genreIds, genreNames);
+        // Same shape as the list endpoints: ids are left out and names are absent when there are none
+        dto.setActorIds(actorIds.isEmpty() ? null : actorIds);
+        dto.setActors(actorNames.isEmpty() ? Optional.empty() : Optional.of(actorNames));
+        dto.setGenreIds(genreIds.isEmpty() ? null : genreIds);
+        dto.setGenres(genreNames.isEmpty() ? Optional.empty() : Optional.of(genreNames));
+        return dto;
+    }
+
+    // Splits a JSON array of [id, name] pairs into the two lists
+    private void readCredits(String json, List<Long> ids, List<String> names) throws SQLException {
+        if (json == null) {
+            return;
+        }
+        try {
+            for (JsonNode credit : objectMapper.readTree(json)) {
+                ids.add(credit.get(0).asLong());
+                names.add(credit.get(1).asText());
+            }
+        } catch (JsonProcessingException ex) {
+            throw new SQLException("Malformed credit list: " + json, ex);
+        }
+    }
+}
@@ -1,6 +1,7 @@
 package com.movies.Movies.Repository;
 
 import com.movies.Movies.Entity.Movie;
+import com.movies.Movies.dto.MovieDTO;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Repository;
@@ -9,32 +10,69 @@ import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
 import java.util.List;
 
 @Repository
 public interface MovieRepository extends JpaRepository<Movie, Long> {
 
-    // Paginated query to find movies by genre
-    @Query("SELECT m FROM Movie m JOIN m.genres g WHERE g.id = :genreId")
-    Page<Movie> findByGenre(@Param("genreId") Long genreId, Pageable pageable);
+    // Check existence of a movie by normalized title, release year, and duration; a single probe of ux_movie_natural_key
+    @Query("SELECT CASE WHEN COUNT(m) > 0 THEN true ELSE false END FROM Movie m WHERE m.normalizedTitle = :normalizedTitle AND m.releaseYear = :releaseYear AND m.duration = :duration")
+    boolean existsByNormalizedTitleAndReleaseYearAndDuration(@Param("normalizedTitle") String normalizedTitle, @Param("releaseYear") Integer releaseYear, @Param("duration") Integer duration);
 
-    // Paginated query to find movies by release year
-    @Query("SELECT m FROM Movie m WHERE m.releaseYear = :releaseYear")
-    Page<Movie> findByReleaseYear(@Param("releaseYear") Integer releaseYear, Pageable pageable);
+    // Read model for endpoints returning MovieDTOs: movie rows are projected straight into DTOs, and the actor
+    // and genre names of a whole page are then gathered by a single findCreditsByMovieIdIn query.
 
-    // Paginated query to find movies by genre and release year
-    @Query("SELECT m FROM Movie m JOIN m.genres g WHERE g.id = :genreId AND m.releaseYear = :releaseYear")
-    Page<Movie> findByGenreAndReleaseYear(@Param("genreId") Long genreId, @Param("releaseYear") Integer releaseYear, Pageable pageable);
+    @Query(value = "SELECT new com.movies.Movies.dto.MovieDTO(m.id, m.title, m.releaseYear, m.duration) FROM Movie m",
+            countQuery = "SELECT COUNT(m) FROM Movie m")
+    Page<MovieDTO> findAllMovieDTOs(Pageable pageable);
 
-    // Check existence of a movie by title, release year, and duration
-    @Query("SELECT CASE WHEN COUNT(m) > 0 THEN true ELSE false END FROM Movie m WHERE m.title = :title AND m.releaseYear = :releaseYear AND m.duration = :duration")
-    boolean existsByTitleAndReleaseYearAndDuration(@Param("title") String title, @Param("releaseYear") Integer releaseYear, @Param("duration") Integer duration);
+    // Keyset pagination: seeks past the last id of the previous page on the primary key, without OFFSET or COUNT
+    @Query("SELECT new com.movies.Movies.dto.MovieDTO(m.id, m.title, m.releaseYear, m.duration) FROM Movie m WHERE m.id > :afterId ORDER BY m.id")
+    List<MovieDTO> findMovieDTOsAfter(@Param("afterId") Long afterId, Pageable pageable);
 
-    // Non-paginated query to find movies by release year
-    @Query("SELECT m FROM Movie m WHERE m.releaseYear = :releaseYear")
-    List<Movie> findByReleaseYear(@Param("releaseYear") int releaseYear);
+    // Filtered pages, in id order; the filters and the counts run on ix_movie_release_year, ix_movie_genre_genre
+    // and ix_movie_actor_actor
 
-    // Non-paginated, case-insensitive search by title
-    @Query("SELECT m FROM Movie m WHERE LOWER(m.title) LIKE LOWER(CONCAT('%', :title, '%'))")
-    List<Movie> findByTitleContainingIgnoreCase(@Param("title") String title);
+    @Query(value = "SELECT new com.movies.Movies.dto.MovieDTO(m.id, m.title, m.releaseYear, m.duration) FROM Movie m WHERE m.releaseYear = :releaseYear ORDER BY m.id",
+            countQuery = "SELECT COUNT(m) FROM Movie m WHERE m.releaseYear = :releaseYear")
+    Page<MovieDTO> findMovieDTOsByReleaseYear(@Param("releaseYear") int releaseYear, Pageable pageable);
+
+    @Query(value = "SELECT new com.movies.Movies.dto.MovieDTO(m.id, m.title, m.releaseYear, m.duration) FROM Movie m JOIN m.genres g WHERE g.id = :genreId ORDER BY m.id",
+            countQuery = "SELECT COUNT(m) FROM Movie m JOIN m.genres g WHERE g.id = :genreId")
+    Page<MovieDTO> findMovieDTOsByGenre(@Param("genreId") Long genreId, Pageable pageable);
+
+    @Query(value = "SELECT new com.movies.Movies.dto.MovieDTO(m.id, m.title, m.releaseYear, m.duration) FROM Movie m JOIN m.actors a WHERE a.id = :actorId ORDER BY m.id",
+            countQuery = "SELECT COUNT(m) FROM Movie m JOIN m.actors a WHERE a.id = :actorId")
+    Page<MovieDTO> findMovieDTOsByActor(@Param("actorId") Long actorId, Pageable pageable);
+
+    @Query(value = "SELECT new com.movies.Movies.dto.MovieDTO(m.id, m.title, m.releaseYear, m.duration) FROM Movie m WHERE LOWER(m.title) LIKE LOWER(CONCAT('%', :title, '%')) ORDER BY m.id",
+            countQuery = "SELECT COUNT(m) FROM Movie m WHERE LOWER(m.title) LIKE LOWER(CONCAT('%', :title, '%'))")
+    Page<MovieDTO> findMovieDTOsByTitleContainingIgnoreCase(@Param("title") String title, Pageable pageable);
+
+    @Query("SELECT new com.movies.Movies.dto.MovieDTO(m.id, m.title, m.releaseYear, m.duration) FROM Movie m WHERE m.id IN :ids")
+    List<MovieDTO> findMovieDTOsByIdIn(@Param("ids") Collection<Long> ids);
+
+    // Actor and genre ids and names of the given movies, as one row per credit, in join table order
+    @Query(value = "SELECT ma.movie_id AS movieId, 'actor' AS kind, a.id AS id, a.name AS name "
+            + "FROM movie_actor ma JOIN actor a ON a.id = ma.actor_id WHERE ma.movie_id IN (:movieIds) "
+            + "UNION ALL "
+            + "SELECT mg.movie_id AS movieId, 'genre' AS kind, g.id AS id, g.name AS name "
+            + "FROM movie_genre mg JOIN genre g ON g.id = mg.genre_id WHERE mg.movie_id IN (:movieIds)",
+            nativeQuery = true)
+    List<CreditRow> findCreditsByMovieIdIn(@Param("movieIds") Collection<Long> movieIds);
+
+    /**
+     * A single actor or genre credit of a movie, as returned by {@link #findCreditsByMovieIdIn(Collection)}.
+     */
+    interface CreditRow {
+        Long getMovieId();
+
+        // Either "actor" or "genre"
+        String getKind();
+
+        Long getId();
+
+        String getName();
+    }
 }
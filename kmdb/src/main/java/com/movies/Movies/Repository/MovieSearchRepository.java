@@ -0,0 +1,108 @@
+package com.movies.Movies.Repository;
+
+import com.movies.Movies.Entity.Genre;
+import com.movies.Movies.Entity.Movie;
+import com.movies.Movies.dto.MovieDTO;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.Join;
+import jakarta.persistence.criteria.JoinType;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Subquery;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+/**
+ * Criteria queries behind the faceted movie query: one page of movies projected into DTOs, and the facet
+ * counts for the same filter. Filters come as {@link Specification}s, see {@link MovieSpecifications}.
+ */
+@Repository
+public class MovieSearchRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    /**
+     * Returns one page of the movies matching the filter, in id order, without their actors and genres.
+     *
+     * @param filter   the combined filter, or null for all movies
+     * @param pageable the page to return
+     * @return the movies on the page
+     */
+    public List<MovieDTO> findMovieDTOs(Specification<Movie> filter, Pageable pageable) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<MovieDTO> query = cb.createQuery(MovieDTO.class);
+        Root<Movie> movie = query.from(Movie.class);
+        query.select(cb.construct(MovieDTO.class,
+                movie.get("id"), movie.get("title"), movie.get("releaseYear"), movie.get("duration")));
+        where(query, filter, movie, cb);
+        query.orderBy(cb.asc(movie.get("id")));
+        return entityManager.createQuery(query)
+                .setFirstResult((int) pageable.getOffset())
+                .setMaxResults(pageable.getPageSize())
+                .getResultList();
+    }
+
+    /**
+     * Counts the movies matching the filter per genre and decade, in a single aggregate query.
+     * Movies are left-joined to their genres and grouped by genre and decade, so each row counts the movies of one
+     * genre in one decade. A movie with several genres appears in several rows; to count it only once towards its
+     * decade, and towards the total, each row also counts the movies for which it is the row of their lowest genre id.
+     * Movies without genres form rows with a null genre.
+     *
+     * @param filter the combined filter, or null for all movies
+     * @return one row per genre and decade that has matching movies
+     */
+    public List<FacetRow> countFacets(Specification<Movie> filter) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = cb.createTupleQuery();
+        Root<Movie> movie = query.from(Movie.class);
+        Join<Movie, Genre> genre = movie.join("genres", JoinType.LEFT);
+        Expression<Integer> decade = cb.prod(cb.quot(movie.<Integer>get("releaseYear"), 10).as(Integer.class), 10);
+
+        Subquery<Long> firstGenre = query.subquery(Long.class);
+        Join<Movie, Genre> otherGenre = firstGenre.correlate(movie).join("genres");
+        firstGenre.select(cb.min(otherGenre.<Long>get("id")));
+        Expression<Long> onceEach = cb.sum(cb.<Long>selectCase()
+                .when(cb.or(cb.isNull(genre.get("id")), cb.equal(genre.get("id"), firstGenre)), 1L)
+                .otherwise(0L));
+
+        query.multiselect(genre.get("id"), genre.get("name"), decade, cb.count(movie), onceEach);
+        where(query, filter, movie, cb);
+        query.groupBy(genre.get("id"), genre.get("name"), decade);
+        return entityManager.createQuery(query).getResultList().stream()
+                .map(row -> new FacetRow(row.get(0, Long.class), row.get(1, String.class),
+                        row.get(2, Integer.class), row.get(3, Long.class), row.get(4, Long.class)))
+                .toList();
+    }
+
+    // A filter made only of absent filters yields no predicate at all
+    private static void where(CriteriaQuery<?> query, Specification<Movie> filter, Root<Movie> movie, CriteriaBuilder cb) {
+        Predicate predicate = filter != null ? filter.toPredicate(movie, query, cb) : null;
+        if (predicate != null) {
+            query.where(predicate);
+        }
+    }
+
+    /**
+     * The movies of one genre in one decade, as returned by {@link #countFacets(Specification)}.
+     *
+     * @param genreId         the genre, null for movies without genres
+     * @param genreName       the name of the genre, null for movies without genres
+     * @param decade          the first year of the decade
+     * @param movies          the number of movies of the genre in the decade
+     * @param distinctMovies  the number of those movies not counted on another row of the same decade
+     */
+    public record FacetRow(Long genreId, String genreName, int decade, long movies, long distinctMovies) {
+    }
+}
@@ -0,0 +1,90 @@
+package com.movies.Movies.Repository;
+
+import com.movies.Movies.Entity.Actor;
+import com.movies.Movies.Entity.Genre;
+import com.movies.Movies.Entity.Movie;
+import com.movies.Movies.util.TitleNormalizer;
+
+import jakarta.persistence.criteria.Join;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Subquery;
+
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.Collection;
+
+/**
+ * Filters for the faceted movie query, one per facet, combined with {@link Specification#allOf}.
+ * Each factory returns null for a filter that was not given, which the combination skips.
+ * Filters on a collection match movies having any of the given values, and are written as
+ * EXISTS subqueries on the join table, so a movie is never returned twice.
+ */
+public final class MovieSpecifications {
+
+    // Highest code point; every title starting with the prefix sorts below prefix + this
+    private static final String MAX_CODE_POINT = new String(Character.toChars(Character.MAX_CODE_POINT));
+
+    private MovieSpecifications() {
+    }
+
+    public static Specification<Movie> releasedBetween(Integer fromYear, Integer toYear) {
+        return between("releaseYear", fromYear, toYear);
+    }
+
+    public static Specification<Movie> durationBetween(Integer minMinutes, Integer maxMinutes) {
+        return between("duration", minMinutes, maxMinutes);
+    }
+
+    public static Specification<Movie> inAnyGenre(Collection<Long> genreIds) {
+        if (genreIds == null || genreIds.isEmpty()) {
+            return null;
+        }
+        return (movie, query, cb) -> {
+            Subquery<Long> credit = query.subquery(Long.class);
+            Root<Movie> sameMovie = credit.correlate(movie);
+            Join<Movie, Genre> genre = sameMovie.join("genres");
+            return cb.exists(credit.select(genre.get("id")).where(genre.get("id").in(genreIds)));
+        };
+    }
+
+    public static Specification<Movie> withAnyActor(Collection<Long> actorIds) {
+        if (actorIds == null || actorIds.isEmpty()) {
+            return null;
+        }
+        return (movie, query, cb) -> {
+            Subquery<Long> credit = query.subquery(Long.class);
+            Root<Movie> sameMovie = credit.correlate(movie);
+            Join<Movie, Actor> actor = sameMovie.join("actors");
+            return cb.exists(credit.select(actor.get("id")).where(actor.get("id").in(actorIds)));
+        };
+    }
+
+    /**
+     * Matches titles starting with the given prefix, ignoring case and whitespace differences.
+     * Written as a range on the normalized title rather than a LIKE, which SQLite can not run on an index.
+     */
+    public static Specification<Movie> titleStartsWith(String prefix) {
+        String normalized = TitleNormalizer.normalize(prefix);
+        if (normalized == null || normalized.isEmpty()) {
+            return null;
+        }
+        return (movie, query, cb) -> cb.and(
+                cb.greaterThanOrEqualTo(movie.get("normalizedTitle"), normalized),
+                cb.lessThan(movie.get("normalizedTitle"), normalized + MAX_CODE_POINT));
+    }
+
+    private static Specification<Movie> between(String attribute, Integer min, Integer max) {
+        if (min == null && max == null) {
+            return null;
+        }
+        return (movie, query, cb) -> {
+            if (max == null) {
+                return cb.greaterThanOrEqualTo(movie.get(attribute), min);
+            }
+            if (min == null) {
+                return cb.lessThanOrEqualTo(movie.get(attribute), max);
+            }
+            return cb.between(movie.get(attribute), min, max);
+        };
+    }
+}
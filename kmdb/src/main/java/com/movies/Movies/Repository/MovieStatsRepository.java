@@ -0,0 +1,197 @@
+package com.movies.Movies.Repository;
+
+import com.movies.Movies.dto.StatsBucketDTO;
+
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The movie_stats summary table of V7: movie counts and duration totals for the whole catalog and per release
+ * year, genre and actor. The services keep it up to date with set-based deltas in the transaction of every write:
+ * a movie's contribution is subtracted before it changes or goes, and added once its new rows are written, each
+ * in one statement for any number of movies. Both are worked out from the movie and join table rows themselves,
+ * so a delta counts exactly what a full recount would.
+ */
+@Repository
+public class MovieStatsRepository {
+
+    /**
+     * The ways the catalog is broken down; TOTAL has a single bucket, 0.
+     */
+    public enum Dimension {
+        TOTAL, YEAR, GENRE, ACTOR
+    }
+
+    // Ids bound per IN list
+    private static final int CHUNK = 500;
+
+    private static final RowMapper<StatsBucketDTO> BUCKET = (rs, rowNum) -> new StatsBucketDTO(
+            rs.getLong("bucket"), rs.getString("label"), rs.getLong("movie_count"),
+            rs.getLong("duration_count") == 0 ? null : (double) rs.getLong("duration_sum") / rs.getLong("duration_count"));
+
+    private final NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+
+    public MovieStatsRepository(NamedParameterJdbcTemplate namedParameterJdbcTemplate) {
+        this.namedParameterJdbcTemplate = namedParameterJdbcTemplate;
+    }
+
+    /**
+     * The buckets of the movies matching a condition on {@code m}, with their movie counts and duration totals.
+     * Buckets without movies are left out, except for TOTAL, which is always there.
+     */
+    private static String buckets(String movieCondition) {
+        return "SELECT 'TOTAL' AS dimension, 0 AS bucket, COUNT(*) AS movie_count, "
+                + "COALESCE(SUM(m.duration), 0) AS duration_sum, COUNT(m.duration) AS duration_count "
+                + "FROM movie m WHERE " + movieCondition
+                + " UNION ALL SELECT 'YEAR', m.release_year, COUNT(*), COALESCE(SUM(m.duration), 0), COUNT(m.duration) "
+                + "FROM movie m WHERE " + movieCondition + " GROUP BY m.release_year"
+                + " UNION ALL SELECT 'GENRE', mg.genre_id, COUNT(*), COALESCE(SUM(m.duration), 0), COUNT(m.duration) "
+                + "FROM movie_genre mg JOIN movie m ON m.id = mg.movie_id WHERE " + movieCondition + " GROUP BY mg.genre_id"
+                + " UNION ALL SELECT 'ACTOR', ma.actor_id, COUNT(*), COALESCE(SUM(m.duration), 0), COUNT(m.duration) "
+                + "FROM movie_actor ma JOIN movie m ON m.id = ma.movie_id WHERE " + movieCondition + " GROUP BY ma.actor_id";
+    }
+
+    /**
+     * Adds the given movies, as currently stored, to the statistics. Call it once their rows and links are written;
+     * rows written through Hibernate must be flushed first.
+     *
+     * @param movieIds the ids of the movies
+     */
+    public void addMovies(Collection<Long> movieIds) {
+        applyMovies(movieIds, 1);
+    }
+
+    /**
+     * Takes the given movies, as currently stored, out of the statistics. Call it before their rows or links
+     * are changed or deleted. Year, genre and actor buckets left without movies are dropped; TOTAL is kept.
+     *
+     * @param movieIds the ids of the movies
+     */
+    public void subtractMovies(Collection<Long> movieIds) {
+        applyMovies(movieIds, -1);
+        // Seeks the count index once per dimension; a movie added back in the same transaction recreates its buckets
+        namedParameterJdbcTemplate.update("DELETE FROM movie_stats "
+                + "WHERE dimension IN ('YEAR', 'GENRE', 'ACTOR') AND movie_count = 0", Map.of());
+    }
+
+    private void applyMovies(Collection<Long> movieIds, int sign) {
+        for (List<Long> ids : chunks(movieIds)) {
+            // SQLite needs the WHERE clause to tell the upsert apart from a join constraint
+            namedParameterJdbcTemplate.update("INSERT INTO movie_stats (dimension, bucket, movie_count, duration_sum, duration_count) "
+                            + "SELECT dimension, bucket, :sign * movie_count, :sign * duration_sum, :sign * duration_count "
+                            + "FROM (" + buckets("m.id IN (:ids)") + ") WHERE true "
+                            + "ON CONFLICT (dimension, bucket) DO UPDATE SET "
+                            + "movie_count = movie_count + excluded.movie_count, "
+                            + "duration_sum = duration_sum + excluded.duration_sum, "
+                            + "duration_count = duration_count + excluded.duration_count",
+                    Map.of("ids", ids, "sign", sign));
+        }
+    }
+
+    /**
+     * Drops the buckets of deleted genres or actors. Their movies lose a genre or actor, which changes no other
+     * bucket.
+     *
+     * @param dimension GENRE or ACTOR
+     * @param ids       the ids of the deleted genres or actors
+     */
+    public void removeBuckets(Dimension dimension, Collection<Long> ids) {
+        for (List<Long> chunk : chunks(ids)) {
+            namedParameterJdbcTemplate.update("DELETE FROM movie_stats WHERE dimension = :dimension AND bucket IN (:ids)",
+                    Map.of("dimension", dimension.name(), "ids", chunk));
+        }
+    }
+
+    /**
+     * @return the TOTAL bucket, with the movie count and average duration of the whole catalog
+     */
+    public StatsBucketDTO findTotal() {
+        return namedParameterJdbcTemplate.query("SELECT bucket, NULL AS label, movie_count, duration_sum, duration_count "
+                        + "FROM movie_stats WHERE dimension = 'TOTAL'", Map.of(), BUCKET).stream()
+                .findFirst()
+                .orElse(new StatsBucketDTO(0L, null, 0, null));
+    }
+
+    /**
+     * @return the release years with movies, in year order
+     */
+    public List<StatsBucketDTO> findYears() {
+        return namedParameterJdbcTemplate.query("SELECT bucket, CAST(bucket AS TEXT) AS label, movie_count, duration_sum, duration_count "
+                + "FROM movie_stats WHERE dimension = 'YEAR' AND movie_count > 0 ORDER BY bucket", Map.of(), BUCKET);
+    }
+
+    /**
+     * @return the genres with movies, labelled with their names, most movies first
+     */
+    public List<StatsBucketDTO> findGenres() {
+        return namedParameterJdbcTemplate.query("SELECT s.bucket, g.name AS label, s.movie_count, s.duration_sum, s.duration_count "
+                + "FROM movie_stats s LEFT JOIN genre g ON g.id = s.bucket "
+                + "WHERE s.dimension = 'GENRE' AND s.movie_count > 0 ORDER BY s.movie_count DESC, s.bucket", Map.of(), BUCKET);
+    }
+
+    /**
+     * Returns one page of the actors with movies, labelled with their names, most movies first,
+     * read in order from the count index.
+     *
+     * @param offset the number of actors to skip
+     * @param limit  the number of actors to return
+     * @return the page of actors
+     */
+    public List<StatsBucketDTO> findActors(long offset, int limit) {
+        return namedParameterJdbcTemplate.query("SELECT s.bucket, a.name AS label, s.movie_count, s.duration_sum, s.duration_count "
+                        + "FROM movie_stats s LEFT JOIN actor a ON a.id = s.bucket "
+                        + "WHERE s.dimension = 'ACTOR' AND s.movie_count > 0 ORDER BY s.movie_count DESC, s.bucket "
+                        + "LIMIT :limit OFFSET :offset",
+                Map.of("limit", limit, "offset", offset), BUCKET);
+    }
+
+    /**
+     * @return the number of actors with movies
+     */
+    public long countActors() {
+        return namedParameterJdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM movie_stats WHERE dimension = 'ACTOR' AND movie_count > 0", Map.of(), Long.class);
+    }
+
+    /**
+     * Recounts the statistics from the catalog and compares them with the stored ones. It reads the whole catalog,
+     * so it runs in a read-only transaction on a reader connection, where it sees one consistent state of both
+     * without holding up writers.
+     *
+     * @return the number of buckets whose stored values differ from the recount, or that only one of them has
+     */
+    @Transactional(readOnly = true)
+    public long countDrift() {
+        String fresh = "SELECT * FROM (" + buckets("true") + ") WHERE movie_count <> 0";
+        String stored = "SELECT dimension, bucket, movie_count, duration_sum, duration_count FROM movie_stats WHERE movie_count <> 0";
+        return namedParameterJdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM (SELECT dimension, bucket FROM (" + fresh + " EXCEPT " + stored + ")"
+                        + " UNION SELECT dimension, bucket FROM (" + stored + " EXCEPT " + fresh + "))", Map.of(), Long.class);
+    }
+
+    /**
+     * Replaces the statistics with a recount of the catalog, in one write transaction.
+     */
+    @Transactional
+    public void rebuild() {
+        namedParameterJdbcTemplate.update("DELETE FROM movie_stats", Map.of());
+        namedParameterJdbcTemplate.update("INSERT INTO movie_stats (dimension, bucket, movie_count, duration_sum, duration_count) "
+                + "SELECT * FROM (" + buckets("true") + ") WHERE true", Map.of());
+    }
+
+    private static List<List<Long>> chunks(Collection<Long> ids) {
+        List<List<Long>> chunks = new ArrayList<>();
+        List<Long> all = List.copyOf(ids);
+        for (int from = 0; from < all.size(); from += CHUNK) {
+            chunks.add(all.subList(from, Math.min(from + CHUNK, all.size())));
+        }
+        return chunks;
+    }
+}
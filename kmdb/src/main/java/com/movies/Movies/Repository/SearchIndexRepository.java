@@ -0,0 +1,220 @@
+package com.movies.Movies.Repository;
+
+import jakarta.annotation.PostConstruct;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.support.PageableExecutionUtils;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+/**
+ * Full-text indexes over movie titles and actor names, kept in SQLite FTS5 virtual tables.
+ * The tables use the trigram tokenizer, so a MATCH on a quoted term finds the same rows as a
+ * case-insensitive substring LIKE, but through the index instead of a full table scan, and ranked by bm25.
+ * Terms shorter than three characters can not be matched by trigrams; for those, and when the SQLite
+ * build has no FTS5 support, searches return {@link Optional#empty()} and callers fall back to LIKE.
+ * The services keep the indexes in sync on create, update and delete.
+ */
+@Repository
+@DependsOn("entityManagerFactory")
+public class SearchIndexRepository {
+
+    private static final Logger log = LoggerFactory.getLogger(SearchIndexRepository.class);
+
+    // Shortest term the trigram tokenizer can match
+    private static final int MIN_TERM_LENGTH = 3;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private volatile boolean available;
+
+    public SearchIndexRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Checks that the index tables created by the V4 migration are present and rebuilds any index that is
+     * out of step with its source table, e.g. after rows were written or renamed by a tool that bypasses the services.
+     */
+    @PostConstruct
+    void verifyIndexes() {
+        try {
+            Integer tables = jdbcTemplate.queryForObject(
+                    "SELECT COUNT(*) FROM sqlite_master WHERE name IN ('movie_title_fts', 'actor_name_fts')", Integer.class);
+            if (tables == null || tables < 2) {
+                log.warn("Full-text index tables are missing, falling back to LIKE searches");
+                available = false;
+                return;
+            }
+            rebuildIfStale("movie_title_fts", "title", "movie");
+            rebuildIfStale("actor_name_fts", "name", "actor");
+            available = true;
+        } catch (DataAccessException ex) {
+            log.warn("Full-text search is unavailable, falling back to LIKE searches: {}", ex.getMessage());
+            available = false;
+        }
+    }
+
+    // Compares the ids and texts of both tables, so a renamed row is caught as well as a missing or extra one
+    private void rebuildIfStale(String index, String column, String sourceTable) {
+        String source = "SELECT id, " + column + " FROM " + sourceTable;
+        String indexed = "SELECT rowid, " + column + " FROM " + index;
+        Long differences = jdbcTemplate.queryForObject("SELECT (SELECT COUNT(*) FROM (" + source + " EXCEPT " + indexed + "))"
+                + " + (SELECT COUNT(*) FROM (" + indexed + " EXCEPT " + source + "))", Long.class);
+        if (differences != null && differences > 0) {
+            log.info("Rebuilding {}, which differs from {} in {} rows", index, sourceTable, differences);
+            jdbcTemplate.update("DELETE FROM " + index);
+            jdbcTemplate.update("INSERT INTO " + index + "(rowid, " + column + ") SELECT id, " + column + " FROM " + sourceTable);
+        }
+    }
+
+    /**
+     * Adds or replaces the indexed title of a movie.
+     *
+     * @param id    the id of the movie
+     * @param title the current title of the movie
+     */
+    public void indexMovie(Long id, String title) {
+        replace("movie_title_fts", "title", id, title);
+    }
+
+    /**
+     * Removes a movie from the title index.
+     *
+     * @param id the id of the movie
+     */
+    public void removeMovie(Long id) {
+        remove("movie_title_fts", id);
+    }
+
+    /**
+     * Removes movies from the title index as one JDBC batch.
+     *
+     * @param ids the ids of the movies
+     */
+    public void removeMovies(Collection<Long> ids) {
+        removeAll("movie_title_fts", ids);
+    }
+
+    /**
+     * Adds or replaces the indexed name of an actor.
+     *
+     * @param id   the id of the actor
+     * @param name the current name of the actor
+     */
+    public void indexActor(Long id, String name) {
+        replace("actor_name_fts", "name", id, name);
+    }
+
+    /**
+     * Removes an actor from the name index.
+     *
+     * @param id the id of the actor
+     */
+    public void removeActor(Long id) {
+        remove("actor_name_fts", id);
+    }
+
+    /**
+     * Removes actors from the name index as one JDBC batch.
+     *
+     * @param ids the ids of the actors
+     */
+    public void removeActors(Collection<Long> ids) {
+        removeAll("actor_name_fts", ids);
+    }
+
+    /**
+     * Indexes the titles of newly inserted movies as one JDBC batch.
+     *
+     * @param rows id and title of each movie
+     */
+    public void indexNewMovies(List<Object[]> rows) {
+        insertAll("movie_title_fts", "title", rows);
+    }
+
+    /**
+     * Indexes the names of newly inserted actors as one JDBC batch.
+     *
+     * @param rows id and name of each actor
+     */
+    public void indexNewActors(List<Object[]> rows) {
+        insertAll("actor_name_fts", "name", rows);
+    }
+
+    /**
+     * Finds the ids of movies whose title contains the given text, ignoring case, best matches first.
+     *
+     * @param title    the text to search for
+     * @param pageable the page of results to return
+     * @return the page of matching movie ids, or empty if the index can not answer this search
+     */
+    public Optional<Page<Long>> searchMovieIds(String title, Pageable pageable) {
+        return search("movie_title_fts", title, pageable);
+    }
+
+    /**
+     * Finds the ids of actors whose name contains the given text, ignoring case, best matches first.
+     *
+     * @param name     the text to search for
+     * @param pageable the page of results to return
+     * @return the page of matching actor ids, or empty if the index can not answer this search
+     */
+    public Optional<Page<Long>> searchActorIds(String name, Pageable pageable) {
+        return search("actor_name_fts", name, pageable);
+    }
+
+    private void replace(String index, String column, Long id, String text) {
+        if (!available) {
+            return;
+        }
+        remove(index, id);
+        jdbcTemplate.update("INSERT INTO " + index + "(rowid, " + column + ") VALUES (?, ?)", id, text);
+    }
+
+    private void insertAll(String index, String column, List<Object[]> rows) {
+        if (!available || rows.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO " + index + "(rowid, " + column + ") VALUES (?, ?)", rows);
+    }
+
+    private void remove(String index, Long id) {
+        if (!available) {
+            return;
+        }
+        jdbcTemplate.update("DELETE FROM " + index + " WHERE rowid = ?", id);
+    }
+
+    private void removeAll(String index, Collection<Long> ids) {
+        if (!available || ids.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate("DELETE FROM " + index + " WHERE rowid = ?",
+                ids.stream().map(id -> new Object[]{id}).collect(Collectors.toList()));
+    }
+
+    private Optional<Page<Long>> search(String index, String text, Pageable pageable) {
+        if (!available || text == null || text.codePointCount(0, text.length()) < MIN_TERM_LENGTH) {
+            return Optional.empty();
+        }
+        // A quoted phrase is matched as a plain substring; embedded quotes are escaped by doubling them
+        String phrase = "\"" + text.replace("\"", "\"\"") + "\"";
+        List<Long> ids = jdbcTemplate.queryForList(
+                "SELECT rowid FROM " + index + " WHERE " + index + " MATCH ? ORDER BY rank, rowid LIMIT ? OFFSET ?",
+                Long.class, phrase, pageable.getPageSize(), pageable.getOffset());
+        // The matches are only counted when the page does not already tell how many there are
+        return Optional.of(PageableExecutionUtils.getPage(ids, pageable, () -> jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM " + index + " WHERE " + index + " MATCH ?", Long.class, phrase)));
+    }
+}
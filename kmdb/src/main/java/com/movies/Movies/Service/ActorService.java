@@ -1,20 +1,51 @@
 package com.movies.Movies.Service;
 
+import com.movies.Movies.cache.CatalogSnapshot;
+import com.movies.Movies.cache.SecondLevelCache;
 import com.movies.Movies.dto.ActorDTO;
+import com.movies.Movies.dto.ActorPathDTO;
+import com.movies.Movies.dto.CoStarDTO;
+import com.movies.Movies.dto.CursorPage;
+import com.movies.Movies.dto.MovieDTO;
 import com.movies.Movies.Entity.Actor;
+import com.movies.Movies.event.CatalogChangeEvent;
+import com.movies.Movies.event.CatalogChangeEvent.ChangeType;
 import com.movies.Movies.exception.ResourceAlreadyExistsException;
 import com.movies.Movies.exception.ResourceNotFoundException;
+import com.movies.Movies.Repository.ActorGraphRepository;
 import com.movies.Movies.Repository.ActorRepository;
+import com.movies.Movies.Repository.BulkDeleteRepository;
+import com.movies.Movies.Repository.BulkDeleteRepository.Link;
+import com.movies.Movies.Repository.MovieRepository;
+import com.movies.Movies.Repository.MovieStatsRepository;
+import com.movies.Movies.Repository.MovieStatsRepository.Dimension;
+import com.movies.Movies.Repository.SearchIndexRepository;
+import com.movies.Movies.util.BidirectionalSearch;
+import com.movies.Movies.util.CursorCodec;
 
+import io.micrometer.core.annotation.Timed;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
-import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeSet;
 import java.util.stream.Collectors;
 
 /**
@@ -22,8 +53,17 @@ import java.util.stream.Collectors;
  * Provides methods to perform CRUD operations on actors.
  */
 @Service
+@Timed(value = "movies.service", histogram = true)
 public class ActorService {
 
+    private static final Logger log = LoggerFactory.getLogger(ActorService.class);
+
+    // Most actors a single bulk delete may remove
+    private static final int MAX_BULK_DELETE = 1000;
+
+    // Longest chain of movies a path search looks for
+    private static final int MAX_DEGREES = 10;
+
     /**
      * Repository interface for Actor entities, providing data access methods.
      * This is used to interact with the database for Actor-related operations.
@@ -31,13 +71,75 @@ public class ActorService {
     private final ActorRepository actorRepository;
 
     /**
-     * Constructor for ActorService, injecting the ActorRepository dependency.
+     * Movie lookups, for the movies along a chain of co-stars.
+     */
+    private final MovieRepository movieRepository;
+
+    /**
+     * Set-based deletes of actors and their join table rows.
+     */
+    private final BulkDeleteRepository bulkDeleteRepository;
+
+    /**
+     * Full-text index over actor names, kept in sync with every actor write.
+     */
+    private final SearchIndexRepository searchIndexRepository;
+
+    /**
+     * Co-stars and path search hops read from the movie_actor table, for when the catalog snapshot is not loaded.
+     */
+    private final ActorGraphRepository actorGraphRepository;
+
+    /**
+     * Summary table of the catalog statistics, which keeps a bucket per actor.
+     */
+    private final MovieStatsRepository movieStatsRepository;
+
+    /**
+     * Second-level cache of the catalog entities, for the evictions Hibernate can not work out by itself.
+     */
+    private final SecondLevelCache secondLevelCache;
+
+    /**
+     * In-memory copy of the catalog, which answers the collaboration graph queries without SQL once it is loaded.
+     */
+    private final CatalogSnapshot catalogSnapshot;
+
+    /**
+     * Publishes a CatalogChangeEvent for every actor write, so the response cache can drop what it built from the row.
+     */
+    private final ApplicationEventPublisher eventPublisher;
+
+    /**
+     * Constructor for ActorService, injecting the ActorRepository, MovieRepository, BulkDeleteRepository,
+     * SearchIndexRepository, ActorGraphRepository, MovieStatsRepository, SecondLevelCache, CatalogSnapshot and
+     * ApplicationEventPublisher dependencies.
      * Ensures that ActorService has access to the necessary data access methods.
      *
      * @param actorRepository the repository for Actor entities
+     * @param movieRepository the repository for Movie entities
+     * @param bulkDeleteRepository the set-based deletes
+     * @param searchIndexRepository the full-text index over actor names
+     * @param actorGraphRepository the collaboration graph queries over the movie_actor table
+     * @param movieStatsRepository the summary table of the catalog statistics
+     * @param secondLevelCache the second-level cache of the catalog entities
+     * @param catalogSnapshot the in-memory copy of the catalog
+     * @param eventPublisher the publisher of catalog change events
      */
-    public ActorService(ActorRepository actorRepository) {
+    public ActorService(ActorRepository actorRepository, MovieRepository movieRepository,
+                        BulkDeleteRepository bulkDeleteRepository, SearchIndexRepository searchIndexRepository,
+                        ActorGraphRepository actorGraphRepository, MovieStatsRepository movieStatsRepository,
+                        SecondLevelCache secondLevelCache, CatalogSnapshot catalogSnapshot,
+                        ApplicationEventPublisher eventPublisher) {
         this.actorRepository = actorRepository;
+        this.movieRepository = movieRepository;
+        this.bulkDeleteRepository = bulkDeleteRepository;
+        this.searchIndexRepository = searchIndexRepository;
+        this.actorGraphRepository = actorGraphRepository;
+        this.movieStatsRepository = movieStatsRepository;
+        this.secondLevelCache = secondLevelCache;
+        this.catalogSnapshot = catalogSnapshot;
+        this.eventPublisher = eventPublisher;
     }
 
     /**
@@ -49,8 +151,31 @@ public class ActorService {
     @Transactional(readOnly = true)
     public Page<ActorDTO> getAllActors(Pageable pageable) {
         validatePagination(pageable);
-        return actorRepository.findAll(pageable)
-                                .map(this::mapToDTO);
+        return actorRepository.findAllActorDTOs(pageable);
+    }
+
+    /**
+     * Retrieves one page of actors in id order, continuing after the row the cursor points at.
+     * The query seeks on the primary key and skips the count, so every page costs the same however deep it is.
+     *
+     * @param after the token returned as nextCursor by the previous page, blank for the first page
+     * @param size the number of actors per page, 1 to 1000
+     * @return the page of ActorDTOs with the token of the next page
+     * @throws IllegalArgumentException if the cursor or the size is invalid
+     */
+    @Transactional(readOnly = true)
+    public CursorPage<ActorDTO> getActorsAfter(String after, int size) {
+        if (size < 1 || size > 1000) {
+            throw new IllegalArgumentException("Invalid pagination parameters: Page size must be 1 to 1000");
+        }
+        // Fetch one extra row to find out whether there is a next page
+        List<ActorDTO> actors = actorRepository.findActorDTOsAfter(CursorCodec.decode(after), PageRequest.of(0, size + 1));
+        String nextCursor = null;
+        if (actors.size() > size) {
+            actors = new ArrayList<>(actors.subList(0, size));
+            nextCursor = CursorCodec.encode(actors.get(size - 1).getId());
+        }
+        return new CursorPage<>(actors, size, nextCursor);
     }
 
     private void validatePagination(Pageable pageable) {
@@ -73,8 +198,9 @@ public class ActorService {
      * @return an ActorDTO representing the found actor
      * @throws ResourceNotFoundException if no actor is found with the given id
      */
+    @Transactional(readOnly = true)
     public ActorDTO getActorById(Long id) {
-        // Fetch the actor by id from the repository or throw exception if not found
+        // Fetch the actor by id, served from the second-level cache when present, or throw exception if not found
         Actor actor = actorRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException(HttpStatus.NOT_FOUND, "Actor not found with id: " + id));
 
@@ -85,19 +211,150 @@ public class ActorService {
     /**
      * Searches for actors by their name, ignoring case.
      * Useful for implementing search functionality where users can find actors by partial or full names.
+     * Uses the full-text name index, best matches first, and falls back to a substring scan
+     * for terms the index can not answer.
      *
      * @param name the name or partial name of the actor(s) to search for
-     * @return a list of ActorDTOs matching the search criteria
+     * @param pageable the page of results to return
+     * @return a page of ActorDTOs matching the search criteria
      */
-    public List<ActorDTO> getActorsByName(String name) {
-        System.out.println("Searching for actors with name containing: " + name);
-        List<ActorDTO> actors = actorRepository.findByNameContainingIgnoreCase(name).stream()
-                .map(this::mapToDTO)
-                .collect(Collectors.toList());
-        System.out.println("Found actors: " + actors);
+    @Transactional(readOnly = true)
+    public Page<ActorDTO> getActorsByName(String name, Pageable pageable) {
+        validatePagination(pageable);
+        Page<ActorDTO> actors = searchIndexRepository.searchActorIds(name, pageable)
+                .<Page<ActorDTO>>map(ids -> new PageImpl<>(findAllInOrder(ids.getContent()), pageable, ids.getTotalElements()))
+                .orElseGet(() -> actorRepository.findActorDTOsByNameContainingIgnoreCase(name, pageable));
+        if (log.isDebugEnabled()) {
+            log.debug("Found {} actors with name containing '{}': {}", actors.getTotalElements(), name, actors.getContent());
+        }
         return actors;
     }
 
+    /**
+     * Retrieves the actors born in the given range of years, oldest first.
+     * The filter runs in the database, on the birth date index.
+     *
+     * @param fromYear the first birth year to include
+     * @param toYear the last birth year to include
+     * @param pageable the page of results to return
+     * @return a page of ActorDTOs born from the start of fromYear to the end of toYear
+     * @throws IllegalArgumentException if a year is outside 1-9999, or fromYear is after toYear
+     */
+    @Transactional(readOnly = true)
+    public Page<ActorDTO> getActorsByBirthYear(int fromYear, int toYear, Pageable pageable) {
+        validatePagination(pageable);
+        if (fromYear < 1 || toYear > 9999) {
+            throw new IllegalArgumentException("Birth years must be between 1 and 9999");
+        }
+        if (fromYear > toYear) {
+            throw new IllegalArgumentException("bornFrom must not be after bornTo");
+        }
+        return actorRepository.findActorDTOsByBirthDateBetween(
+                LocalDate.of(fromYear, 1, 1), LocalDate.of(toYear + 1, 1, 1), pageable);
+    }
+
+    /**
+     * Retrieves the actors who have appeared in the most movies with the given actor.
+     * Served from the catalog snapshot when it is loaded, and otherwise by one self-join of the movie_actor table.
+     *
+     * @param id the unique identifier of the actor
+     * @param limit the number of co-stars to return, 1 to 100
+     * @return a list of CoStarDTOs, most shared movies first, then by id
+     * @throws ResourceNotFoundException if no actor is found with the given id
+     * @throws IllegalArgumentException if the limit is invalid
+     */
+    @Transactional(readOnly = true)
+    public List<CoStarDTO> getCoStars(Long id, int limit) {
+        if (limit < 1 || limit > 100) {
+            throw new IllegalArgumentException("limit must be 1 to 100");
+        }
+        if (catalogSnapshot.isReady()) {
+            return catalogSnapshot.findCoStars(id, limit)
+                    .orElseThrow(() -> new ResourceNotFoundException(HttpStatus.NOT_FOUND, "Actor not found with id: " + id));
+        }
+        if (!actorRepository.existsById(id)) {
+            throw new ResourceNotFoundException(HttpStatus.NOT_FOUND, "Actor not found with id: " + id);
+        }
+        return actorGraphRepository.findCoStars(id, limit);
+    }
+
+    /**
+     * Finds a shortest chain of movies linking two actors, where each movie was made by the actors before and
+     * after it, by a breadth-first search from both actors at once (see {@link BidirectionalSearch}).
+     * Served from the catalog snapshot when it is loaded, and otherwise with one movie_actor query per hop.
+     *
+     * @param fromId the unique identifier of the first actor
+     * @param toId the unique identifier of the last actor
+     * @param maxDegrees the most movies the chain may take, 1 to 10
+     * @return an ActorPathDTO of the actors and movies along the chain
+     * @throws ResourceNotFoundException if an actor is not found, or no chain of at most maxDegrees movies links them
+     * @throws IllegalArgumentException if maxDegrees is invalid
+     */
+    @Transactional(readOnly = true)
+    public ActorPathDTO getPath(Long fromId, Long toId, int maxDegrees) {
+        if (maxDegrees < 1 || maxDegrees > MAX_DEGREES) {
+            throw new IllegalArgumentException("maxDegrees must be 1 to " + MAX_DEGREES);
+        }
+        boolean snapshot = catalogSnapshot.isReady();
+        for (Long id : List.of(fromId, toId)) {
+            if (snapshot ? !catalogSnapshot.containsActor(id) : !actorRepository.existsById(id)) {
+                throw new ResourceNotFoundException(HttpStatus.NOT_FOUND, "Actor not found with id: " + id);
+            }
+        }
+        Optional<ActorPathDTO> path = snapshot
+                ? catalogSnapshot.findPath(fromId, toId, maxDegrees)
+                : BidirectionalSearch.shortestPath(fromId, toId, maxDegrees,
+                        actorGraphRepository::findCoStarEdges, actorGraphRepository::findCoStarEdges)
+                        .map(this::toPathDTO);
+        return path.orElseThrow(() -> new ResourceNotFoundException(HttpStatus.NOT_FOUND,
+                "No chain of at most " + maxDegrees + " movies links actors " + fromId + " and " + toId));
+    }
+
+    /**
+     * Fetches the actors and movies of a path as DTOs, in path order.
+     *
+     * @param path actor ids interleaved with the ids of the movies linking them
+     * @return the ActorPathDTO of the path
+     */
+    private ActorPathDTO toPathDTO(long[] path) {
+        List<Long> actorIds = new ArrayList<>();
+        List<Long> movieIds = new ArrayList<>();
+        for (int i = 0; i < path.length; i++) {
+            (i % 2 == 0 ? actorIds : movieIds).add(path[i]);
+        }
+        Map<Long, MovieDTO> moviesById = new HashMap<>();
+        if (!movieIds.isEmpty()) {
+            for (MovieDTO movie : movieRepository.findMovieDTOsByIdIn(movieIds)) {
+                // Only the movie itself; its credits are the actors on either side of it
+                movie.setActorIds(null);
+                movie.setGenreIds(null);
+                moviesById.put(movie.getId(), movie);
+            }
+        }
+        return new ActorPathDTO(findAllInOrder(actorIds),
+                movieIds.stream().map(moviesById::get).filter(Objects::nonNull).collect(Collectors.toList()));
+    }
+
+    /**
+     * Fetches the actors with the given ids as DTOs, in the order of the given ids.
+     *
+     * @param ids the ids of the actors, in the order they should be returned
+     * @return a list of ActorDTOs in the order of the given ids
+     */
+    private List<ActorDTO> findAllInOrder(List<Long> ids) {
+        if (ids.isEmpty()) {
+            return new ArrayList<>();
+        }
+        Map<Long, ActorDTO> actorsById = new HashMap<>();
+        for (ActorDTO actor : actorRepository.findActorDTOsByIdIn(ids)) {
+            actorsById.put(actor.getId(), actor);
+        }
+        return ids.stream()
+                .map(actorsById::get)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+    }
+
     /**
      * Creates a new actor in the repository.
      * Before creation, it checks if an actor with the same name and birth date already exists to prevent duplicates.
@@ -107,6 +364,7 @@ public class ActorService {
      * @throws ResourceNotFoundException if an actor with the same name and birth date already exists
      * @throws IllegalArgumentException if the actor's name or birth date is null or invalid
      */
+    @Transactional
     public ActorDTO createActor(ActorDTO actorDTO) {
         // Validate the actor's name to ensure it is not null or empty
         if (actorDTO.getName() == null || actorDTO.getName().trim().isEmpty()) {
@@ -119,7 +377,7 @@ public class ActorService {
         }
 
         // Check if an actor with the same name and birth date already exists
-        if (actorRepository.findByNameAndBirthDate(actorDTO.getName(), actorDTO.getBirthDate().toString()).isPresent()) {
+        if (actorRepository.findByNameAndBirthDate(actorDTO.getName(), actorDTO.getBirthDate()).isPresent()) {
             // If such an actor exists, throw an exception to prevent duplicate entries
             throw new ResourceAlreadyExistsException(HttpStatus.BAD_REQUEST, "An actor with the same name and birthdate already exists");
         }
@@ -127,8 +385,10 @@ public class ActorService {
         // Convert ActorDTO to Actor entity for persistence
         Actor actor = mapToEntity(actorDTO);
 
-        // Save the new actor to the repository (database)
+        // Save the new actor to the repository (database) and index its name
         actor = actorRepository.save(actor);
+        searchIndexRepository.indexActor(actor.getId(), actor.getName());
+        eventPublisher.publishEvent(CatalogChangeEvent.actor(actor.getId(), ChangeType.CREATED));
 
         // Convert the saved Actor entity back to ActorDTO to return to the caller
         return mapToDTO(actor);
@@ -144,6 +404,7 @@ public class ActorService {
      * @throws ResourceNotFoundException if no actor is found with the given id
      * @throws IllegalArgumentException if the updated actor's name or birth date is null or invalid
      */
+    @Transactional
     public ActorDTO updateActor(Long id, ActorDTO actorDTO) {
         // Fetch the actor by id from the repository or throw exception if not found
         Actor actor = actorRepository.findById(id)
@@ -154,11 +415,13 @@ public class ActorService {
             actor.setName(actorDTO.getName());
         }
         if (actorDTO.getBirthDate() != null) {
-            actor.setBirthDate(actorDTO.getBirthDate().format(DateTimeFormatter.ISO_DATE));
+            actor.setBirthDate(actorDTO.getBirthDate());
         }
 
-        // Save the updated actor to the repository (database)
+        // Save the updated actor to the repository (database) and reindex its name
         actor = actorRepository.save(actor);
+        searchIndexRepository.indexActor(actor.getId(), actor.getName());
+        eventPublisher.publishEvent(CatalogChangeEvent.actor(actor.getId(), ChangeType.UPDATED));
 
         // Convert the updated Actor entity to ActorDTO and return
         return mapToDTO(actor);
@@ -174,24 +437,68 @@ public class ActorService {
      * @throws ResourceNotFoundException if the actor is associated with movies and 'force' is false,
      *                                     or if no actor is found with the given id
      */
+    @Transactional
     public void deleteActor(Long id, boolean force) {
-        // Fetch the actor by id from the repository or throw exception if not found
-        Actor actor = actorRepository.findById(id)
-                .orElseThrow(() -> new ResourceNotFoundException(HttpStatus.NOT_FOUND, "Actor not found with id: " + id));
-        
-        if (!force) {
-            // If not forcing deletion, check if actor is associated with any movies
-            if (!actor.getMovies().isEmpty()) {
-                // If the actor is associated with movies, prevent deletion to avoid orphan records
-                throw new ResourceAlreadyExistsException(HttpStatus.BAD_REQUEST, "Actor is associated with movies and cannot be deleted.");
-            }
-        } else {
-            // If forcing deletion, remove the actor from all associated movies to maintain data integrity
-            actor.getMovies().forEach(movie -> movie.getActors().remove(actor));
+        // Check that the actor exists; throw an exception if not found
+        if (!actorRepository.existsById(id)) {
+            throw new ResourceNotFoundException(HttpStatus.NOT_FOUND, "Actor not found with id: " + id);
         }
-        
-        // Delete the actor from the repository (database)
-        actorRepository.delete(actor);
+
+        // Look up the movies of the actor straight from the join table, without loading them
+        Map<Long, List<Long>> movies = bulkDeleteRepository.findLinks(Link.ACTOR_MOVIES, List.of(id));
+
+        // If not forcing deletion and the actor is associated with movies, prevent deletion to avoid orphan records
+        if (!force && !movies.isEmpty()) {
+            throw new ResourceAlreadyExistsException(HttpStatus.BAD_REQUEST, "Actor is associated with movies and cannot be deleted.");
+        }
+
+        removeActors(List.of(id), movies);
+    }
+
+    /**
+     * Deletes several actors at once, all or none.
+     * Handles forced and non-forced deletion like {@link #deleteActor(Long, boolean)}, with a fixed number
+     * of statements however many actors and movies are involved.
+     *
+     * @param ids the unique identifiers of the actors to delete, at most 1000
+     * @param force flag indicating whether to force deletion even if associated with movies
+     * @throws IllegalArgumentException if no ids or more than 1000 ids are given
+     * @throws ResourceNotFoundException if any of the actors does not exist
+     * @throws ResourceAlreadyExistsException if any of the actors is associated with movies and force is false
+     */
+    @Transactional
+    public void deleteActors(Collection<Long> ids, boolean force) {
+        if (ids == null || ids.isEmpty() || ids.size() > MAX_BULK_DELETE) {
+            throw new IllegalArgumentException("Between 1 and " + MAX_BULK_DELETE + " actor ids must be given");
+        }
+        Set<Long> actorIds = new TreeSet<>(ids);
+        Set<Long> missing = new TreeSet<>(actorIds);
+        missing.removeAll(bulkDeleteRepository.findExistingIds("actor", actorIds));
+        if (!missing.isEmpty()) {
+            throw new ResourceNotFoundException(HttpStatus.NOT_FOUND, "Actors not found with ids: " + missing);
+        }
+
+        Map<Long, List<Long>> movies = bulkDeleteRepository.findLinks(Link.ACTOR_MOVIES, actorIds);
+        if (!force && !movies.isEmpty()) {
+            throw new ResourceAlreadyExistsException(HttpStatus.BAD_REQUEST,
+                    "Actors " + new TreeSet<>(movies.keySet()) + " are associated with movies and cannot be deleted.");
+        }
+
+        removeActors(actorIds, movies);
+    }
+
+    // Deletes the join table rows, then the actors, then their index entries; each is one statement for all actors
+    private void removeActors(Collection<Long> ids, Map<Long, List<Long>> movies) {
+        if (!movies.isEmpty()) {
+            bulkDeleteRepository.deleteLinks(Link.ACTOR_MOVIES, ids);
+            movieStatsRepository.removeBuckets(Dimension.ACTOR, movies.keySet());
+        }
+        bulkDeleteRepository.deleteRows("actor", ids);
+        searchIndexRepository.removeActors(ids);
+
+        // Evict the actors and the cached actor lists of the movies they were linked to
+        secondLevelCache.evictDeletedActors(ids, movies.values().stream().flatMap(List::stream).collect(Collectors.toSet()));
+        ids.forEach(id -> eventPublisher.publishEvent(CatalogChangeEvent.actor(id, ChangeType.DELETED)));
     }
 
     /**
@@ -211,8 +518,8 @@ public class ActorService {
         // Set the name from the Actor entity
         dto.setName(actor.getName());
         
-        // Parse the birthDate string from the Actor entity to LocalDate and set in the DTO
-        dto.setBirthDate(LocalDate.parse(actor.getBirthDate(), DateTimeFormatter.ISO_DATE));
+        // Set the birth date from the Actor entity
+        dto.setBirthDate(actor.getBirthDate());
         
         // Return the populated ActorDTO
         return dto;
@@ -235,8 +542,8 @@ public class ActorService {
         // Set the name from the ActorDTO
         actor.setName(actorDTO.getName());
         
-        // Format the LocalDate birthDate from the DTO to String in ISO_DATE format and set in the entity
-        actor.setBirthDate(actorDTO.getBirthDate().format(DateTimeFormatter.ISO_DATE));
+        // Set the birth date from the ActorDTO
+        actor.setBirthDate(actorDTO.getBirthDate());
         
         // Return the populated Actor entity
         return actor;
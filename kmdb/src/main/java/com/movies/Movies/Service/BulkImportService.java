@@ -0,0 +1,373 @@
+package com.movies.Movies.Service;
+
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.movies.Movies.cache.SecondLevelCache;
+import com.movies.Movies.dto.ActorDTO;
+import com.movies.Movies.dto.BulkImportResultDTO;
+import com.movies.Movies.dto.BulkRowResultDTO;
+import com.movies.Movies.dto.GenreDTO;
+import com.movies.Movies.dto.MovieDTO;
+import com.movies.Movies.event.CatalogChangeEvent;
+import com.movies.Movies.event.CatalogChangeEvent.ChangeType;
+import com.movies.Movies.Repository.BulkImportRepository;
+import com.movies.Movies.Repository.IdSequenceRepository;
+import com.movies.Movies.Repository.MovieStatsRepository;
+import com.movies.Movies.Repository.SearchIndexRepository;
+import com.movies.Movies.util.TitleNormalizer;
+
+import io.micrometer.core.annotation.Timed;
+
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.ValidationException;
+import jakarta.validation.Validator;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Service class responsible for bulk imports of movies, actors and genres.
+ * Rows are read one at a time from a JSON array or NDJSON stream and written in chunks, each chunk in its own
+ * transaction: ids of linked actors and genres and possible duplicates are looked up once per chunk, and the
+ * new rows and their links are inserted as JDBC batches. A failed chunk is rolled back on its own; the chunks
+ * before it stay committed. A row that does not fit the DTO or fails validation is reported as failed on its own,
+ * and the rows after it are still imported; only malformed JSON stops the import. The result reports the outcome
+ * of every row, by its position in the input.
+ */
+@Service
+@Timed(value = "movies.service", histogram = true)
+public class BulkImportService {
+
+    private static final Logger log = LoggerFactory.getLogger(BulkImportService.class);
+
+    private final BulkImportRepository bulkImportRepository;
+    private final IdSequenceRepository idSequenceRepository;
+    private final SearchIndexRepository searchIndexRepository;
+    private final MovieStatsRepository movieStatsRepository;
+    private final SecondLevelCache secondLevelCache;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ObjectMapper objectMapper;
+    private final Validator validator;
+    private final TransactionTemplate transactionTemplate;
+    private final int chunkSize;
+
+    /**
+     * Constructor for BulkImportService.
+     *
+     * @param bulkImportRepository the set-based lookups and batch inserts
+     * @param idSequenceRepository the id sequences shared with Hibernate
+     * @param searchIndexRepository the full-text index over movie titles and actor names
+     * @param movieStatsRepository the summary table of the catalog statistics
+     * @param secondLevelCache the second-level cache of the catalog entities
+     * @param eventPublisher the publisher of catalog change events
+     * @param objectMapper the application's JSON mapper, so rows are read like single POST bodies
+     * @param validator the bean validator, applying the same constraints as the single create endpoints
+     * @param transactionManager the transaction manager each chunk runs under
+     * @param chunkSize the number of rows written per transaction
+     */
+    public BulkImportService(BulkImportRepository bulkImportRepository, IdSequenceRepository idSequenceRepository,
+                             SearchIndexRepository searchIndexRepository, MovieStatsRepository movieStatsRepository,
+                             SecondLevelCache secondLevelCache, ApplicationEventPublisher eventPublisher,
+                             ObjectMapper objectMapper, Validator validator, PlatformTransactionManager transactionManager,
+                             @Value("${movies.bulk-import.chunk-size:1000}") int chunkSize) {
+        this.bulkImportRepository = bulkImportRepository;
+        this.idSequenceRepository = idSequenceRepository;
+        this.searchIndexRepository = searchIndexRepository;
+        this.movieStatsRepository = movieStatsRepository;
+        this.secondLevelCache = secondLevelCache;
+        this.eventPublisher = eventPublisher;
+        this.objectMapper = objectMapper;
+        this.validator = validator;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * A row of the input together with its position, counted from 0.
+     */
+    private record Row<T>(int index, T value) {
+    }
+
+    /**
+     * Imports movies. Linked actors and genres must already exist; a movie with the same title, ignoring case,
+     * release year and duration as a stored or earlier imported movie is reported as a duplicate and skipped.
+     *
+     * @param body a JSON array or NDJSON stream of MovieDTOs
+     * @return the outcome of every row
+     * @throws IOException if the request body can not be read
+     */
+    public BulkImportResultDTO importMovies(InputStream body) throws IOException {
+        return importRows(body, MovieDTO.class, this::writeMovies);
+    }
+
+    /**
+     * Imports actors. An actor with the same name and birth date as a stored or earlier imported actor
+     * is reported as a duplicate and skipped.
+     *
+     * @param body a JSON array or NDJSON stream of ActorDTOs
+     * @return the outcome of every row
+     * @throws IOException if the request body can not be read
+     */
+    public BulkImportResultDTO importActors(InputStream body) throws IOException {
+        return importRows(body, ActorDTO.class, this::writeActors);
+    }
+
+    /**
+     * Imports genres. A genre with the same name, ignoring case, as a stored or earlier imported genre
+     * is reported as a duplicate and skipped.
+     *
+     * @param body a JSON array or NDJSON stream of GenreDTOs
+     * @return the outcome of every row
+     * @throws IOException if the request body can not be read
+     */
+    public BulkImportResultDTO importGenres(InputStream body) throws IOException {
+        return importRows(body, GenreDTO.class, this::writeGenres);
+    }
+
+    private <T> BulkImportResultDTO importRows(InputStream body, Class<T> type,
+                                               Function<List<Row<T>>, List<BulkRowResultDTO>> writer) throws IOException {
+        BulkImportResultDTO result = new BulkImportResultDTO();
+        // Rows that could not be read, reported along with the chunk they would have been part of
+        List<BulkRowResultDTO> failed = new ArrayList<>();
+        List<Row<T>> chunk = new ArrayList<>(chunkSize);
+        int index = 0;
+        // readValues iterates over the elements of a root-level array as well as over whitespace-separated values
+        try (MappingIterator<T> rows = objectMapper.readerFor(type).readValues(body)) {
+            while (true) {
+                T value;
+                try {
+                    if (!rows.hasNextValue()) {
+                        break;
+                    }
+                    value = rows.nextValue();
+                } catch (JsonParseException ex) {
+                    // The parser can not find the start of the next row reliably, so the import stops here
+                    writeChunk(chunk, failed, writer, result);
+                    result.add(BulkRowResultDTO.failed(index, "Malformed JSON, import stopped: " + ex.getOriginalMessage()));
+                    return result;
+                } catch (JsonMappingException ex) {
+                    // Well-formed JSON that does not fit the DTO, such as a text for a number or an invalid date;
+                    // the iterator skips the rest of the row and goes on with the next one
+                    failed.add(BulkRowResultDTO.failed(index++, "Invalid row: " + ex.getOriginalMessage()));
+                    continue;
+                }
+                chunk.add(new Row<>(index++, value));
+                if (chunk.size() == chunkSize) {
+                    writeChunk(chunk, failed, writer, result);
+                    chunk = new ArrayList<>(chunkSize);
+                }
+            }
+        }
+        writeChunk(chunk, failed, writer, result);
+        return result;
+    }
+
+    private <T> void writeChunk(List<Row<T>> chunk, List<BulkRowResultDTO> failed,
+                                Function<List<Row<T>>, List<BulkRowResultDTO>> writer, BulkImportResultDTO result) {
+        List<BulkRowResultDTO> outcomes = new ArrayList<>(failed);
+        failed.clear();
+        if (!chunk.isEmpty()) {
+            try {
+                outcomes.addAll(transactionTemplate.execute(status -> writer.apply(chunk)));
+            } catch (RuntimeException ex) {
+                // The whole chunk was rolled back, so none of its rows were stored
+                log.warn("Bulk import chunk of {} rows rolled back", chunk.size(), ex);
+                String message = "Chunk rolled back: " + NestedExceptionUtils.getMostSpecificCause(ex).getMessage();
+                chunk.forEach(row -> outcomes.add(BulkRowResultDTO.failed(row.index(), message)));
+            }
+        }
+        outcomes.stream().sorted(Comparator.comparingInt(BulkRowResultDTO::getIndex)).forEach(result::add);
+    }
+
+    // Runs inside the chunk transaction
+    private List<BulkRowResultDTO> writeMovies(List<Row<MovieDTO>> chunk) {
+        List<BulkRowResultDTO> outcomes = new ArrayList<>(chunk.size());
+        List<Row<MovieDTO>> valid = validate(chunk, outcomes);
+
+        // Look up every referenced actor and genre, and every stored movie that could be a duplicate, in one go
+        Set<Long> actorIds = valid.stream().flatMap(row -> ids(row.value().getActorIds()).stream()).collect(Collectors.toSet());
+        Set<Long> genreIds = valid.stream().flatMap(row -> ids(row.value().getGenreIds()).stream()).collect(Collectors.toSet());
+        Set<Long> knownActors = bulkImportRepository.findExistingIds("actor", actorIds);
+        Set<Long> knownGenres = bulkImportRepository.findExistingIds("genre", genreIds);
+        Set<String> seen = bulkImportRepository.findMovieKeys(
+                valid.stream().map(row -> TitleNormalizer.normalize(row.value().getTitle())).collect(Collectors.toSet()));
+
+        List<Row<MovieDTO>> accepted = new ArrayList<>();
+        for (Row<MovieDTO> row : valid) {
+            MovieDTO movie = row.value();
+            Set<Long> rowActors = ids(movie.getActorIds());
+            Set<Long> rowGenres = ids(movie.getGenreIds());
+            List<Long> unknownActors = rowActors.stream().filter(id -> !knownActors.contains(id)).toList();
+            List<Long> unknownGenres = rowGenres.stream().filter(id -> !knownGenres.contains(id)).toList();
+            if (!unknownActors.isEmpty() || !unknownGenres.isEmpty()) {
+                List<String> problems = new ArrayList<>();
+                if (!unknownActors.isEmpty()) {
+                    problems.add("unknown actor ids " + unknownActors);
+                }
+                if (!unknownGenres.isEmpty()) {
+                    problems.add("unknown genre ids " + unknownGenres);
+                }
+                outcomes.add(BulkRowResultDTO.failed(row.index(), String.join(", ", problems)));
+                continue;
+            }
+            if (!seen.add(BulkImportRepository.movieKey(TitleNormalizer.normalize(movie.getTitle()), movie.getReleaseYear(), movie.getDuration()))) {
+                outcomes.add(BulkRowResultDTO.duplicate(row.index(), "Movie already exists with the same details."));
+                continue;
+            }
+            accepted.add(row);
+        }
+
+        // Draw the ids from the same sequence as Hibernate, one block for the whole chunk
+        long nextId = accepted.isEmpty() ? 0 : idSequenceRepository.reserve("movie", accepted.size());
+        List<Object[]> movies = new ArrayList<>();
+        List<Object[]> titles = new ArrayList<>();
+        List<Object[]> movieActors = new ArrayList<>();
+        List<Object[]> movieGenres = new ArrayList<>();
+        Set<Long> linkedActors = new HashSet<>();
+        Set<Long> linkedGenres = new HashSet<>();
+        for (Row<MovieDTO> row : accepted) {
+            MovieDTO movie = row.value();
+            Set<Long> rowActors = ids(movie.getActorIds());
+            Set<Long> rowGenres = ids(movie.getGenreIds());
+            long id = nextId++;
+            movies.add(new Object[]{id, movie.getTitle(), TitleNormalizer.normalize(movie.getTitle()), movie.getReleaseYear(), movie.getDuration()});
+            titles.add(new Object[]{id, movie.getTitle()});
+            rowActors.forEach(actorId -> movieActors.add(new Object[]{id, actorId}));
+            rowGenres.forEach(genreId -> movieGenres.add(new Object[]{id, genreId}));
+            linkedActors.addAll(rowActors);
+            linkedGenres.addAll(rowGenres);
+            outcomes.add(BulkRowResultDTO.created(row.index(), id));
+        }
+
+        bulkImportRepository.insertMovies(movies);
+        bulkImportRepository.insertMovieActors(movieActors);
+        bulkImportRepository.insertMovieGenres(movieGenres);
+        searchIndexRepository.indexNewMovies(titles);
+        movieStatsRepository.addMovies(movies.stream().map(movie -> (Long) movie[0]).toList());
+        // The rows bypassed Hibernate, so the cached movie lists of the linked actors and genres are stale
+        secondLevelCache.evictActorMovies(linkedActors);
+        secondLevelCache.evictGenreMovies(linkedGenres);
+        movies.forEach(movie -> eventPublisher.publishEvent(CatalogChangeEvent.movie((Long) movie[0], ChangeType.CREATED)));
+        return outcomes;
+    }
+
+    // Runs inside the chunk transaction
+    private List<BulkRowResultDTO> writeActors(List<Row<ActorDTO>> chunk) {
+        List<BulkRowResultDTO> outcomes = new ArrayList<>(chunk.size());
+        List<Row<ActorDTO>> valid = validate(chunk, outcomes);
+        Set<String> seen = bulkImportRepository.findActorKeys(
+                valid.stream().map(row -> row.value().getName()).collect(Collectors.toSet()));
+
+        List<Row<ActorDTO>> accepted = new ArrayList<>();
+        for (Row<ActorDTO> row : valid) {
+            ActorDTO actor = row.value();
+            if (!seen.add(BulkImportRepository.actorKey(actor.getName(), actor.getBirthDate().toEpochDay()))) {
+                outcomes.add(BulkRowResultDTO.duplicate(row.index(), "An actor with the same name and birthdate already exists"));
+                continue;
+            }
+            accepted.add(row);
+        }
+
+        long nextId = accepted.isEmpty() ? 0 : idSequenceRepository.reserve("actor", accepted.size());
+        List<Object[]> actors = new ArrayList<>();
+        List<Object[]> names = new ArrayList<>();
+        for (Row<ActorDTO> row : accepted) {
+            ActorDTO actor = row.value();
+            long id = nextId++;
+            actors.add(new Object[]{id, actor.getName(), actor.getBirthDate().toEpochDay()});
+            names.add(new Object[]{id, actor.getName()});
+            outcomes.add(BulkRowResultDTO.created(row.index(), id));
+        }
+
+        bulkImportRepository.insertActors(actors);
+        searchIndexRepository.indexNewActors(names);
+        actors.forEach(actor -> eventPublisher.publishEvent(CatalogChangeEvent.actor((Long) actor[0], ChangeType.CREATED)));
+        return outcomes;
+    }
+
+    // Runs inside the chunk transaction
+    private List<BulkRowResultDTO> writeGenres(List<Row<GenreDTO>> chunk) {
+        List<BulkRowResultDTO> outcomes = new ArrayList<>(chunk.size());
+        List<Row<GenreDTO>> valid = validate(chunk, outcomes);
+        // The genre table is small, so all names are loaded rather than just the candidates
+        Set<String> seen = bulkImportRepository.findGenreNames().stream().map(GenreService::nameKey).collect(Collectors.toSet());
+
+        List<Row<GenreDTO>> accepted = new ArrayList<>();
+        for (Row<GenreDTO> row : valid) {
+            if (!seen.add(GenreService.nameKey(row.value().getName()))) {
+                outcomes.add(BulkRowResultDTO.duplicate(row.index(), "Genre already exists: " + row.value().getName()));
+                continue;
+            }
+            accepted.add(row);
+        }
+
+        long nextId = accepted.isEmpty() ? 0 : idSequenceRepository.reserve("genre", accepted.size());
+        List<Object[]> genres = new ArrayList<>();
+        for (Row<GenreDTO> row : accepted) {
+            GenreDTO genre = row.value();
+            long id = nextId++;
+            genres.add(new Object[]{id, genre.getName()});
+            outcomes.add(BulkRowResultDTO.created(row.index(), id));
+        }
+
+        bulkImportRepository.insertGenres(genres);
+        genres.forEach(genre -> eventPublisher.publishEvent(CatalogChangeEvent.genre((Long) genre[0], ChangeType.CREATED)));
+        return outcomes;
+    }
+
+    // Applies the bean validation constraints of the DTO, reporting failing rows and returning the others
+    private <T> List<Row<T>> validate(List<Row<T>> chunk, List<BulkRowResultDTO> outcomes) {
+        List<Row<T>> valid = new ArrayList<>(chunk.size());
+        for (Row<T> row : chunk) {
+            if (row.value() == null) {
+                outcomes.add(BulkRowResultDTO.failed(row.index(), "Row is null"));
+                continue;
+            }
+            Set<ConstraintViolation<T>> violations;
+            try {
+                violations = validator.validate(row.value());
+            } catch (ValidationException ex) {
+                // A constraint that could not be checked on this row fails the row, not the chunk
+                outcomes.add(BulkRowResultDTO.failed(row.index(), "Validation failed: " + ex.getMessage()));
+                continue;
+            }
+            if (violations.isEmpty()) {
+                valid.add(row);
+            } else {
+                outcomes.add(BulkRowResultDTO.failed(row.index(), violations.stream()
+                        .map(violation -> violation.getPropertyPath() + ": " + violation.getMessage())
+                        .sorted()
+                        .collect(Collectors.joining(", "))));
+            }
+        }
+        return valid;
+    }
+
+    // Distinct ids in input order, treating a missing list as empty
+    private static Set<Long> ids(List<Long> ids) {
+        if (ids == null) {
+            return Set.of();
+        }
+        return ids.stream().filter(Objects::nonNull).collect(Collectors.toCollection(LinkedHashSet::new));
+    }
+}
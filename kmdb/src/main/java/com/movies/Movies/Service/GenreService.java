@@ -1,38 +1,71 @@
 package com.movies.Movies.Service;
 
+import com.movies.Movies.cache.SecondLevelCache;
 import com.movies.Movies.dto.GenreDTO;
 import com.movies.Movies.Entity.Genre;
-import com.movies.Movies.Entity.Movie;
+import com.movies.Movies.event.CatalogChangeEvent;
+import com.movies.Movies.event.CatalogChangeEvent.ChangeType;
 import com.movies.Movies.exception.ResourceAlreadyExistsException;
 import com.movies.Movies.exception.ResourceNotFoundException;
+import com.movies.Movies.Repository.BulkDeleteRepository;
+import com.movies.Movies.Repository.BulkDeleteRepository.Link;
 import com.movies.Movies.Repository.GenreRepository;
-import com.movies.Movies.Repository.MovieRepository;
+import com.movies.Movies.Repository.MovieStatsRepository;
+import com.movies.Movies.Repository.MovieStatsRepository.Dimension;
 
+import io.micrometer.core.annotation.Timed;
+
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
 
 /**
  * Service class responsible for managing Genre entities.
  * Provides methods to perform CRUD operations on genres.
  */
 @Service
+@Timed(value = "movies.service", histogram = true)
 public class GenreService {
 
+    // Most genres a single bulk delete may remove
+    private static final int MAX_BULK_DELETE = 1000;
+
     private final GenreRepository genreRepository;
-    private final MovieRepository movieRepository;
+    private final BulkDeleteRepository bulkDeleteRepository;
+    private final MovieStatsRepository movieStatsRepository;
+    private final SecondLevelCache secondLevelCache;
+    private final ApplicationEventPublisher eventPublisher;
 
     /**
-     * Constructor for GenreService, injecting the GenreRepository and MovieRepository dependencies.
+     * Constructor for GenreService, injecting the GenreRepository, BulkDeleteRepository, MovieStatsRepository,
+     * SecondLevelCache and ApplicationEventPublisher dependencies.
      * Ensures that GenreService has access to the necessary data access methods.
      *
      * @param genreRepository the repository for Genre entities
-     * @param movieRepository the repository for Movie entities
+     * @param bulkDeleteRepository the set-based deletes of genres and their join table rows
+     * @param movieStatsRepository the summary table of the catalog statistics, which keeps a bucket per genre
+     * @param secondLevelCache the second-level cache of the catalog entities
+     * @param eventPublisher the publisher of catalog change events, consumed by the response cache
      */
-    public GenreService(GenreRepository genreRepository, MovieRepository movieRepository) {
+    public GenreService(GenreRepository genreRepository, BulkDeleteRepository bulkDeleteRepository,
+                        MovieStatsRepository movieStatsRepository, SecondLevelCache secondLevelCache,
+                        ApplicationEventPublisher eventPublisher) {
         this.genreRepository = genreRepository;
-        this.movieRepository = movieRepository;
+        this.bulkDeleteRepository = bulkDeleteRepository;
+        this.movieStatsRepository = movieStatsRepository;
+        this.secondLevelCache = secondLevelCache;
+        this.eventPublisher = eventPublisher;
     }
 
     /**
@@ -42,11 +75,10 @@ public class GenreService {
      *
      * @return a list of GenreDTO objects representing all genres
      */
-   
+    @Transactional(readOnly = true)
     public Page<GenreDTO> getAllGenres(Pageable pageable) {
         validatePagination(pageable);
-        return genreRepository.findAll(pageable)
-                .map(this::mapToDTO);
+        return genreRepository.findAllGenreDTOs(pageable);
     }
 
     private void validatePagination(Pageable pageable) {
@@ -68,8 +100,9 @@ public class GenreService {
      * @return a GenreDTO representing the requested genre
      * @throws ResourceNotFoundException if no genre is found with the given id
      */
+    @Transactional(readOnly = true)
     public GenreDTO getGenreById(Long id) {
-        // Fetch the genre by id or throw an exception if not found
+        // Fetch the genre by id, served from the second-level cache when present, or throw an exception if not found
         Genre genre = genreRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException(HttpStatus.NOT_FOUND, "Genre not found with id: " + id));
         // Convert the Genre entity to GenreDTO and return
@@ -84,6 +117,7 @@ public class GenreService {
      * @return a GenreDTO representing the newly created genre
      * @throws IllegalArgumentException if the genre name is null or empty
      */
+    @Transactional
     public GenreDTO createGenre(GenreDTO genreDTO) {
         // Validate that the genre name is not null or empty
         if (genreDTO.getName() == null || genreDTO.getName().trim().isEmpty()) {
@@ -93,6 +127,7 @@ public class GenreService {
         Genre genre = mapToEntity(genreDTO);
         // Save the new genre to the repository (database)
         genre = genreRepository.save(genre);
+        eventPublisher.publishEvent(CatalogChangeEvent.genre(genre.getId(), ChangeType.CREATED));
         // Convert the saved Genre entity back to GenreDTO and return
         return mapToDTO(genre);
     }
@@ -107,6 +142,7 @@ public class GenreService {
      * @throws IllegalArgumentException if the genre name is null or empty
      * @throws ResourceNotFoundException if no genre is found with the given id
      */
+    @Transactional
     public GenreDTO updateGenre(Long id, GenreDTO genreDTO) {
         // Validate that the genre name is not null or empty
         if (genreDTO.getName() == null || genreDTO.getName().trim().isEmpty()) {
@@ -119,6 +155,7 @@ public class GenreService {
         genre.setName(genreDTO.getName());
         // Save the updated genre to the repository (database)
         genre = genreRepository.save(genre);
+        eventPublisher.publishEvent(CatalogChangeEvent.genre(genre.getId(), ChangeType.UPDATED));
         // Convert the updated Genre entity back to GenreDTO and return
         return mapToDTO(genre);
     }
@@ -132,29 +169,67 @@ public class GenreService {
      * @throws ResourceNotFoundException if the genre is associated with movies and 'force' is false,
      *                                     or if no genre is found with the given id
      */
+    @Transactional
     public void deleteGenre(Long id, boolean force) {
         // Fetch the genre by id from the repository or throw exception if not found
         Genre genre = genreRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException(HttpStatus.NOT_FOUND, "Genre not found with id: " + id));
 
-        if (!force && !genre.getMovies().isEmpty()) {
+        // Look up the movies of the genre straight from the join table, without loading them
+        Map<Long, List<Long>> movies = bulkDeleteRepository.findLinks(Link.GENRE_MOVIES, List.of(id));
+
+        if (!force && !movies.isEmpty()) {
             // If not forcing deletion and genre is associated with movies, prevent deletion
             throw new ResourceAlreadyExistsException(HttpStatus.BAD_REQUEST,
-                    "Cannot delete genre '" + genre.getName() + "' because it is associated with " + genre.getMovies().size() + " movie(s).");
+                    "Cannot delete genre '" + genre.getName() + "' because it is associated with " + movies.get(id).size() + " movie(s).");
         }
 
-        if (force) {
-            // If forcing deletion, remove the genre from all associated movies to maintain data integrity
-            for (Movie movie : genre.getMovies()) {
-                // Remove the genre from the movie's genre list
-                movie.getGenres().remove(genre);
-                // Save the updated movie to persist the changes
-                movieRepository.save(movie);
-            }
+        removeGenres(List.of(id), movies);
+    }
+
+    /**
+     * Deletes several genres at once, all or none.
+     * Handles forced and non-forced deletion like {@link #deleteGenre(Long, boolean)}, with a fixed number
+     * of statements however many genres and movies are involved.
+     *
+     * @param ids the unique identifiers of the genres to delete, at most 1000
+     * @param force flag indicating whether to force deletion even if associated with movies
+     * @throws IllegalArgumentException if no ids or more than 1000 ids are given
+     * @throws ResourceNotFoundException if any of the genres does not exist
+     * @throws ResourceAlreadyExistsException if any of the genres is associated with movies and force is false
+     */
+    @Transactional
+    public void deleteGenres(Collection<Long> ids, boolean force) {
+        if (ids == null || ids.isEmpty() || ids.size() > MAX_BULK_DELETE) {
+            throw new IllegalArgumentException("Between 1 and " + MAX_BULK_DELETE + " genre ids must be given");
+        }
+        Set<Long> genreIds = new TreeSet<>(ids);
+        Set<Long> missing = new TreeSet<>(genreIds);
+        missing.removeAll(bulkDeleteRepository.findExistingIds("genre", genreIds));
+        if (!missing.isEmpty()) {
+            throw new ResourceNotFoundException(HttpStatus.NOT_FOUND, "Genres not found with ids: " + missing);
         }
 
-        // Delete the genre from the repository (database)
-        genreRepository.delete(genre);
+        Map<Long, List<Long>> movies = bulkDeleteRepository.findLinks(Link.GENRE_MOVIES, genreIds);
+        if (!force && !movies.isEmpty()) {
+            throw new ResourceAlreadyExistsException(HttpStatus.BAD_REQUEST,
+                    "Cannot delete genres " + new TreeSet<>(movies.keySet()) + " because they are associated with movies.");
+        }
+
+        removeGenres(genreIds, movies);
+    }
+
+    // Deletes the join table rows, then the genres; each is one statement for all genres
+    private void removeGenres(Collection<Long> ids, Map<Long, List<Long>> movies) {
+        if (!movies.isEmpty()) {
+            bulkDeleteRepository.deleteLinks(Link.GENRE_MOVIES, ids);
+            movieStatsRepository.removeBuckets(Dimension.GENRE, movies.keySet());
+        }
+        bulkDeleteRepository.deleteRows("genre", ids);
+
+        // Evict the genres and the cached genre lists of the movies they were linked to
+        secondLevelCache.evictDeletedGenres(ids, movies.values().stream().flatMap(List::stream).collect(Collectors.toSet()));
+        ids.forEach(id -> eventPublisher.publishEvent(CatalogChangeEvent.genre(id, ChangeType.DELETED)));
     }
 
     /**
@@ -191,4 +266,15 @@ public class GenreService {
         return genre;
     }
 
+    /**
+     * Returns the key under which the bulk import compares genre names: two genres whose names differ only
+     * in case are the same genre.
+     *
+     * @param name the genre name
+     * @return the name, lower-cased
+     */
+    static String nameKey(String name) {
+        return name.toLowerCase(Locale.ROOT);
+    }
+
 }
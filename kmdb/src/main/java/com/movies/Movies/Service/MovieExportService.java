@@ -0,0 +1,88 @@
+package com.movies.Movies.Service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.movies.Movies.dto.MovieDTO;
+import com.movies.Movies.Repository.MovieExportRepository;
+
+import io.micrometer.core.annotation.Timed;
+
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+
+/**
+ * Service class responsible for exporting the movie catalog as NDJSON, one MovieDTO per line.
+ * Movies are written as they are read from the database cursor, so memory use does not grow with the catalog.
+ */
+@Service
+@Timed(value = "movies.service", histogram = true)
+public class MovieExportService {
+
+    // Lines written between two flushes, so downstream consumers receive the stream progressively
+    private static final int FLUSH_INTERVAL = 1000;
+
+    private static final byte NEWLINE = '\n';
+
+    private final MovieExportRepository movieExportRepository;
+    private final ObjectWriter movieWriter;
+
+    /**
+     * Constructor for MovieExportService.
+     *
+     * @param movieExportRepository the forward-only reader of the catalog
+     * @param objectMapper the application's JSON mapper, so lines match the other endpoints
+     */
+    public MovieExportService(MovieExportRepository movieExportRepository, ObjectMapper objectMapper) {
+        this.movieExportRepository = movieExportRepository;
+        this.movieWriter = objectMapper.writerFor(MovieDTO.class);
+    }
+
+    /**
+     * Writes every movie, with its actor and genre ids and names, to the output stream as NDJSON.
+     * Runs read-only, so the export reads from the reader pool and does not hold the writer connection.
+     *
+     * @param out the response body
+     * @throws IOException if the client goes away or the stream can not be written
+     */
+    @Transactional(readOnly = true)
+    public void exportMovies(OutputStream out) throws IOException {
+        exportMovies(null, null, null, out);
+    }
+
+    /**
+     * Writes the movies matching the given filters, like {@link #exportMovies(OutputStream)}.
+     * This is the unpaginated counterpart of the genre, actor and release year listings; a filter matching
+     * no movie, including an unknown genre or actor, gives an empty export.
+     *
+     * @param genreId     only movies of this genre, or null
+     * @param actorId     only movies with this actor, or null
+     * @param releaseYear only movies released in this year, or null
+     * @param out         the response body
+     * @throws IOException if the client goes away or the stream can not be written
+     */
+    @Transactional(readOnly = true)
+    public void exportMovies(Long genreId, Long actorId, Integer releaseYear, OutputStream out) throws IOException {
+        int[] written = {0};
+        try {
+            movieExportRepository.streamMovies(genreId, actorId, releaseYear, movie -> {
+                try {
+                    out.write(movieWriter.writeValueAsBytes(movie));
+                    out.write(NEWLINE);
+                    if (++written[0] % FLUSH_INTERVAL == 0) {
+                        out.flush();
+                    }
+                } catch (IOException ex) {
+                    // Abort the query as well when the client disconnects
+                    throw new UncheckedIOException(ex);
+                }
+            });
+        } catch (UncheckedIOException ex) {
+            throw ex.getCause();
+        }
+        out.flush();
+    }
+}
@@ -1,25 +1,60 @@
 package com.movies.Movies.Service;
 
+import com.movies.Movies.cache.CatalogSnapshot;
+import com.movies.Movies.cache.SecondLevelCache;
 import com.movies.Movies.Entity.Actor;
 import com.movies.Movies.Entity.Genre;
 import com.movies.Movies.Entity.Movie;
 import com.movies.Movies.dto.ActorDTO;
+import com.movies.Movies.dto.CursorPage;
+import com.movies.Movies.dto.FacetCountDTO;
 import com.movies.Movies.dto.MovieDTO;
+import com.movies.Movies.dto.MovieFacetsDTO;
+import com.movies.Movies.dto.MovieSearchResultDTO;
+import com.movies.Movies.event.CatalogChangeEvent;
+import com.movies.Movies.event.CatalogChangeEvent.ChangeType;
 import com.movies.Movies.exception.ResourceAlreadyExistsException;
 import com.movies.Movies.exception.ResourceNotFoundException;
 import com.movies.Movies.Repository.ActorRepository;
+import com.movies.Movies.Repository.BulkDeleteRepository;
+import com.movies.Movies.Repository.BulkDeleteRepository.Link;
 import com.movies.Movies.Repository.GenreRepository;
 import com.movies.Movies.Repository.MovieRepository;
+import com.movies.Movies.Repository.MovieRepository.CreditRow;
+import com.movies.Movies.Repository.MovieSearchRepository;
+import com.movies.Movies.Repository.MovieSearchRepository.FacetRow;
+import com.movies.Movies.Repository.MovieSpecifications;
+import com.movies.Movies.Repository.MovieStatsRepository;
+import com.movies.Movies.Repository.SearchIndexRepository;
+import com.movies.Movies.util.CursorCodec;
 
+import io.micrometer.core.annotation.Timed;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
 
-import java.time.LocalDate;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 import java.util.ArrayList;
 
@@ -28,8 +63,14 @@ import java.util.ArrayList;
  * Provides methods to perform CRUD operations and handle business logic related to movies.
  */
 @Service
+@Timed(value = "movies.service", histogram = true)
 public class MovieService {
 
+    private static final Logger log = LoggerFactory.getLogger(MovieService.class);
+
+    // Most movies a single bulk delete may remove
+    private static final int MAX_BULK_DELETE = 1000;
+
     // Repository for accessing Movie data from the database
     private final MovieRepository movieRepository;
     
@@ -39,6 +80,27 @@ public class MovieService {
     // Repository for accessing Genre data from the database
     private final GenreRepository genreRepository;
 
+    // Full-text index over movie titles, kept in sync with every movie write
+    private final SearchIndexRepository searchIndexRepository;
+
+    // Criteria queries of the faceted movie query
+    private final MovieSearchRepository movieSearchRepository;
+
+    // Set-based deletes of movies and their join table rows
+    private final BulkDeleteRepository bulkDeleteRepository;
+
+    // Summary table of the catalog statistics, updated in the transaction of every movie write
+    private final MovieStatsRepository movieStatsRepository;
+
+    // Second-level cache, for the evictions Hibernate can not work out by itself
+    private final SecondLevelCache secondLevelCache;
+
+    // In-memory copy of the catalog, answering the lookups by actor, genre and movie once it is loaded
+    private final CatalogSnapshot catalogSnapshot;
+
+    // Publishes a CatalogChangeEvent for every movie write, so the response cache can drop what it built from the row
+    private final ApplicationEventPublisher eventPublisher;
+
     /**
      * Constructor for MovieService.
      * Injects the required repositories for Movie, Actor, and Genre entities.
@@ -46,11 +108,29 @@ public class MovieService {
      * @param movieRepository   the repository for Movie entities
      * @param actorRepository   the repository for Actor entities
      * @param genreRepository   the repository for Genre entities
+     * @param searchIndexRepository the full-text index over movie titles
+     * @param movieSearchRepository the queries of the faceted movie query
+     * @param bulkDeleteRepository the set-based deletes
+     * @param movieStatsRepository the summary table of the catalog statistics
+     * @param secondLevelCache  the second-level cache of the catalog entities
+     * @param catalogSnapshot   the in-memory copy of the catalog
+     * @param eventPublisher    the publisher of catalog change events
      */
-    public MovieService(MovieRepository movieRepository, ActorRepository actorRepository, GenreRepository genreRepository) {
+    public MovieService(MovieRepository movieRepository, ActorRepository actorRepository, GenreRepository genreRepository,
+                        SearchIndexRepository searchIndexRepository, MovieSearchRepository movieSearchRepository,
+                        BulkDeleteRepository bulkDeleteRepository, MovieStatsRepository movieStatsRepository,
+                        SecondLevelCache secondLevelCache, CatalogSnapshot catalogSnapshot,
+                        ApplicationEventPublisher eventPublisher) {
         this.movieRepository = movieRepository;
         this.actorRepository = actorRepository;
         this.genreRepository = genreRepository;
+        this.searchIndexRepository = searchIndexRepository;
+        this.movieSearchRepository = movieSearchRepository;
+        this.bulkDeleteRepository = bulkDeleteRepository;
+        this.movieStatsRepository = movieStatsRepository;
+        this.secondLevelCache = secondLevelCache;
+        this.catalogSnapshot = catalogSnapshot;
+        this.eventPublisher = eventPublisher;
     }
 
     /**
@@ -66,24 +146,32 @@ public class MovieService {
         // Convert MovieDTO to Movie entity
         Movie movie = mapToEntity(movieDTO);
 
-        // Retrieve and set the list of Actor entities based on provided actor IDs
-        List<Actor> actors = actorRepository.findAllById(movieDTO.getActorIds());
-        movie.setActors(actors);
+        // Retrieve and set the list of Actor entities based on provided actor IDs, if any
+        if (movieDTO.getActorIds() != null) {
+            movie.setActors(new LinkedHashSet<>(actorRepository.findAllById(movieDTO.getActorIds())));
+        }
 
-        // Retrieve and set the list of Genre entities based on provided genre IDs
-        List<Genre> genres = genreRepository.findAllById(movieDTO.getGenreIds());
-        movie.setGenres(genres);
+        // Retrieve and set the list of Genre entities based on provided genre IDs, if any
+        if (movieDTO.getGenreIds() != null) {
+            movie.setGenres(new LinkedHashSet<>(genreRepository.findAllById(movieDTO.getGenreIds())));
+        }
 
-        // Check if a movie with the same title, release year, and duration already exists
-        if (movieRepository.findByTitleContainingIgnoreCase(movie.getTitle()).stream()
-                .anyMatch(existingMovie -> existingMovie.getReleaseYear().equals(movie.getReleaseYear()) 
-                        && existingMovie.getDuration().equals(movie.getDuration()))) {
+        // Check if a movie with the same normalized title, release year, and duration already exists
+        if (movieRepository.existsByNormalizedTitleAndReleaseYearAndDuration(
+                movie.getNormalizedTitle(), movie.getReleaseYear(), movie.getDuration())) {
             // If such a movie exists, throw an exception to prevent duplication
             throw new ResourceAlreadyExistsException(HttpStatus.BAD_REQUEST, "Movie already exists with the same details.");
         }
 
-        // Save the new Movie entity to the repository (database) and return it
-        return movieRepository.save(movie);
+        // Save the new Movie entity to the repository (database), index its title and return it
+        Movie savedMovie = movieRepository.save(movie);
+        searchIndexRepository.indexMovie(savedMovie.getId(), savedMovie.getTitle());
+
+        // Write the movie and its links now, so the statistics can count them
+        movieRepository.flush();
+        movieStatsRepository.addMovies(List.of(savedMovie.getId()));
+        eventPublisher.publishEvent(CatalogChangeEvent.movie(savedMovie.getId(), ChangeType.CREATED));
+        return savedMovie;
     }
 
     /**
@@ -95,7 +183,7 @@ public class MovieService {
      */
     @Transactional(readOnly = true)
     public Movie getMovieById(Long id) {
-        // Attempt to find the movie by ID; throw an exception if not found
+        // Attempt to find the movie by ID, served from the second-level cache when present; throw an exception if not found
         return movieRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException(HttpStatus.NOT_FOUND, "Movie not found"));
     }
@@ -108,8 +196,9 @@ public class MovieService {
     @Transactional(readOnly = true)
     public Page<MovieDTO> getAllMovies(Pageable pageable) {
         validatePagination(pageable);
-                return movieRepository.findAll(pageable)
-                                      .map(this::mapToDTO);
+                Page<MovieDTO> movies = movieRepository.findAllMovieDTOs(pageable);
+                withCredits(movies.getContent());
+                return movies;
             }
         
             private void validatePagination(Pageable pageable) {
@@ -126,90 +215,227 @@ public class MovieService {
             }
         
             /**
-     * Retrieves movies that belong to a specific genre.
+     * Retrieves one page of movies in id order, continuing after the row the cursor points at.
+     * The query seeks on the primary key and skips the count, so every page costs the same however deep it is.
+     *
+     * @param after the token returned as nextCursor by the previous page, blank for the first page
+     * @param size  the number of movies per page, 1 to 1000
+     * @return the page of MovieDTOs with the token of the next page
+     * @throws IllegalArgumentException if the cursor or the size is invalid
+     */
+    @Transactional(readOnly = true)
+    public CursorPage<MovieDTO> getMoviesAfter(String after, int size) {
+        if (size < 1 || size > 1000) {
+            throw new IllegalArgumentException("Invalid pagination parameters: Page size must be 1 to 1000");
+        }
+        // Fetch one extra row to find out whether there is a next page
+        List<MovieDTO> movies = movieRepository.findMovieDTOsAfter(CursorCodec.decode(after), PageRequest.of(0, size + 1));
+        String nextCursor = null;
+        if (movies.size() > size) {
+            movies = new ArrayList<>(movies.subList(0, size));
+            nextCursor = CursorCodec.encode(movies.get(size - 1).getId());
+        }
+        withCredits(movies);
+        return new CursorPage<>(movies, size, nextCursor);
+    }
+
+            /**
+     * Retrieves one page of the movies that belong to a specific genre, in id order.
      *
      * @param genreId the unique identifier of the genre
-     * @return a list of MovieDTOs associated with the specified genre
+     * @param pageable the page of results to return
+     * @return a page of MovieDTOs associated with the specified genre
      * @throws ResourceNotFoundException if the genre with the given ID is not found
      */
     @Transactional(readOnly = true)
-    public List<MovieDTO> getMoviesByGenre(Long genreId) {
-        // Attempt to find the genre by ID; throw an exception if not found
-        Genre genre = genreRepository.findById(genreId)
-                .orElseThrow(() -> new ResourceNotFoundException(HttpStatus.NOT_FOUND, "Genre not found"));
-        
-        // Fetch all movies associated with the found genre, map them to DTOs, and collect into a list
-        return genre.getMovies().stream()
-                .map(this::mapToDTO)
-                .collect(Collectors.toList());
+    public Page<MovieDTO> getMoviesByGenre(Long genreId, Pageable pageable) {
+        validatePagination(pageable);
+        // Answer from the in-memory snapshot when it is loaded, without touching the database
+        if (catalogSnapshot.isReady()) {
+            return catalogSnapshot.findMoviesByGenre(genreId, pageable)
+                    .orElseThrow(() -> new ResourceNotFoundException(HttpStatus.NOT_FOUND, "Genre not found"));
+        }
+
+        // Check that the genre exists; throw an exception if not found
+        if (!genreRepository.existsById(genreId)) {
+            throw new ResourceNotFoundException(HttpStatus.NOT_FOUND, "Genre not found");
+        }
+
+        // Fetch the page of movies associated with the genre together with their actors and genres
+        Page<MovieDTO> movies = movieRepository.findMovieDTOsByGenre(genreId, pageable);
+        withCredits(movies.getContent());
+        return movies;
     }
 
     /**
-     * Retrieves movies released in a specific year.
+     * Retrieves one page of the movies released in a specific year, in id order.
      *
      * @param releaseYear the year of release to filter movies by
-     * @return a list of MovieDTOs released in the specified year
+     * @param pageable the page of results to return
+     * @return a page of MovieDTOs released in the specified year
+     */
+    @Transactional(readOnly = true)
+    public Page<MovieDTO> getMoviesByReleaseYear(int releaseYear, Pageable pageable) {
+        validatePagination(pageable);
+        // Find the page of movies by release year together with their actors and genres
+        Page<MovieDTO> movies = movieRepository.findMovieDTOsByReleaseYear(releaseYear, pageable);
+        withCredits(movies.getContent());
+        return movies;
+    }
+
+    /**
+     * Queries movies by any combination of filters, with the number of matching movies per genre and per decade.
+     * Filters left out, as null or empty, do not restrict the result. Within the genre and actor filters a movie
+     * matches if it has any of the given genres or actors; the filters themselves must all match.
+     * The whole query costs three statements: the page, the facet counts, which also give the total, and the
+     * actors and genres of the page.
+     *
+     * @param genreIds    the genres, any of which a movie must have
+     * @param actorIds    the actors, any of whom a movie must have
+     * @param fromYear    the earliest release year, inclusive
+     * @param toYear      the latest release year, inclusive
+     * @param minDuration the shortest duration in minutes, inclusive
+     * @param maxDuration the longest duration in minutes, inclusive
+     * @param titlePrefix the start of the title, ignoring case
+     * @param pageable    the page of results to return
+     * @return the page of MovieDTOs in id order, with the facet counts
+     * @throws IllegalArgumentException if a range is inverted or the pagination is invalid
      */
     @Transactional(readOnly = true)
-    public List<MovieDTO> getMoviesByReleaseYear(int releaseYear) {
-        // Find movies by release year, map them to DTOs, and collect into a list
-        return movieRepository.findByReleaseYear(releaseYear).stream()
-                .map(this::mapToDTO)
+    public MovieSearchResultDTO queryMovies(List<Long> genreIds, List<Long> actorIds, Integer fromYear, Integer toYear,
+                                            Integer minDuration, Integer maxDuration, String titlePrefix, Pageable pageable) {
+        validatePagination(pageable);
+        if (fromYear != null && toYear != null && fromYear > toYear) {
+            throw new IllegalArgumentException("yearFrom must not be after yearTo");
+        }
+        if (minDuration != null && maxDuration != null && minDuration > maxDuration) {
+            throw new IllegalArgumentException("durationMin must not be greater than durationMax");
+        }
+        Specification<Movie> filter = Specification.allOf(
+                MovieSpecifications.inAnyGenre(genreIds),
+                MovieSpecifications.withAnyActor(actorIds),
+                MovieSpecifications.releasedBetween(fromYear, toYear),
+                MovieSpecifications.durationBetween(minDuration, maxDuration),
+                MovieSpecifications.titleStartsWith(titlePrefix));
+
+        // Fold the genre and decade rows into the two facets and the total
+        Map<Long, FacetCountDTO> genres = new HashMap<>();
+        Map<Integer, Long> decades = new HashMap<>();
+        long total = 0;
+        for (FacetRow row : movieSearchRepository.countFacets(filter)) {
+            if (row.genreId() != null) {
+                genres.merge(row.genreId(), new FacetCountDTO(row.genreId(), row.genreName(), row.movies()),
+                        (a, b) -> new FacetCountDTO(a.getValue(), a.getLabel(), a.getCount() + b.getCount()));
+            }
+            decades.merge(row.decade(), row.distinctMovies(), Long::sum);
+            total += row.distinctMovies();
+        }
+        List<FacetCountDTO> genreFacet = genres.values().stream()
+                .sorted(Comparator.comparingLong(FacetCountDTO::getCount).reversed().thenComparing(FacetCountDTO::getLabel))
+                .collect(Collectors.toList());
+        List<FacetCountDTO> decadeFacet = decades.entrySet().stream()
+                .filter(decade -> decade.getValue() > 0)
+                .sorted(Map.Entry.comparingByKey())
+                .map(decade -> new FacetCountDTO((long) decade.getKey(), decade.getKey() + "s", decade.getValue()))
                 .collect(Collectors.toList());
+
+        // Skip the page query when the page lies past the last match
+        List<MovieDTO> movies = pageable.getOffset() < total
+                ? withCredits(movieSearchRepository.findMovieDTOs(filter, pageable))
+                : new ArrayList<>();
+        return new MovieSearchResultDTO(movies, pageable, total, new MovieFacetsDTO(genreFacet, decadeFacet));
     }
 
     /**
      * Retrieves all actors associated with a specific movie.
      *
      * @param movieId the unique identifier of the movie
-     * @return a list of ActorDTOs representing actors in the specified movie
+     * @return a list of ActorDTOs representing actors in the specified movie, in id order
      * @throws ResourceNotFoundException if the movie with the given ID is not found
      */
     @Transactional(readOnly = true)
     public List<ActorDTO> getActorsByMovieId(Long movieId) {
-        // Attempt to find the movie by ID; throw an exception if not found
-        Movie movie = movieRepository.findById(movieId)
-                .orElseThrow(() -> new ResourceNotFoundException(HttpStatus.NOT_FOUND, "Movie not found"));
+        // Answer from the in-memory snapshot when it is loaded, without touching the database
+        if (catalogSnapshot.isReady()) {
+            return catalogSnapshot.findActorsByMovie(movieId)
+                    .orElseThrow(() -> new ResourceNotFoundException(HttpStatus.NOT_FOUND, "Movie not found"));
+        }
 
-        // Fetch all actors associated with the movie, map them to DTOs, and collect into a list
-        return movie.getActors().stream()
-                .map(this::mapActorToDTO)
-                .collect(Collectors.toList());
+        // Check that the movie exists; throw an exception if not found
+        if (!movieRepository.existsById(movieId)) {
+            throw new ResourceNotFoundException(HttpStatus.NOT_FOUND, "Movie not found");
+        }
+
+        // Fetch all actors associated with the movie directly as DTOs
+        return actorRepository.findActorDTOsByMovieId(movieId);
     }
 
     /**
-     * Retrieves all movies associated with a specific actor.
+     * Retrieves one page of the movies associated with a specific actor, in id order.
      *
      * @param actorId the unique identifier of the actor
-     * @return a list of MovieDTOs representing movies the specified actor has acted in
+     * @param pageable the page of results to return
+     * @return a page of MovieDTOs representing movies the specified actor has acted in
      * @throws ResourceNotFoundException if the actor with the given ID is not found
      */
     @Transactional(readOnly = true)
-    public List<MovieDTO> getMoviesByActorId(Long actorId) {
-        // Attempt to find the actor by ID; throw an exception if not found
-        Actor actor = actorRepository.findById(actorId)
-                .orElseThrow(() -> new ResourceNotFoundException(HttpStatus.NOT_FOUND, "Actor not found with id: " + actorId));
-
-        // Fetch all movies associated with the actor, map them to DTOs, and collect into a list
-        return actor.getMovies().stream()
-                .map(this::mapToDTO)
-                .collect(Collectors.toList());
+    public Page<MovieDTO> getMoviesByActorId(Long actorId, Pageable pageable) {
+        validatePagination(pageable);
+        // Answer from the in-memory snapshot when it is loaded, without touching the database
+        if (catalogSnapshot.isReady()) {
+            return catalogSnapshot.findMoviesByActor(actorId, pageable)
+                    .orElseThrow(() -> new ResourceNotFoundException(HttpStatus.NOT_FOUND, "Actor not found with id: " + actorId));
+        }
+
+        // Check that the actor exists; throw an exception if not found
+        if (!actorRepository.existsById(actorId)) {
+            throw new ResourceNotFoundException(HttpStatus.NOT_FOUND, "Actor not found with id: " + actorId);
+        }
+
+        // Fetch the page of movies associated with the actor together with their actors and genres
+        Page<MovieDTO> movies = movieRepository.findMovieDTOsByActor(actorId, pageable);
+        withCredits(movies.getContent());
+        return movies;
     }
 
     /**
-     * Maps an Actor entity to its corresponding ActorDTO.
+     * Fills in the actor and genre ids and names of projected MovieDTOs with a single query for all of them.
+     * Movies without actors or genres get the same null ids and empty names as {@link #mapToDTO(Movie)} gives them.
      *
-     * @param actor the Actor entity to map
-     * @return the mapped ActorDTO
+     * @param movies the MovieDTOs to complete
+     * @return the same list, for chaining
      */
-    private ActorDTO mapActorToDTO(Actor actor) {
-        ActorDTO dto = new ActorDTO();
-        dto.setId(actor.getId());
-        dto.setName(actor.getName());
-        dto.setBirthDate(LocalDate.parse(actor.getBirthDate()));
-        return dto;
+    private List<MovieDTO> withCredits(List<MovieDTO> movies) {
+        if (movies.isEmpty()) {
+            return movies;
+        }
+        Map<Long, MovieDTO> moviesById = new HashMap<>();
+        for (MovieDTO movie : movies) {
+            movie.setActorIds(null);
+            movie.setGenreIds(null);
+            moviesById.put(movie.getId(), movie);
+        }
+        for (CreditRow credit : movieRepository.findCreditsByMovieIdIn(moviesById.keySet())) {
+            MovieDTO movie = moviesById.get(credit.getMovieId());
+            if ("actor".equals(credit.getKind())) {
+                if (movie.getActorIds() == null) {
+                    movie.setActorIds(new ArrayList<>());
+                    movie.setActors(Optional.of(new ArrayList<>()));
+                }
+                movie.getActorIds().add(credit.getId());
+                movie.getActors().get().add(credit.getName());
+            } else {
+                if (movie.getGenreIds() == null) {
+                    movie.setGenreIds(new ArrayList<>());
+                    movie.setGenres(Optional.of(new ArrayList<>()));
+                }
+                movie.getGenreIds().add(credit.getId());
+                movie.getGenres().get().add(credit.getName());
+            }
+        }
+        return movies;
     }
-    
+
     /**
      * Deletes a movie by its unique identifier.
      * Handles forced and non-forced deletion based on associations with actors and genres.
@@ -222,35 +448,77 @@ public class MovieService {
     public void deleteMovieById(Long id, boolean force) {
         // Retrieve the movie by ID; throws exception if not found
         Movie movie = getMovieById(id);
-        
-        // Get associated actors and genres of the movie
-        List<Actor> actors = movie.getActors();
-        List<Genre> genres = movie.getGenres();
-    
+
+        // Look up the actors and genres of the movie straight from the join tables, without loading them
+        Map<Long, List<Long>> actors = bulkDeleteRepository.findLinks(Link.MOVIE_ACTORS, List.of(id));
+        Map<Long, List<Long>> genres = bulkDeleteRepository.findLinks(Link.MOVIE_GENRES, List.of(id));
+
         // If not forcing deletion and the movie has associated actors or genres, prevent deletion
         if (!force && (!actors.isEmpty() || !genres.isEmpty())) {
             throw new ResourceAlreadyExistsException(HttpStatus.BAD_REQUEST,
                     "Oops, you cannot delete '" + movie.getTitle() + "' because it is associated with "
-                            + actors.size() + " actor(s) and " + genres.size() + " genre(s).");
+                            + actors.getOrDefault(id, List.of()).size() + " actor(s) and "
+                            + genres.getOrDefault(id, List.of()).size() + " genre(s).");
         }
-    
-        if (force) {
-            // If forcing deletion, remove the movie from each associated actor's movie list
-            for (Actor actor : actors) {
-                actor.getMovies().remove(movie);
-                actorRepository.save(actor);
-            }
-            // Remove the movie from each associated genre's movie list
-            for (Genre genre : genres) {
-                genre.getMovies().remove(movie);
-                genreRepository.save(genre);
-            }
+
+        removeMovies(List.of(id), actors, genres);
+    }
+
+    /**
+     * Deletes several movies at once, all or none.
+     * Handles forced and non-forced deletion like {@link #deleteMovieById(Long, boolean)}, with a fixed number
+     * of statements however many movies, actors and genres are involved.
+     *
+     * @param ids   the unique identifiers of the movies to delete, at most 1000
+     * @param force flag indicating whether to force deletion even if associated with actors or genres
+     * @throws IllegalArgumentException if no ids or more than 1000 ids are given
+     * @throws ResourceNotFoundException if any of the movies does not exist
+     * @throws ResourceAlreadyExistsException if any of the movies has actors or genres and force is false
+     */
+    @Transactional
+    public void deleteMovies(Collection<Long> ids, boolean force) {
+        if (ids == null || ids.isEmpty() || ids.size() > MAX_BULK_DELETE) {
+            throw new IllegalArgumentException("Between 1 and " + MAX_BULK_DELETE + " movie ids must be given");
         }
-    
-        // Delete the movie from the repository (database)
-        movieRepository.deleteById(id);
+        Set<Long> movieIds = new TreeSet<>(ids);
+        Set<Long> missing = new TreeSet<>(movieIds);
+        missing.removeAll(bulkDeleteRepository.findExistingIds("movie", movieIds));
+        if (!missing.isEmpty()) {
+            throw new ResourceNotFoundException(HttpStatus.NOT_FOUND, "Movies not found with ids: " + missing);
+        }
+
+        Map<Long, List<Long>> actors = bulkDeleteRepository.findLinks(Link.MOVIE_ACTORS, movieIds);
+        Map<Long, List<Long>> genres = bulkDeleteRepository.findLinks(Link.MOVIE_GENRES, movieIds);
+        if (!force && (!actors.isEmpty() || !genres.isEmpty())) {
+            Set<Long> linked = new TreeSet<>(actors.keySet());
+            linked.addAll(genres.keySet());
+            throw new ResourceAlreadyExistsException(HttpStatus.BAD_REQUEST,
+                    "Oops, you cannot delete movies " + linked + " because they are associated with actors or genres.");
+        }
+
+        removeMovies(movieIds, actors, genres);
     }
-    
+
+    // Takes the movies out of the statistics, then deletes the join table rows, the movies and their index entries;
+    // each is one statement for all movies
+    private void removeMovies(Collection<Long> ids, Map<Long, List<Long>> actors, Map<Long, List<Long>> genres) {
+        movieStatsRepository.subtractMovies(ids);
+        if (!actors.isEmpty()) {
+            bulkDeleteRepository.deleteLinks(Link.MOVIE_ACTORS, ids);
+        }
+        if (!genres.isEmpty()) {
+            bulkDeleteRepository.deleteLinks(Link.MOVIE_GENRES, ids);
+        }
+        bulkDeleteRepository.deleteRows("movie", ids);
+        searchIndexRepository.removeMovies(ids);
+
+        // Evict the movies and the cached collections of the actors and genres they were linked to
+        secondLevelCache.evictDeletedMovies(ids,
+                actors.values().stream().flatMap(List::stream).collect(Collectors.toSet()),
+                genres.values().stream().flatMap(List::stream).collect(Collectors.toSet()));
+        ids.forEach(id -> eventPublisher.publishEvent(CatalogChangeEvent.movie(id, ChangeType.DELETED)));
+    }
+
     /**
      * Converts a MovieDTO to its corresponding Movie entity.
      *
@@ -268,24 +536,37 @@ public class MovieService {
     
     /**
      * Updates an existing movie's details.
-     * Handles updating basic details as well as associations with actors and genres.
+     * Handles updating basic details as well as associations with actors and genres. actorIds and genreIds, when
+     * present, replace the movie's actors or genres, and an empty list clears them; addActorIds, removeActorIds,
+     * addGenreIds and removeGenreIds change them instead. Links left out of the patch are kept. Either way only the
+     * join table rows of the links that are added or removed are written, and only the newly linked actors and
+     * genres are loaded.
      *
      * @param id       the unique identifier of the movie to update
      * @param movieDTO the MovieDTO containing updated movie details
      * @return the updated Movie entity
+     * @throws IllegalArgumentException if an id is both added and removed, or links are both replaced and changed
      */
     @Transactional
     public Movie updateMovie(Long id, MovieDTO movieDTO) {
         // Retrieve the existing movie by ID; throws exception if not found
         Movie existingMovie = getMovieById(id);
 
-        // Log the incoming movieDTO
-        System.out.println("Updating Movie with ID: " + id + " using DTO: " + movieDTO);
+        // Log the incoming movieDTO; the DTO is only rendered when debug logging is on
+        log.debug("Updating movie {} using {}", id, movieDTO);
 
-        // Check for null movieDTO
+        // Check for null movieDTO and for link changes that contradict each other
         if (movieDTO == null) {
             throw new IllegalArgumentException("MovieDTO cannot be null");
         }
+        checkLinkChanges(movieDTO);
+
+        // Take the movie out of the statistics while it changes, unless only its title does
+        boolean countedFieldsChange = movieDTO.getReleaseYear() != null || movieDTO.getDuration() != null
+                || changesActors(movieDTO) || changesGenres(movieDTO);
+        if (countedFieldsChange) {
+            movieStatsRepository.subtractMovies(List.of(id));
+        }
 
         // Update basic movie details only if they are provided
         if (movieDTO.getTitle() != null) {
@@ -298,46 +579,101 @@ public class MovieService {
             existingMovie.setDuration(movieDTO.getDuration());
         }
 
-        // Update the list of associated actors only if actor IDs are provided
-        if (movieDTO.getActorIds() != null) {
-            if (!movieDTO.getActorIds().isEmpty()) {
-                List<Actor> actors = actorRepository.findAllById(movieDTO.getActorIds());
-                existingMovie.setActors(actors);
-            } else {
-                // Clear existing actors if no actor IDs are provided
-                existingMovie.setActors(new ArrayList<>());
-            }
+        // Update the associated actors in place: added and removed ids if given, otherwise the full list if given
+        if (movieDTO.getAddActorIds() != null || movieDTO.getRemoveActorIds() != null) {
+            removeLinks(existingMovie.getActors(), movieDTO.getRemoveActorIds(), Actor::getId);
+            addLinks(existingMovie.getActors(), movieDTO.getAddActorIds(), Actor::getId, actorRepository::findAllById);
+        } else if (movieDTO.getActorIds() != null) {
+            // An empty list clears the actors
+            Set<Long> kept = new HashSet<>(movieDTO.getActorIds());
+            existingMovie.getActors().removeIf(actor -> !kept.contains(actor.getId()));
+            addLinks(existingMovie.getActors(), movieDTO.getActorIds(), Actor::getId, actorRepository::findAllById);
         }
 
-        // Update the list of associated genres only if genre IDs are provided
-        if (movieDTO.getGenreIds() != null) {
-            if (!movieDTO.getGenreIds().isEmpty()) {
-                List<Genre> genres = genreRepository.findAllById(movieDTO.getGenreIds());
-                existingMovie.setGenres(genres);
-            } else {
-                // Clear existing genres if no genre IDs are provided
-                existingMovie.setGenres(new ArrayList<>());
-            }
+        // Update the associated genres the same way
+        if (movieDTO.getAddGenreIds() != null || movieDTO.getRemoveGenreIds() != null) {
+            removeLinks(existingMovie.getGenres(), movieDTO.getRemoveGenreIds(), Genre::getId);
+            addLinks(existingMovie.getGenres(), movieDTO.getAddGenreIds(), Genre::getId, genreRepository::findAllById);
+        } else if (movieDTO.getGenreIds() != null) {
+            Set<Long> kept = new HashSet<>(movieDTO.getGenreIds());
+            existingMovie.getGenres().removeIf(genre -> !kept.contains(genre.getId()));
+            addLinks(existingMovie.getGenres(), movieDTO.getGenreIds(), Genre::getId, genreRepository::findAllById);
         }
 
-        // Log the updated movie details
-        System.out.println("Updated Movie: " + existingMovie);
+        // Log the updated movie details, guarded because rendering the movie walks its actors and genres
+        if (log.isDebugEnabled()) {
+            log.debug("Updated movie {}: {}", id, existingMovie);
+        }
 
         // Check for null fields in the existingMovie before saving
         if (existingMovie.getTitle() == null || existingMovie.getReleaseYear() == null || existingMovie.getDuration() == null) {
             throw new IllegalArgumentException("Movie fields cannot be null before saving.");
         }
 
-        // Save the updated movie entity to the repository (database) and return it
-        try {
-            return movieRepository.save(existingMovie);
-        } catch (Exception e) {
-            System.err.println("Error saving updated movie: " + e.getMessage());
-            throw e; // Rethrow the exception after logging
+        // Save the updated movie entity to the repository (database), reindex its title and return it
+        Movie savedMovie = movieRepository.save(existingMovie);
+        searchIndexRepository.indexMovie(savedMovie.getId(), savedMovie.getTitle());
+        if (countedFieldsChange) {
+            // Write the changes now and count the movie again as it is
+            movieRepository.flush();
+            movieStatsRepository.addMovies(List.of(id));
+        }
+        eventPublisher.publishEvent(CatalogChangeEvent.movie(savedMovie.getId(), ChangeType.UPDATED));
+        return savedMovie;
+    }
+
+    /**
+     * Checks that a patch does not both replace and change the same links, or add and remove the same id.
+     *
+     * @param movieDTO the patch
+     * @throws IllegalArgumentException if the patch contradicts itself
+     */
+    static void checkLinkChanges(MovieDTO movieDTO) {
+        checkLinkChanges("actor", movieDTO.getActorIds(), movieDTO.getAddActorIds(), movieDTO.getRemoveActorIds());
+        checkLinkChanges("genre", movieDTO.getGenreIds(), movieDTO.getAddGenreIds(), movieDTO.getRemoveGenreIds());
+    }
+
+    private static void checkLinkChanges(String kind, List<Long> ids, List<Long> added, List<Long> removed) {
+        if (added == null && removed == null) {
+            return;
+        }
+        if (ids != null) {
+            throw new IllegalArgumentException(kind + "Ids can not be combined with add or remove " + kind + " ids");
+        }
+        if (added != null && removed != null && !Collections.disjoint(added, removed)) {
+            throw new IllegalArgumentException("The same " + kind + " id can not be both added and removed");
+        }
+    }
+
+    private static boolean changesActors(MovieDTO movieDTO) {
+        return movieDTO.getActorIds() != null || movieDTO.getAddActorIds() != null || movieDTO.getRemoveActorIds() != null;
+    }
+
+    private static boolean changesGenres(MovieDTO movieDTO) {
+        return movieDTO.getGenreIds() != null || movieDTO.getAddGenreIds() != null || movieDTO.getRemoveGenreIds() != null;
+    }
+
+    // Drops the linked actors or genres with the given ids; Hibernate deletes just their join table rows
+    private static <T> void removeLinks(Set<T> links, Collection<Long> ids, Function<T, Long> idOf) {
+        if (ids != null && !ids.isEmpty()) {
+            Set<Long> removed = new HashSet<>(ids);
+            links.removeIf(link -> removed.contains(idOf.apply(link)));
+        }
+    }
+
+    // Links the actors or genres with the given ids that are not linked yet, loading only those; unknown ids are skipped
+    private static <T> void addLinks(Set<T> links, Collection<Long> ids, Function<T, Long> idOf,
+                                     Function<Collection<Long>, List<T>> load) {
+        if (ids == null || ids.isEmpty()) {
+            return;
+        }
+        Set<Long> linked = links.stream().map(idOf).collect(Collectors.toSet());
+        List<Long> missing = ids.stream().filter(id -> !linked.contains(id)).distinct().collect(Collectors.toList());
+        if (!missing.isEmpty()) {
+            links.addAll(load.apply(missing));
         }
     }
 
-    
     /**
      * Maps a Movie entity to its corresponding MovieDTO.
      *
@@ -390,16 +726,36 @@ public class MovieService {
 
     /**
      * Searches for movies by title, allowing for case-insensitive and partial matches.
+     * Uses the full-text title index, best matches first, and falls back to a substring scan
+     * for terms the index can not answer.
      *
-     * @param title the title or partial title to search for
-     * @return a list of MovieDTOs matching the search criteria
+     * @param title    the title or partial title to search for
+     * @param pageable the page of results to return
+     * @return a page of MovieDTOs matching the search criteria
      */
     @Transactional(readOnly = true)
-    public List<MovieDTO> searchMoviesByTitle(String title) {
-        // Fetch movies with titles containing the search term, ignoring case
-        return movieRepository.findByTitleContainingIgnoreCase(title).stream()
-                .map(this::mapToDTO)
-                .collect(Collectors.toList());
+    public Page<MovieDTO> searchMoviesByTitle(String title, Pageable pageable) {
+        validatePagination(pageable);
+        Optional<Page<Long>> rankedIds = searchIndexRepository.searchMovieIds(title, pageable);
+        if (rankedIds.isEmpty()) {
+            // Fetch movies with titles containing the search term, ignoring case, in id order
+            Page<MovieDTO> movies = movieRepository.findMovieDTOsByTitleContainingIgnoreCase(title, pageable);
+            withCredits(movies.getContent());
+            return movies;
+        }
+        if (!rankedIds.get().hasContent()) {
+            return new PageImpl<>(new ArrayList<>(), pageable, rankedIds.get().getTotalElements());
+        }
+        // Fetch the matched movies and keep them in rank order
+        Map<Long, MovieDTO> moviesById = new HashMap<>();
+        for (MovieDTO movie : movieRepository.findMovieDTOsByIdIn(rankedIds.get().getContent())) {
+            moviesById.put(movie.getId(), movie);
+        }
+        List<MovieDTO> movies = withCredits(rankedIds.get().stream()
+                .map(moviesById::get)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList()));
+        return new PageImpl<>(movies, pageable, rankedIds.get().getTotalElements());
     }
 
  
@@ -0,0 +1,485 @@
+package com.movies.Movies.Service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.movies.Movies.Entity.Movie;
+import com.movies.Movies.dto.MovieDTO;
+import com.movies.Movies.dto.MovieUpdateStatusDTO;
+import com.movies.Movies.exception.ResourceNotFoundException;
+import com.movies.Movies.exception.UpdateQueueFullException;
+import com.movies.Movies.Repository.MovieRepository;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Write-behind queue for movie updates. When enabled, PATCH /api/movies/{id} puts the patch on the queue and
+ * returns at once with a ticket. The queue holds at most one pending update per movie: a patch to a movie that is
+ * already waiting is merged into its update, field by field with the later value winning and added and removed
+ * actor and genre ids netted out, which is what applying the patches one after the other would leave. A single writer thread takes the pending movies oldest first and
+ * applies up to a batch of them in one transaction, so a burst of patches costs one fetch of the movie's actors
+ * and genres, one rewrite of its join table rows and one commit rather than one of each per patch, and writes
+ * never queue against each other for SQLite's single writer connection. If a batch fails it is applied again one
+ * movie per transaction, so only the failing update is reported as failed. Each patch is checked against the
+ * movie's constraints before it is queued, so an invalid patch is turned away on its own rather than failing the
+ * valid patches it would have been merged with.
+ * Synchronous updates go through the same queue and wait for their batch, so they are never overtaken by a patch
+ * sent before them.
+ */
+@Service
+public class MovieUpdateQueue {
+
+    private static final Logger log = LoggerFactory.getLogger(MovieUpdateQueue.class);
+
+    // How long the outcome of a ticket can be looked up after it was last written
+    private static final Duration STATUS_RETENTION = Duration.ofMinutes(10);
+
+    /**
+     * The merged changes to a movie's actors or genres: either a replacement list, or ids to add and to remove.
+     * Merging a later patch gives what applying the two one after the other would: a replacement discards
+     * everything before it, and added and removed ids are applied to the replacement, or net out against
+     * the earlier ones.
+     */
+    private static final class LinkChanges {
+        // Null unless the links are replaced
+        private List<Long> replacement;
+        private final Set<Long> added = new LinkedHashSet<>();
+        private final Set<Long> removed = new LinkedHashSet<>();
+
+        private void merge(List<Long> ids, List<Long> add, List<Long> remove) {
+            List<Long> laterAdded = add != null ? add : List.of();
+            List<Long> laterRemoved = remove != null ? remove : List.of();
+            if (add == null && remove == null) {
+                if (ids != null) {
+                    replacement = new ArrayList<>(ids);
+                    added.clear();
+                    removed.clear();
+                }
+            } else if (replacement != null) {
+                replacement.removeAll(laterRemoved);
+                laterAdded.stream().filter(id -> !replacement.contains(id)).forEach(replacement::add);
+            } else {
+                added.removeAll(laterRemoved);
+                added.addAll(laterAdded);
+                removed.removeAll(laterAdded);
+                removed.addAll(laterRemoved);
+            }
+        }
+
+        private boolean isChanged() {
+            return replacement != null || !added.isEmpty() || !removed.isEmpty();
+        }
+    }
+
+    /**
+     * The update waiting for one movie: the merge of every patch sent to it since the writer last took it.
+     */
+    private static final class PendingUpdate {
+        private final Long movieId;
+        private final MovieDTO patch = new MovieDTO();
+        private final LinkChanges actors = new LinkChanges();
+        private final LinkChanges genres = new LinkChanges();
+        private final List<Long> tickets = new ArrayList<>();
+        private final CompletableFuture<Void> done = new CompletableFuture<>();
+
+        private PendingUpdate(Long movieId) {
+            this.movieId = movieId;
+        }
+
+        /**
+         * @return the merged patch, in the form MovieService.updateMovie takes
+         */
+        private MovieDTO patch() {
+            patch.setActorIds(actors.replacement);
+            patch.setAddActorIds(actors.replacement == null && actors.isChanged() ? List.copyOf(actors.added) : null);
+            patch.setRemoveActorIds(actors.replacement == null && actors.isChanged() ? List.copyOf(actors.removed) : null);
+            patch.setGenreIds(genres.replacement);
+            patch.setAddGenreIds(genres.replacement == null && genres.isChanged() ? List.copyOf(genres.added) : null);
+            patch.setRemoveGenreIds(genres.replacement == null && genres.isChanged() ? List.copyOf(genres.removed) : null);
+            return patch;
+        }
+
+        private void merge(MovieDTO later) {
+            if (later.getTitle() != null) {
+                patch.setTitle(later.getTitle());
+            }
+            if (later.getReleaseYear() != null) {
+                patch.setReleaseYear(later.getReleaseYear());
+            }
+            if (later.getDuration() != null) {
+                patch.setDuration(later.getDuration());
+            }
+            actors.merge(later.getActorIds(), later.getAddActorIds(), later.getRemoveActorIds());
+            genres.merge(later.getGenreIds(), later.getAddGenreIds(), later.getRemoveGenreIds());
+        }
+    }
+
+    /**
+     * A queued patch: its ticket, and the completion of the update it was merged into.
+     */
+    private record Submission(long ticket, CompletableFuture<Void> done) {
+    }
+
+    private final MovieService movieService;
+    private final MovieRepository movieRepository;
+    private final Validator validator;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean enabled;
+    private final int capacity;
+    private final int batchSize;
+    private final Duration syncTimeout;
+
+    // Pending updates by movie id, in the order their first patch arrived; guarded by lock
+    private final LinkedHashMap<Long, PendingUpdate> pending = new LinkedHashMap<>();
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition notEmpty = lock.newCondition();
+    private boolean stopping;
+
+    // Movie id of every ticket whose update has not been applied yet; never evicted, unlike the outcomes
+    private final Map<Long, Long> pendingTickets = new ConcurrentHashMap<>();
+
+    // Outcome of every recently applied or failed ticket
+    private final Cache<Long, MovieUpdateStatusDTO> statuses;
+    private final AtomicLong lastTicket = new AtomicLong();
+
+    // Patches merged into an update that was already waiting
+    private final Counter mergedCounter;
+
+    private Thread writer;
+
+    /**
+     * Constructor for MovieUpdateQueue.
+     *
+     * @param movieService the service applying the updates
+     * @param movieRepository the repository checking that an updated movie exists before its patch is queued
+     * @param validator the bean validator, checking the changed fields against the Movie constraints
+     * @param transactionManager the transaction manager each batch runs under
+     * @param meterRegistry the registry the queue metrics are published in
+     * @param enabled whether updates are queued; when false they are applied in the request as before
+     * @param capacity the most movies with a pending update
+     * @param batchSize the most movies updated in one transaction
+     * @param syncTimeout how long a synchronous update waits for its batch to commit
+     */
+    public MovieUpdateQueue(MovieService movieService, MovieRepository movieRepository, Validator validator,
+                            PlatformTransactionManager transactionManager, MeterRegistry meterRegistry,
+                            @Value("${movies.write-behind.enabled:false}") boolean enabled,
+                            @Value("${movies.write-behind.capacity:10000}") int capacity,
+                            @Value("${movies.write-behind.batch-size:100}") int batchSize,
+                            @Value("${movies.write-behind.sync-timeout:PT30S}") Duration syncTimeout) {
+        this.movieService = movieService;
+        this.movieRepository = movieRepository;
+        this.validator = validator;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.enabled = enabled;
+        this.capacity = capacity;
+        this.batchSize = batchSize;
+        this.syncTimeout = syncTimeout;
+        this.statuses = Caffeine.newBuilder()
+                .expireAfterWrite(STATUS_RETENTION)
+                .maximumSize(Math.max(100_000, capacity * 10L))
+                .build();
+        this.mergedCounter = Counter.builder("movies.updates.merged")
+                .description("Movie patches merged into an update already waiting in the write-behind queue")
+                .register(meterRegistry);
+        Gauge.builder("movies.updates.pending", this, MovieUpdateQueue::pendingCount)
+                .description("Movies with an update waiting in the write-behind queue")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    void start() {
+        if (enabled) {
+            writer = Thread.ofPlatform().name("movie-update-writer").daemon(true).start(this::drain);
+        }
+    }
+
+    /**
+     * Stops taking patches and waits for the writer to apply the ones already queued,
+     * before the services and connections it needs are closed.
+     */
+    @PreDestroy
+    void stop() throws InterruptedException {
+        if (writer == null) {
+            return;
+        }
+        lock.lock();
+        try {
+            stopping = true;
+            notEmpty.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        writer.join(TimeUnit.SECONDS.toMillis(30));
+    }
+
+    /**
+     * @return whether PATCH requests are queued rather than applied in the request
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Queues a patch to a movie, merging it into the update already waiting for the movie if there is one.
+     *
+     * @param id       the unique identifier of the movie to update
+     * @param movieDTO the fields to change; null fields are left as they are
+     * @return the PENDING status of the patch, whose ticket identifies it
+     * @throws IllegalArgumentException  if the patch contradicts itself or a changed field is invalid
+     * @throws ResourceNotFoundException if no movie is found with the given ID
+     * @throws UpdateQueueFullException  if the queue can take no more movies
+     */
+    public MovieUpdateStatusDTO enqueue(Long id, MovieDTO movieDTO) {
+        return MovieUpdateStatusDTO.pending(submit(id, movieDTO).ticket(), id);
+    }
+
+    /**
+     * Applies a patch to a movie before returning. With the queue enabled the patch is queued like any other,
+     * merged with the patches sent to the movie before it, and the call waits for its batch to commit.
+     *
+     * @param id       the unique identifier of the movie to update
+     * @param movieDTO the fields to change; null fields are left as they are
+     * @return the updated Movie entity
+     * @throws IllegalArgumentException  if the patch contradicts itself or a changed field is invalid
+     * @throws ResourceNotFoundException if no movie is found with the given ID
+     * @throws UpdateQueueFullException  if the queue can take no more movies, or does not apply the patch in time;
+     *                                   the patch then stays queued
+     */
+    public Movie updateNow(Long id, MovieDTO movieDTO) {
+        if (!enabled) {
+            checkPatch(movieDTO);
+            return movieService.updateMovie(id, movieDTO);
+        }
+        Submission submission = submit(id, movieDTO);
+        try {
+            // Wait on this call only; orTimeout would fail the update for every patch merged into it
+            submission.done.get(syncTimeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(e.getCause());
+        } catch (TimeoutException e) {
+            throw new UpdateQueueFullException("The update was not applied within " + syncTimeout.toSeconds()
+                    + " seconds; follow its progress at /api/movies/updates/" + submission.ticket());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new UpdateQueueFullException("Interrupted while waiting for update " + submission.ticket());
+        }
+        return movieService.getMovieById(id);
+    }
+
+    /**
+     * Retrieves the progress of a queued patch.
+     *
+     * @param ticket the ticket returned when the patch was queued
+     * @return the status of the patch
+     * @throws ResourceNotFoundException if the ticket is unknown or its outcome has expired
+     */
+    public MovieUpdateStatusDTO getStatus(long ticket) {
+        // complete() records the outcome before it drops the pending ticket, so one of the two is always found
+        Long movieId = pendingTickets.get(ticket);
+        if (movieId != null) {
+            return MovieUpdateStatusDTO.pending(ticket, movieId);
+        }
+        MovieUpdateStatusDTO status = statuses.getIfPresent(ticket);
+        if (status == null) {
+            throw new ResourceNotFoundException(HttpStatus.NOT_FOUND, "Update not found");
+        }
+        return status;
+    }
+
+    /**
+     * Checks a patch the way applying it would: its link changes must not contradict each other, and the fields
+     * it changes must meet the Movie constraints that are otherwise only checked when the movie is written.
+     *
+     * @param movieDTO the patch
+     * @throws IllegalArgumentException if the patch contradicts itself or a changed field is invalid
+     */
+    private void checkPatch(MovieDTO movieDTO) {
+        if (movieDTO == null) {
+            throw new IllegalArgumentException("MovieDTO cannot be null");
+        }
+        MovieService.checkLinkChanges(movieDTO);
+        // Null fields are left as they are, so only the given ones are checked
+        String violations = Stream.of(
+                        changed("title", movieDTO.getTitle()),
+                        changed("releaseYear", movieDTO.getReleaseYear()),
+                        changed("duration", movieDTO.getDuration()))
+                .flatMap(Set::stream)
+                .map(ConstraintViolation::getMessage)
+                .collect(Collectors.joining("; "));
+        if (!violations.isEmpty()) {
+            throw new IllegalArgumentException(violations);
+        }
+    }
+
+    private Set<ConstraintViolation<Movie>> changed(String field, Object value) {
+        return value == null ? Set.of() : validator.validateValue(Movie.class, field, value);
+    }
+
+    private Submission submit(Long id, MovieDTO movieDTO) {
+        checkPatch(movieDTO);
+        // Turn away patches to missing movies now rather than accept them and fail later
+        if (!movieRepository.existsById(id)) {
+            throw new ResourceNotFoundException(HttpStatus.NOT_FOUND, "Movie not found");
+        }
+        lock.lock();
+        try {
+            if (stopping) {
+                throw new UpdateQueueFullException("Movie updates are not being accepted while the application shuts down");
+            }
+            PendingUpdate update = pending.get(id);
+            if (update == null) {
+                if (pending.size() >= capacity) {
+                    throw new UpdateQueueFullException("Too many movies are waiting to be updated, try again later");
+                }
+                update = new PendingUpdate(id);
+                pending.put(id, update);
+                notEmpty.signal();
+            } else {
+                mergedCounter.increment();
+            }
+            update.merge(movieDTO);
+            long ticket = lastTicket.incrementAndGet();
+            update.tickets.add(ticket);
+            pendingTickets.put(ticket, id);
+            return new Submission(ticket, update.done);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return the number of movies with an update waiting to be taken by the writer
+     */
+    int pendingCount() {
+        lock.lock();
+        try {
+            return pending.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * The writer thread: applies batches until the queue is stopped and empty.
+     */
+    private void drain() {
+        while (true) {
+            List<PendingUpdate> batch;
+            try {
+                batch = take();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            if (batch.isEmpty()) {
+                return;
+            }
+            try {
+                apply(batch);
+            } catch (Throwable e) {
+                // Fail what is left of the batch rather than let the writer die with callers waiting on it
+                log.error("Applying a batch of {} movie updates failed", batch.size(), e);
+                batch.stream().filter(update -> !update.done.isDone()).forEach(update -> complete(update, e));
+            }
+        }
+    }
+
+    /**
+     * Takes up to a batch of the oldest pending updates, waiting for one if there are none.
+     * Once an update is taken, later patches to its movie start a new one, applied after it.
+     *
+     * @return the batch; empty only when the queue is stopped and drained
+     */
+    private List<PendingUpdate> take() throws InterruptedException {
+        lock.lock();
+        try {
+            while (pending.isEmpty() && !stopping) {
+                notEmpty.await();
+            }
+            List<PendingUpdate> batch = new ArrayList<>(Math.min(batchSize, pending.size()));
+            Iterator<PendingUpdate> updates = pending.values().iterator();
+            while (updates.hasNext() && batch.size() < batchSize) {
+                batch.add(updates.next());
+                updates.remove();
+            }
+            return batch;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void apply(List<PendingUpdate> batch) {
+        try {
+            transactionTemplate.executeWithoutResult(transaction ->
+                    batch.forEach(update -> movieService.updateMovie(update.movieId, update.patch())));
+            batch.forEach(update -> complete(update, null));
+        } catch (RuntimeException e) {
+            if (batch.size() == 1) {
+                complete(batch.get(0), e);
+                return;
+            }
+            // One update rolled the whole batch back: apply them one at a time, so the others still go through
+            log.warn("Batch of {} movie updates failed, applying them one at a time: {}", batch.size(), e.getMessage());
+            for (PendingUpdate update : batch) {
+                try {
+                    transactionTemplate.executeWithoutResult(transaction -> movieService.updateMovie(update.movieId, update.patch()));
+                    complete(update, null);
+                } catch (RuntimeException failure) {
+                    complete(update, failure);
+                }
+            }
+        }
+    }
+
+    private void complete(PendingUpdate update, Throwable failure) {
+        int merged = update.tickets.size();
+        for (long ticket : update.tickets) {
+            statuses.put(ticket, failure == null
+                    ? MovieUpdateStatusDTO.applied(ticket, update.movieId, merged)
+                    : MovieUpdateStatusDTO.failed(ticket, update.movieId, merged, failure.getMessage()));
+            pendingTickets.remove(ticket);
+        }
+        if (failure == null) {
+            update.done.complete(null);
+        } else {
+            log.warn("Update of movie {} failed: {}", update.movieId, failure.getMessage());
+            update.done.completeExceptionally(failure);
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package com.movies.Movies.Service;
+
+import com.movies.Movies.dto.CatalogStatsDTO;
+import com.movies.Movies.dto.StatsBucketDTO;
+import com.movies.Movies.Repository.MovieStatsRepository;
+
+import io.micrometer.core.annotation.Timed;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+/**
+ * Service class responsible for the aggregate statistics of the catalog.
+ * The statistics are kept in the movie_stats summary table, which the movie, actor, genre and bulk import
+ * services update with every write, so reading them costs a handful of rows however large the catalog is.
+ * A periodic reconciliation recounts them from the catalog and repairs any drift, such as rows written
+ * to the database by hand.
+ */
+@Service
+@Timed(value = "movies.service", histogram = true)
+public class StatsService {
+
+    private static final Logger log = LoggerFactory.getLogger(StatsService.class);
+
+    private final MovieStatsRepository movieStatsRepository;
+
+    // Buckets found out of step with the catalog by the reconciliation
+    private final Counter driftCounter;
+
+    /**
+     * Constructor for StatsService.
+     *
+     * @param movieStatsRepository the movie_stats summary table
+     * @param meterRegistry the registry the drift counter is published in
+     */
+    public StatsService(MovieStatsRepository movieStatsRepository, MeterRegistry meterRegistry) {
+        this.movieStatsRepository = movieStatsRepository;
+        this.driftCounter = Counter.builder("movies.stats.drift")
+                .description("Statistics buckets found out of step with the catalog and rebuilt")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Retrieves the movie count and average duration of the whole catalog, per genre and per release year.
+     *
+     * @return the CatalogStatsDTO of the catalog
+     */
+    @Transactional(readOnly = true)
+    public CatalogStatsDTO getStats() {
+        StatsBucketDTO total = movieStatsRepository.findTotal();
+        return new CatalogStatsDTO(total.getMovieCount(), total.getAverageDuration(),
+                movieStatsRepository.findGenres(), movieStatsRepository.findYears());
+    }
+
+    /**
+     * Retrieves one page of the actors ranked by their number of movies, most first, then by id.
+     *
+     * @param pageable the page of results to return
+     * @return a page of StatsBucketDTOs, one per actor with at least one movie
+     * @throws IllegalArgumentException if the page parameters are invalid
+     */
+    @Transactional(readOnly = true)
+    public Page<StatsBucketDTO> getActorStats(Pageable pageable) {
+        if (pageable.getPageNumber() < 0) {
+            throw new IllegalArgumentException("Invalid page parameters: page number can't be < 0");
+        }
+        if (pageable.getPageSize() < 1 || pageable.getPageSize() > 100) {
+            throw new IllegalArgumentException("Invalid pagination parameters: Page size must be 1 to 100");
+        }
+        List<StatsBucketDTO> actors = movieStatsRepository.findActors(pageable.getOffset(), pageable.getPageSize());
+        return new PageImpl<>(actors, pageable, movieStatsRepository.countActors());
+    }
+
+    /**
+     * Recounts the statistics from the catalog and rebuilds them if they have drifted.
+     * The recount runs on a reader connection; only a rebuild takes the writer, for about as long as the recount.
+     *
+     * @return the number of buckets that had drifted, 0 if the statistics were correct
+     */
+    @Scheduled(initialDelayString = "${movies.stats.reconcile-interval:PT1H}",
+            fixedDelayString = "${movies.stats.reconcile-interval:PT1H}")
+    public long reconcile() {
+        long started = System.nanoTime();
+        long drift = movieStatsRepository.countDrift();
+        if (drift > 0) {
+            movieStatsRepository.rebuild();
+            driftCounter.increment(drift);
+            log.warn("Rebuilt the catalog statistics: {} buckets had drifted", drift);
+        }
+        log.info("Reconciled the catalog statistics in {} ms", (System.nanoTime() - started) / 1_000_000);
+        return drift;
+    }
+}
@@ -0,0 +1,635 @@
+package com.movies.Movies.cache;
+
+import com.movies.Movies.Repository.CatalogSnapshotRepository.CatalogRowHandler;
+import com.movies.Movies.dto.ActorDTO;
+import com.movies.Movies.dto.ActorPathDTO;
+import com.movies.Movies.dto.CoStarDTO;
+import com.movies.Movies.dto.MovieDTO;
+import com.movies.Movies.util.BidirectionalSearch;
+import com.movies.Movies.util.LongIntHashMap;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.PriorityQueue;
+import java.util.Set;
+
+/**
+ * The data of the in-memory catalog snapshot. Movies, actors and genres each get a dense int slot, found through a
+ * primitive id to slot map, and their columns are stored in arrays indexed by slot. The movie_actor and movie_genre
+ * relations are held in both directions as {@link IntAdjacency} rows of slots, each row sorted by the id of its
+ * targets, which is the order the join table indexes give the same rows in SQL.
+ * Not thread-safe; {@link CatalogSnapshot} guards it.
+ */
+final class CatalogIndex {
+
+    /**
+     * Ids and slots of one kind of row. Slots of removed rows are reused by the next rows added.
+     */
+    private static final class Slots {
+
+        private final LongIntHashMap slotById;
+
+        // Id of each slot, 0 for a free slot
+        private long[] ids;
+        private int used;
+        private int count;
+        private int[] free = new int[16];
+        private int freeCount;
+
+        private Slots(int expectedRows) {
+            slotById = new LongIntHashMap(expectedRows);
+            ids = new long[Math.max(expectedRows, 16)];
+        }
+
+        private int add(long id) {
+            int slot = freeCount > 0 ? free[--freeCount] : used++;
+            if (slot >= ids.length) {
+                ids = Arrays.copyOf(ids, ids.length * 2);
+            }
+            ids[slot] = id;
+            slotById.put(id, slot);
+            count++;
+            return slot;
+        }
+
+        private void remove(int slot) {
+            slotById.remove(ids[slot]);
+            ids[slot] = 0;
+            if (freeCount == free.length) {
+                free = Arrays.copyOf(free, free.length * 2);
+            }
+            free[freeCount++] = slot;
+            count--;
+        }
+
+        private long sizeInBytes() {
+            return slotById.sizeInBytes() + 16 + ids.length * 8L + 16 + free.length * 4L;
+        }
+    }
+
+    /**
+     * Links one direction of a relation gained and lost while a batch of rows was applied, by row. They are merged
+     * into each row in one copy, so a genre gaining a thousand movies in one bulk import chunk is copied once rather
+     * than a thousand times.
+     */
+    private static final class PendingLinks {
+
+        private final Map<Integer, Set<Integer>> removed = new HashMap<>();
+        private final Map<Integer, List<Integer>> added = new HashMap<>();
+
+        /**
+         * @param relation the relation to update
+         * @param targets  the slots the targets of the relation live in, to keep each row in id order
+         */
+        private void mergeInto(IntAdjacency relation, Slots targets) {
+            Set<Integer> rows = new HashSet<>(removed.keySet());
+            rows.addAll(added.keySet());
+            for (int row : rows) {
+                int[] current = relation.row(row);
+                int[] lost = removed.getOrDefault(row, Set.of()).stream()
+                        .mapToInt(Integer::intValue)
+                        .sorted()
+                        .toArray();
+                int[] gained = added.getOrDefault(row, List.of()).stream()
+                        .distinct()
+                        .sorted(Comparator.comparingLong(slot -> targets.ids[slot]))
+                        .mapToInt(Integer::intValue)
+                        .toArray();
+                int[] merged = new int[current.length + gained.length];
+                int count = 0;
+                int g = 0;
+                for (int slot : current) {
+                    if (lost.length > 0 && Arrays.binarySearch(lost, slot) >= 0) {
+                        continue;
+                    }
+                    while (g < gained.length && targets.ids[gained[g]] < targets.ids[slot]) {
+                        merged[count++] = gained[g++];
+                    }
+                    if (g < gained.length && gained[g] == slot) {
+                        g++;
+                    }
+                    merged[count++] = slot;
+                }
+                while (g < gained.length) {
+                    merged[count++] = gained[g++];
+                }
+                relation.set(row, count == merged.length ? merged : Arrays.copyOf(merged, count));
+            }
+            removed.clear();
+            added.clear();
+        }
+    }
+
+    private final Slots movies;
+    private final Slots actors;
+    private final Slots genres;
+
+    // Movie columns; a duration of 0 stands for none
+    private String[] titles;
+    private int[] releaseYears;
+    private int[] durations;
+
+    // Actor columns
+    private String[] actorNames;
+    private int[] birthEpochDays;
+
+    // Genre columns
+    private String[] genreNames;
+
+    private IntAdjacency movieActors;
+    private IntAdjacency actorMovies;
+    private IntAdjacency movieGenres;
+    private IntAdjacency genreMovies;
+
+    private final PendingLinks pendingMovieActors = new PendingLinks();
+    private final PendingLinks pendingActorMovies = new PendingLinks();
+    private final PendingLinks pendingMovieGenres = new PendingLinks();
+    private final PendingLinks pendingGenreMovies = new PendingLinks();
+
+    private long credits;
+    private long stringBytes;
+
+    private CatalogIndex(int expectedMovies, int expectedActors, int expectedGenres) {
+        movies = new Slots(expectedMovies);
+        actors = new Slots(expectedActors);
+        genres = new Slots(expectedGenres);
+        titles = new String[movies.ids.length];
+        releaseYears = new int[movies.ids.length];
+        durations = new int[movies.ids.length];
+        actorNames = new String[actors.ids.length];
+        birthEpochDays = new int[actors.ids.length];
+        genreNames = new String[genres.ids.length];
+    }
+
+    /**
+     * Builds an index from the rows of a full load. Links are collected as pairs of slots and turned into
+     * compressed rows once all of them are in.
+     */
+    static final class Loader implements CatalogRowHandler {
+
+        private final CatalogIndex index = new CatalogIndex(1024, 1024, 64);
+
+        private int[] actorLinks = new int[2048];
+        private int actorLinkCount;
+        private int[] genreLinks = new int[2048];
+        private int genreLinkCount;
+
+        @Override
+        public void genre(long id, String name) {
+            index.putGenre(id, name);
+        }
+
+        @Override
+        public void actor(long id, String name, long birthEpochDay) {
+            index.putActor(id, name, birthEpochDay);
+        }
+
+        @Override
+        public void movie(long id, String title, int releaseYear, int duration) {
+            index.setMovie(id, title, releaseYear, duration);
+        }
+
+        @Override
+        public void movieActor(long movieId, long actorId) {
+            int movie = index.movies.slotById.get(movieId);
+            int actor = index.actors.slotById.get(actorId);
+            // Join table rows left behind by a deleted movie or actor have nothing to point to
+            if (movie != LongIntHashMap.MISSING && actor != LongIntHashMap.MISSING) {
+                actorLinks = addPair(actorLinks, actorLinkCount++, movie, actor);
+            }
+        }
+
+        @Override
+        public void movieGenre(long movieId, long genreId) {
+            int movie = index.movies.slotById.get(movieId);
+            int genre = index.genres.slotById.get(genreId);
+            if (movie != LongIntHashMap.MISSING && genre != LongIntHashMap.MISSING) {
+                genreLinks = addPair(genreLinks, genreLinkCount++, movie, genre);
+            }
+        }
+
+        CatalogIndex finish() {
+            index.movieActors = build(index.movies.used, actorLinks, actorLinkCount, 0);
+            index.actorMovies = build(index.actors.used, actorLinks, actorLinkCount, 1);
+            index.movieGenres = build(index.movies.used, genreLinks, genreLinkCount, 0);
+            index.genreMovies = build(index.genres.used, genreLinks, genreLinkCount, 1);
+            index.credits = actorLinkCount;
+            return index;
+        }
+
+        private static int[] addPair(int[] pairs, int pair, int movie, int other) {
+            if (pair * 2 + 1 >= pairs.length) {
+                pairs = Arrays.copyOf(pairs, pairs.length * 2);
+            }
+            pairs[pair * 2] = movie;
+            pairs[pair * 2 + 1] = other;
+            return pairs;
+        }
+
+        // Splits the interleaved pairs into the row and target of each link, seen from one side
+        private static IntAdjacency build(int rows, int[] pairs, int count, int side) {
+            int[] from = new int[count];
+            int[] to = new int[count];
+            for (int i = 0; i < count; i++) {
+                from[i] = pairs[i * 2 + side];
+                to[i] = pairs[i * 2 + 1 - side];
+            }
+            return IntAdjacency.build(rows, from, to, count);
+        }
+    }
+
+    // Lookups
+
+    int movieSlot(long id) {
+        return movies.slotById.get(id);
+    }
+
+    int actorSlot(long id) {
+        return actors.slotById.get(id);
+    }
+
+    int genreSlot(long id) {
+        return genres.slotById.get(id);
+    }
+
+    int movieCount() {
+        return movies.count;
+    }
+
+    int actorCount() {
+        return actors.count;
+    }
+
+    int genreCount() {
+        return genres.count;
+    }
+
+    // Number of movie_actor links
+    long creditCount() {
+        return credits;
+    }
+
+    /**
+     * Builds the DTO of a movie the way {@code MovieService.withCredits} completes a projected one: without actors
+     * or genres, the ids are null and the names absent.
+     */
+    MovieDTO movieDTO(int slot) {
+        MovieDTO movie = new MovieDTO(movies.ids[slot], titles[slot], releaseYears[slot],
+                durations[slot] == 0 ? null : durations[slot]);
+        int[] actorRow = movieActors.row(slot);
+        if (actorRow.length == 0) {
+            movie.setActorIds(null);
+        } else {
+            List<Long> ids = new ArrayList<>(actorRow.length);
+            List<String> names = new ArrayList<>(actorRow.length);
+            for (int actor : actorRow) {
+                ids.add(actors.ids[actor]);
+                names.add(actorNames[actor]);
+            }
+            movie.setActorIds(ids);
+            movie.setActors(Optional.of(names));
+        }
+        int[] genreRow = movieGenres.row(slot);
+        if (genreRow.length == 0) {
+            movie.setGenreIds(null);
+        } else {
+            List<Long> ids = new ArrayList<>(genreRow.length);
+            List<String> names = new ArrayList<>(genreRow.length);
+            for (int genre : genreRow) {
+                ids.add(genres.ids[genre]);
+                names.add(genreNames[genre]);
+            }
+            movie.setGenreIds(ids);
+            movie.setGenres(Optional.of(names));
+        }
+        return movie;
+    }
+
+    ActorDTO actorDTO(int slot) {
+        return new ActorDTO(actors.ids[slot], actorNames[slot], LocalDate.ofEpochDay(birthEpochDays[slot]));
+    }
+
+    Page<MovieDTO> moviesOfActor(int actorSlot, Pageable pageable) {
+        return moviePage(actorMovies, actorSlot, pageable);
+    }
+
+    Page<MovieDTO> moviesOfGenre(int genreSlot, Pageable pageable) {
+        return moviePage(genreMovies, genreSlot, pageable);
+    }
+
+    List<ActorDTO> actorsOfMovie(int movieSlot) {
+        int[] row = movieActors.row(movieSlot);
+        List<ActorDTO> result = new ArrayList<>(row.length);
+        for (int actor : row) {
+            result.add(actorDTO(actor));
+        }
+        return result;
+    }
+
+    /**
+     * Counts the movies the actor shares with each co-star in one pass over the actor's movies and their casts,
+     * and keeps the most frequent in a heap of the given size.
+     *
+     * @return the co-stars with the most shared movies first, then by id
+     */
+    List<CoStarDTO> topCoStars(int actorSlot, int limit) {
+        int[] shared = new int[actors.used];
+        int[] touched = new int[16];
+        int touchedCount = 0;
+        for (int i = 0, movieCount = actorMovies.degree(actorSlot); i < movieCount; i++) {
+            int movie = actorMovies.target(actorSlot, i);
+            for (int j = 0, castSize = movieActors.degree(movie); j < castSize; j++) {
+                int coStar = movieActors.target(movie, j);
+                if (coStar != actorSlot && shared[coStar]++ == 0) {
+                    if (touchedCount == touched.length) {
+                        touched = Arrays.copyOf(touched, touchedCount * 2);
+                    }
+                    touched[touchedCount++] = coStar;
+                }
+            }
+        }
+        Comparator<Integer> ranking = Comparator.<Integer>comparingInt(slot -> shared[slot]).reversed()
+                .thenComparingLong(slot -> actors.ids[slot]);
+        // The head of the heap is the weakest of the co-stars kept so far
+        PriorityQueue<Integer> top = new PriorityQueue<>(limit + 1, ranking.reversed());
+        for (int i = 0; i < touchedCount; i++) {
+            top.add(touched[i]);
+            if (top.size() > limit) {
+                top.poll();
+            }
+        }
+        List<Integer> slots = new ArrayList<>(top);
+        slots.sort(ranking);
+        List<CoStarDTO> result = new ArrayList<>(slots.size());
+        for (int slot : slots) {
+            result.add(new CoStarDTO(actors.ids[slot], actorNames[slot], shared[slot]));
+        }
+        return result;
+    }
+
+    /**
+     * Hands over, for each of the given actors, every co-star with a movie they share. Movies already in
+     * scannedMovies are skipped, as their casts have been handed over before, and the others are added to it.
+     *
+     * @param actorIds      the ids of the actors
+     * @param scannedMovies the slots of the movies whose casts have been handed over, updated
+     * @param edges         receives the actor id, the shared movie id and the co-star id
+     */
+    void coStarEdges(long[] actorIds, BitSet scannedMovies, BidirectionalSearch.EdgeConsumer edges) {
+        for (long actorId : actorIds) {
+            int actor = actors.slotById.get(actorId);
+            if (actor == LongIntHashMap.MISSING) {
+                continue;
+            }
+            for (int i = 0, movieCount = actorMovies.degree(actor); i < movieCount; i++) {
+                int movie = actorMovies.target(actor, i);
+                if (scannedMovies.get(movie)) {
+                    continue;
+                }
+                scannedMovies.set(movie);
+                for (int j = 0, castSize = movieActors.degree(movie); j < castSize; j++) {
+                    int coStar = movieActors.target(movie, j);
+                    if (coStar != actor) {
+                        edges.edge(actorId, movies.ids[movie], actors.ids[coStar]);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * @param path actor ids interleaved with the ids of the movies linking them, all present in the index
+     */
+    ActorPathDTO pathDTO(long[] path) {
+        List<ActorDTO> pathActors = new ArrayList<>();
+        List<MovieDTO> pathMovies = new ArrayList<>();
+        for (int i = 0; i < path.length; i++) {
+            if (i % 2 == 0) {
+                pathActors.add(actorDTO(actors.slotById.get(path[i])));
+            } else {
+                int slot = movies.slotById.get(path[i]);
+                MovieDTO movie = new MovieDTO(path[i], titles[slot], releaseYears[slot],
+                        durations[slot] == 0 ? null : durations[slot]);
+                movie.setActorIds(null);
+                movie.setGenreIds(null);
+                pathMovies.add(movie);
+            }
+        }
+        return new ActorPathDTO(pathActors, pathMovies);
+    }
+
+    // One page of a row of movie slots, already in id order
+    private Page<MovieDTO> moviePage(IntAdjacency relation, int row, Pageable pageable) {
+        int total = relation.degree(row);
+        long end = Math.min(total, pageable.getOffset() + pageable.getPageSize());
+        List<MovieDTO> content = new ArrayList<>();
+        for (long i = pageable.getOffset(); i < end; i++) {
+            content.add(movieDTO(relation.target(row, (int) i)));
+        }
+        return new PageImpl<>(content, pageable, total);
+    }
+
+    // Changes
+
+    void putGenre(long id, String name) {
+        int slot = genres.slotById.get(id);
+        if (slot == LongIntHashMap.MISSING) {
+            slot = genres.add(id);
+            genreNames = grow(genreNames, genres.ids.length);
+        }
+        stringBytes += stringBytes(name) - stringBytes(genreNames[slot]);
+        genreNames[slot] = name;
+    }
+
+    void putActor(long id, String name, long birthEpochDay) {
+        int slot = actors.slotById.get(id);
+        if (slot == LongIntHashMap.MISSING) {
+            slot = actors.add(id);
+            actorNames = grow(actorNames, actors.ids.length);
+            birthEpochDays = grow(birthEpochDays, actors.ids.length);
+        }
+        stringBytes += stringBytes(name) - stringBytes(actorNames[slot]);
+        actorNames[slot] = name;
+        birthEpochDays[slot] = (int) birthEpochDay;
+    }
+
+    /**
+     * Adds or replaces a movie together with all of its links. Links to actors or genres that are not in the index
+     * are left out. The rows of the actors and genres the movie gains or loses change at the next {@link #flush()}.
+     *
+     * @param actorIds the ids of all actors of the movie
+     * @param genreIds the ids of all genres of the movie
+     */
+    void putMovie(long id, String title, int releaseYear, int duration, long[] actorIds, long[] genreIds) {
+        int slot = setMovie(id, title, releaseYear, duration);
+        int[] oldActors = movieActors.row(slot);
+        int[] newActors = slotsSortedById(actorIds, actors);
+        credits += newActors.length - oldActors.length;
+        relink(slot, oldActors, newActors, movieActors, pendingActorMovies);
+        relink(slot, movieGenres.row(slot), slotsSortedById(genreIds, genres), movieGenres, pendingGenreMovies);
+    }
+
+    void removeMovie(long id) {
+        int slot = movies.slotById.get(id);
+        if (slot == LongIntHashMap.MISSING) {
+            return;
+        }
+        int[] oldActors = movieActors.row(slot);
+        credits -= oldActors.length;
+        relink(slot, oldActors, IntAdjacency.EMPTY, movieActors, pendingActorMovies);
+        relink(slot, movieGenres.row(slot), IntAdjacency.EMPTY, movieGenres, pendingGenreMovies);
+        stringBytes -= stringBytes(titles[slot]);
+        titles[slot] = null;
+        movies.remove(slot);
+    }
+
+    void removeActor(long id) {
+        int slot = actors.slotById.get(id);
+        if (slot == LongIntHashMap.MISSING) {
+            return;
+        }
+        int[] oldMovies = actorMovies.row(slot);
+        credits -= oldMovies.length;
+        relink(slot, oldMovies, IntAdjacency.EMPTY, actorMovies, pendingMovieActors);
+        stringBytes -= stringBytes(actorNames[slot]);
+        actorNames[slot] = null;
+        actors.remove(slot);
+    }
+
+    void removeGenre(long id) {
+        int slot = genres.slotById.get(id);
+        if (slot == LongIntHashMap.MISSING) {
+            return;
+        }
+        relink(slot, genreMovies.row(slot), IntAdjacency.EMPTY, genreMovies, pendingMovieGenres);
+        stringBytes -= stringBytes(genreNames[slot]);
+        genreNames[slot] = null;
+        genres.remove(slot);
+    }
+
+    /**
+     * Merges the links gained and lost since the last flush into the rows of the other direction, each row once.
+     * Call it after a batch of puts, and again after a batch of removals, before any slot freed by the removals
+     * can be taken by a new row.
+     */
+    void flush() {
+        pendingActorMovies.mergeInto(actorMovies, movies);
+        pendingGenreMovies.mergeInto(genreMovies, movies);
+        pendingMovieActors.mergeInto(movieActors, actors);
+        pendingMovieGenres.mergeInto(movieGenres, genres);
+    }
+
+    /**
+     * Folds the rows changed since the load back into compressed rows, once there are enough of them.
+     *
+     * @return whether anything was compacted
+     */
+    boolean compactIfNeeded() {
+        boolean compacted = false;
+        for (IntAdjacency relation : List.of(movieActors, movieGenres)) {
+            if (relation.needsCompaction()) {
+                relation.compact(movies.used);
+                compacted = true;
+            }
+        }
+        if (actorMovies.needsCompaction()) {
+            actorMovies.compact(actors.used);
+            compacted = true;
+        }
+        if (genreMovies.needsCompaction()) {
+            genreMovies.compact(genres.used);
+            compacted = true;
+        }
+        return compacted;
+    }
+
+    /**
+     * @return the approximate heap size of the index in bytes
+     */
+    long sizeInBytes() {
+        long arrays = 16 + titles.length * 4L + 16 + releaseYears.length * 4L + 16 + durations.length * 4L
+                + 16 + actorNames.length * 4L + 16 + birthEpochDays.length * 4L + 16 + genreNames.length * 4L;
+        return movies.sizeInBytes() + actors.sizeInBytes() + genres.sizeInBytes() + arrays + stringBytes
+                + movieActors.sizeInBytes() + actorMovies.sizeInBytes()
+                + movieGenres.sizeInBytes() + genreMovies.sizeInBytes();
+    }
+
+    private int setMovie(long id, String title, int releaseYear, int duration) {
+        int slot = movies.slotById.get(id);
+        if (slot == LongIntHashMap.MISSING) {
+            slot = movies.add(id);
+            titles = grow(titles, movies.ids.length);
+            releaseYears = grow(releaseYears, movies.ids.length);
+            durations = grow(durations, movies.ids.length);
+        }
+        stringBytes += stringBytes(title) - stringBytes(titles[slot]);
+        titles[slot] = title;
+        releaseYears[slot] = releaseYear;
+        durations[slot] = duration;
+        return slot;
+    }
+
+    // Replaces the targets of one row, noting the change for the rows of the other direction
+    private static void relink(int row, int[] oldTargets, int[] newTargets, IntAdjacency forward,
+                               PendingLinks backward) {
+        for (int target : oldTargets) {
+            if (!contains(newTargets, target)) {
+                backward.removed.computeIfAbsent(target, t -> new HashSet<>()).add(row);
+            }
+        }
+        for (int target : newTargets) {
+            if (!contains(oldTargets, target)) {
+                backward.added.computeIfAbsent(target, t -> new ArrayList<>()).add(row);
+            }
+        }
+        forward.set(row, newTargets);
+    }
+
+    private static int[] slotsSortedById(long[] ids, Slots slots) {
+        long[] sorted = ids.clone();
+        Arrays.sort(sorted);
+        int[] result = new int[sorted.length];
+        int count = 0;
+        for (int i = 0; i < sorted.length; i++) {
+            int slot = slots.slotById.get(sorted[i]);
+            if (slot != LongIntHashMap.MISSING && (i == 0 || sorted[i] != sorted[i - 1])) {
+                result[count++] = slot;
+            }
+        }
+        return count == result.length ? result : Arrays.copyOf(result, count);
+    }
+
+    private static boolean contains(int[] row, int slot) {
+        for (int value : row) {
+            if (value == slot) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String[] grow(String[] column, int length) {
+        return column.length < length ? Arrays.copyOf(column, length) : column;
+    }
+
+    private static int[] grow(int[] column, int length) {
+        return column.length < length ? Arrays.copyOf(column, length) : column;
+    }
+
+    // A compact Latin-1 String: 24 bytes of object plus its byte array, rounded up to 8 bytes
+    private static long stringBytes(String value) {
+        return value == null ? 0 : 24 + ((16 + value.length() + 7) & ~7);
+    }
+}
@@ -0,0 +1,150 @@
+package com.movies.Movies.cache;
+
+import java.util.Arrays;
+
+/**
+ * One direction of a many-to-many relation between two kinds of rows, addressed by int slot.
+ * The rows built at load time are stored as compressed sparse rows: the targets of all rows back to back in one
+ * int array, with an offset per row, so a relation costs 4 bytes per link and 4 per row. Rows changed afterwards
+ * are held as arrays of their own, which take precedence over the compressed rows until {@link #compact(int)}
+ * folds them back in. Arrays handed out or taken in are never written to again, so callers may keep them.
+ * Not thread-safe.
+ */
+final class IntAdjacency {
+
+    static final int[] EMPTY = new int[0];
+
+    // Targets of compressed row r are targets[offsets[r]] up to targets[offsets[r + 1]]
+    private int[] offsets;
+    private int[] targets;
+
+    // Rows changed since the last compaction, indexed by row; null until the first change
+    private int[][] changed;
+    private int changedRows;
+    private long changedTargets;
+
+    private IntAdjacency(int[] offsets, int[] targets) {
+        this.offsets = offsets;
+        this.targets = targets;
+    }
+
+    /**
+     * Builds the compressed rows of the given links in two passes over them. Links keep their given order within
+     * each row, so links sorted by the id of their target give rows sorted the same way.
+     *
+     * @param rows  the number of rows
+     * @param from  the row of each link
+     * @param to    the target of each link
+     * @param links the number of links in the two arrays
+     * @return the relation
+     */
+    static IntAdjacency build(int rows, int[] from, int[] to, int links) {
+        int[] offsets = new int[rows + 1];
+        for (int i = 0; i < links; i++) {
+            offsets[from[i] + 1]++;
+        }
+        for (int row = 0; row < rows; row++) {
+            offsets[row + 1] += offsets[row];
+        }
+        int[] targets = new int[links];
+        int[] next = Arrays.copyOf(offsets, rows);
+        for (int i = 0; i < links; i++) {
+            targets[next[from[i]]++] = to[i];
+        }
+        return new IntAdjacency(offsets, targets);
+    }
+
+    int degree(int row) {
+        int[] override = changed(row);
+        if (override != null) {
+            return override.length;
+        }
+        return row + 1 < offsets.length ? offsets[row + 1] - offsets[row] : 0;
+    }
+
+    int target(int row, int index) {
+        int[] override = changed(row);
+        return override != null ? override[index] : targets[offsets[row] + index];
+    }
+
+    /**
+     * @param row the row
+     * @return the targets of the row; not to be modified
+     */
+    int[] row(int row) {
+        int[] override = changed(row);
+        if (override != null) {
+            return override;
+        }
+        return row + 1 < offsets.length ? Arrays.copyOfRange(targets, offsets[row], offsets[row + 1]) : EMPTY;
+    }
+
+    /**
+     * Replaces the targets of a row.
+     *
+     * @param row     the row
+     * @param targets the new targets, kept by reference and not to be modified afterwards
+     */
+    void set(int row, int[] targets) {
+        if (changed == null) {
+            changed = new int[Math.max(offsets.length - 1, row + 1)][];
+        } else if (row >= changed.length) {
+            changed = Arrays.copyOf(changed, Math.max(changed.length * 2, row + 1));
+        }
+        if (changed[row] == null) {
+            changedRows++;
+        } else {
+            changedTargets -= changed[row].length;
+        }
+        changed[row] = targets;
+        changedTargets += targets.length;
+    }
+
+    /**
+     * @return whether the changed rows have grown large enough to be worth folding back into the compressed rows
+     */
+    boolean needsCompaction() {
+        return changedRows > 1024 && changedTargets + changedRows * 4L > targets.length / 4;
+    }
+
+    /**
+     * Folds the changed rows back into the compressed rows.
+     *
+     * @param rows the number of rows to keep, at least one past the highest row in use
+     */
+    void compact(int rows) {
+        int[] newOffsets = new int[rows + 1];
+        for (int row = 0; row < rows; row++) {
+            newOffsets[row + 1] = newOffsets[row] + degree(row);
+        }
+        int[] newTargets = new int[newOffsets[rows]];
+        for (int row = 0; row < rows; row++) {
+            int[] override = changed(row);
+            if (override != null) {
+                System.arraycopy(override, 0, newTargets, newOffsets[row], override.length);
+            } else if (row + 1 < offsets.length) {
+                System.arraycopy(targets, offsets[row], newTargets, newOffsets[row], offsets[row + 1] - offsets[row]);
+            }
+        }
+        offsets = newOffsets;
+        targets = newTargets;
+        changed = null;
+        changedRows = 0;
+        changedTargets = 0;
+    }
+
+    /**
+     * @return the approximate heap size of the relation in bytes, with 16 bytes of header per array
+     */
+    long sizeInBytes() {
+        long bytes = 16 + offsets.length * 4L + 16 + targets.length * 4L;
+        if (changed != null) {
+            bytes += 16 + changed.length * 4L + changedRows * 16L + changedTargets * 4L;
+        }
+        return bytes;
+    }
+
+    private int[] changed(int row) {
+        return changed != null && row < changed.length ? changed[row] : null;
+    }
+}
@@ -0,0 +1,219 @@
+package com.movies.Movies.cache;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import com.movies.Movies.event.CatalogChangeEvent;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.context.request.WebRequest;
+
+import java.security.SecureRandom;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Supplier;
+
+/**
+ * In-memory cache of serialized GET responses, with strong ETags.
+ * Each entry holds the JSON bytes of one response and the tags of the rows it was built from,
+ * such as {@code movie:1} or {@code actor:7}. A request whose If-None-Match matches the cached ETag
+ * gets a 304 without touching the database or Jackson; any other hit is answered from the cached bytes.
+ * Entries are evicted by tag when a {@link CatalogChangeEvent} for one of their rows commits.
+ *
+ * <p>The ETag of an entry is the cache key and the invalidation generation current when it started loading, prefixed
+ * with a random epoch chosen at startup so that tags issued before a restart never match. The generation is a single
+ * counter bumped by any committed change, not a version of the rows themselves: a reload after an eviction always gets
+ * a fresh ETag, and so does one after a change to unrelated rows, which costs the client a full response but never
+ * a stale 304.
+ *
+ * <p>Hits and misses are published as the cache.gets metrics of the "responses" cache, and answers with a 304 as
+ * movies.response.cache.not.modified.
+ */
+@Component
+public class ResponseCache {
+
+    /**
+     * The body of a response together with the tags of the rows it was built from.
+     */
+    public static class Cacheable {
+
+        private final Object body;
+        private final Set<String> tags;
+
+        public Cacheable(Object body, Set<String> tags) {
+            this.body = body;
+            this.tags = tags;
+        }
+    }
+
+    private static class Entry {
+
+        private final byte[] body;
+        private final String etag;
+        private final Set<String> tags;
+
+        private Entry(byte[] body, String etag, Set<String> tags) {
+            this.body = body;
+            this.etag = etag;
+            this.tags = tags;
+        }
+    }
+
+    public static String movieTag(Long id) {
+        return "movie:" + id;
+    }
+
+    public static String actorTag(Long id) {
+        return "actor:" + id;
+    }
+
+    public static String genreTag(Long id) {
+        return "genre:" + id;
+    }
+
+    // Tag of every response that lists genres, invalidated by any genre change
+    public static final String GENRES_TAG = "genres";
+
+    private final ObjectMapper objectMapper;
+
+    private final Cache<String, Entry> entries;
+
+    private final Counter notModified;
+
+    // Guarded by this: the keys of the entries carrying each tag, and the number of invalidations so far
+    private final Map<String, Set<String>> keysByTag = new HashMap<>();
+    private long generation;
+
+    private final String epoch = Long.toHexString(new SecureRandom().nextLong());
+
+    @Autowired
+    public ResponseCache(ObjectMapper objectMapper, MeterRegistry meterRegistry,
+                         @Value("${movies.response-cache.max-entries:10000}") long maxEntries) {
+        this(objectMapper, meterRegistry, maxEntries, ForkJoinPool.commonPool());
+    }
+
+    // The executor runs Caffeine's maintenance and removal notifications, as it does by default
+    ResponseCache(ObjectMapper objectMapper, MeterRegistry meterRegistry, long maxEntries, Executor executor) {
+        this.objectMapper = objectMapper;
+        this.entries = Caffeine.newBuilder()
+                .maximumSize(maxEntries)
+                .executor(executor)
+                .recordStats()
+                .removalListener((String key, Entry entry, RemovalCause cause) -> {
+                    if (entry != null && cause.wasEvicted()) {
+                        unindex(key, entry);
+                    }
+                })
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, entries, "responses");
+        this.notModified = Counter.builder("movies.response.cache.not.modified")
+                .description("Cached GET responses answered with 304 Not Modified")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Answers a GET request from the cache, or builds, caches and returns the response on a miss.
+     *
+     * @param key     the cache key, identifying the resource and any query parameters
+     * @param request the current request, checked for If-None-Match
+     * @param loader  builds the response body and its tags on a miss
+     * @return a 304 if the client already has the current version, otherwise a 200 with the JSON body
+     */
+    public ResponseEntity<byte[]> serve(String key, WebRequest request, Supplier<Cacheable> loader) {
+        Entry entry = entries.getIfPresent(key);
+        if (entry == null) {
+            entry = load(key, loader);
+        }
+        if (request.checkNotModified(entry.etag)) {
+            notModified.increment();
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(entry.etag).build();
+        }
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .eTag(entry.etag)
+                .body(entry.body);
+    }
+
+    private Entry load(String key, Supplier<Cacheable> loader) {
+        long generationBefore;
+        synchronized (this) {
+            generationBefore = generation;
+        }
+        Cacheable cacheable = loader.get();
+        byte[] body;
+        try {
+            body = objectMapper.writeValueAsBytes(cacheable.body);
+        } catch (JsonProcessingException ex) {
+            throw new IllegalStateException("Could not serialize response for " + key, ex);
+        }
+        synchronized (this) {
+            String etag = "\"" + epoch + "-" + Integer.toHexString(key.hashCode()) + "-" + Long.toHexString(generationBefore) + "\"";
+            Entry entry = new Entry(body, etag, Set.copyOf(cacheable.tags));
+            // A row this response was built from may have changed while it was loading; serve it once, but do not keep it
+            if (generation == generationBefore) {
+                entries.put(key, entry);
+                entry.tags.forEach(tag -> keysByTag.computeIfAbsent(tag, t -> new HashSet<>()).add(key));
+            }
+            return entry;
+        }
+    }
+
+    private synchronized void unindex(String key, Entry entry) {
+        // Evictions are reported asynchronously, possibly after the key was loaded again; its new entry keeps its tags
+        Entry current = entries.asMap().get(key);
+        for (String tag : entry.tags) {
+            if (current != null && current.tags.contains(tag)) {
+                continue;
+            }
+            Set<String> keys = keysByTag.get(tag);
+            if (keys != null && keys.remove(key) && keys.isEmpty()) {
+                keysByTag.remove(tag);
+            }
+        }
+    }
+
+    /**
+     * Evicts every entry built from the changed row, once the change has committed.
+     *
+     * @param event the committed change
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCatalogChange(CatalogChangeEvent event) {
+        switch (event.getEntityType()) {
+            case MOVIE -> invalidate(movieTag(event.getId()));
+            case ACTOR -> invalidate(actorTag(event.getId()));
+            case GENRE -> {
+                invalidate(genreTag(event.getId()));
+                invalidate(GENRES_TAG);
+            }
+        }
+    }
+
+    private synchronized void invalidate(String tag) {
+        generation++;
+        Set<String> keys = keysByTag.remove(tag);
+        if (keys != null) {
+            for (String key : keys) {
+                Entry entry = entries.asMap().remove(key);
+                if (entry != null) {
+                    unindex(key, entry);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,163 @@
+package com.movies.Movies.cache;
+
+import com.movies.Movies.Entity.Actor;
+import com.movies.Movies.Entity.Genre;
+import com.movies.Movies.Entity.Movie;
+import com.movies.Movies.dto.CacheRegionStatsDTO;
+
+import jakarta.persistence.EntityManagerFactory;
+
+import org.hibernate.Cache;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Access to the Hibernate second-level cache for the catalog entities and their join table collections.
+ * Hibernate keeps the cache in step with ordinary entity writes by itself; this class covers the writes
+ * it can not see through, such as removing rows from the inverse side of a many-to-many association,
+ * and exposes the hit/miss statistics of every region.
+ */
+@Component
+public class SecondLevelCache {
+
+    // Collection regions are named after the owning entity and the collection property
+    static final String MOVIE_ACTORS = Movie.class.getName() + ".actors";
+    static final String MOVIE_GENRES = Movie.class.getName() + ".genres";
+    static final String ACTOR_MOVIES = Actor.class.getName() + ".movies";
+    static final String GENRE_MOVIES = Genre.class.getName() + ".movies";
+
+    private final Cache cache;
+
+    private final Statistics statistics;
+
+    public SecondLevelCache(EntityManagerFactory entityManagerFactory) {
+        SessionFactory sessionFactory = entityManagerFactory.unwrap(SessionFactory.class);
+        this.cache = sessionFactory.getCache();
+        this.statistics = sessionFactory.getStatistics();
+    }
+
+    /**
+     * Evicts everything cached for deleted movies: the movies themselves, their actor and genre collections,
+     * and the movie collections of the actors and genres they were linked to.
+     * The eviction runs after the surrounding transaction commits, so a concurrent reader can not put
+     * the old state back into the cache before the delete is visible.
+     *
+     * @param movieIds the ids of the deleted movies
+     * @param actorIds the ids of the actors the movies were linked to
+     * @param genreIds the ids of the genres the movies were linked to
+     */
+    public void evictDeletedMovies(Collection<Long> movieIds, Collection<Long> actorIds, Collection<Long> genreIds) {
+        List<Long> movies = List.copyOf(movieIds);
+        List<Long> actors = List.copyOf(actorIds);
+        List<Long> genres = List.copyOf(genreIds);
+        afterCommit(() -> {
+            movies.forEach(movieId -> {
+                cache.evictEntityData(Movie.class, movieId);
+                cache.evictCollectionData(MOVIE_ACTORS, movieId);
+                cache.evictCollectionData(MOVIE_GENRES, movieId);
+            });
+            actors.forEach(actorId -> cache.evictCollectionData(ACTOR_MOVIES, actorId));
+            genres.forEach(genreId -> cache.evictCollectionData(GENRE_MOVIES, genreId));
+        });
+    }
+
+    /**
+     * Evicts everything cached for deleted actors: the actors themselves, their movie collections,
+     * and the actor collections of the movies they were linked to. Runs after commit, like
+     * {@link #evictDeletedMovies(Collection, Collection, Collection)}.
+     *
+     * @param actorIds the ids of the deleted actors
+     * @param movieIds the ids of the movies the actors were linked to
+     */
+    public void evictDeletedActors(Collection<Long> actorIds, Collection<Long> movieIds) {
+        List<Long> actors = List.copyOf(actorIds);
+        List<Long> movies = List.copyOf(movieIds);
+        afterCommit(() -> {
+            actors.forEach(actorId -> {
+                cache.evictEntityData(Actor.class, actorId);
+                cache.evictCollectionData(ACTOR_MOVIES, actorId);
+            });
+            movies.forEach(movieId -> cache.evictCollectionData(MOVIE_ACTORS, movieId));
+        });
+    }
+
+    /**
+     * Evicts everything cached for deleted genres: the genres themselves, their movie collections,
+     * and the genre collections of the movies they were linked to. Runs after commit, like
+     * {@link #evictDeletedMovies(Collection, Collection, Collection)}.
+     *
+     * @param genreIds the ids of the deleted genres
+     * @param movieIds the ids of the movies the genres were linked to
+     */
+    public void evictDeletedGenres(Collection<Long> genreIds, Collection<Long> movieIds) {
+        List<Long> genres = List.copyOf(genreIds);
+        List<Long> movies = List.copyOf(movieIds);
+        afterCommit(() -> {
+            genres.forEach(genreId -> {
+                cache.evictEntityData(Genre.class, genreId);
+                cache.evictCollectionData(GENRE_MOVIES, genreId);
+            });
+            movies.forEach(movieId -> cache.evictCollectionData(MOVIE_GENRES, movieId));
+        });
+    }
+
+    /**
+     * Evicts the movie collections of the given actors, after movies were linked to them outside of Hibernate.
+     *
+     * @param actorIds the ids of the actors that gained movies
+     */
+    public void evictActorMovies(Collection<Long> actorIds) {
+        List<Long> actors = List.copyOf(actorIds);
+        afterCommit(() -> actors.forEach(actorId -> cache.evictCollectionData(ACTOR_MOVIES, actorId)));
+    }
+
+    /**
+     * Evicts the movie collections of the given genres, after movies were linked to them outside of Hibernate.
+     *
+     * @param genreIds the ids of the genres that gained movies
+     */
+    public void evictGenreMovies(Collection<Long> genreIds) {
+        List<Long> genres = List.copyOf(genreIds);
+        afterCommit(() -> genres.forEach(genreId -> cache.evictCollectionData(GENRE_MOVIES, genreId)));
+    }
+
+    /**
+     * Returns the hit, miss and put counts of every second-level cache region.
+     *
+     * @return the statistics of each region, keyed by region name
+     */
+    public Map<String, CacheRegionStatsDTO> getRegionStatistics() {
+        return Arrays.stream(statistics.getSecondLevelCacheRegionNames())
+                .sorted()
+                .collect(Collectors.toMap(name -> name, this::regionStatistics, (a, b) -> a, LinkedHashMap::new));
+    }
+
+    private CacheRegionStatsDTO regionStatistics(String regionName) {
+        CacheRegionStatistics region = statistics.getDomainDataRegionStatistics(regionName);
+        return new CacheRegionStatsDTO(region.getHitCount(), region.getMissCount(), region.getPutCount());
+    }
+
+    private void afterCommit(Runnable eviction) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            eviction.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                eviction.run();
+            }
+        });
+    }
+}
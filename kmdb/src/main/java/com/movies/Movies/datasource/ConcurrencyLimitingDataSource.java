@@ -0,0 +1,131 @@
+package com.movies.Movies.datasource;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Bounds the number of connections in use at once with a fair semaphore; a permit is taken when a connection
+ * is fetched and given back when it is closed.
+ * Used when requests run on virtual threads: the SQLite driver executes every statement in a synchronized
+ * native method, which pins the virtual thread to its carrier for the duration of the call. With thousands of
+ * virtual threads the pools would otherwise see thousands of concurrent waiters; with the semaphore in front
+ * they park, without pinning, in arrival order, and only as many threads as there are permits are ever inside
+ * the driver.
+ * The time spent waiting for a permit is published as movies.datasource.permit.wait, and the number of threads
+ * waiting as movies.datasource.permit.queue, both tagged with the pool name.
+ */
+public class ConcurrencyLimitingDataSource extends DelegatingDataSource {
+
+    private final Semaphore permits;
+    private final long timeoutMillis;
+    private final Timer permitWait;
+
+    /**
+     * @param target        the data source to limit
+     * @param permits       the number of connections that may be in use at once
+     * @param timeoutMillis how long to wait for a permit before failing
+     * @param poolName      the name the metrics are tagged with
+     * @param meterRegistry the registry the metrics are published in
+     */
+    public ConcurrencyLimitingDataSource(DataSource target, int permits, long timeoutMillis,
+                                         String poolName, MeterRegistry meterRegistry) {
+        super(target);
+        this.permits = new Semaphore(permits, true);
+        this.timeoutMillis = timeoutMillis;
+        this.permitWait = Timer.builder("movies.datasource.permit.wait")
+                .description("Time spent waiting for a database permit, timed-out waits included")
+                .tag("pool", poolName)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        Gauge.builder("movies.datasource.permit.queue", this.permits, Semaphore::getQueueLength)
+                .description("Threads waiting for a database permit")
+                .tag("pool", poolName)
+                .register(meterRegistry);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        acquire();
+        try {
+            return releasingOnClose(getTargetDataSourceOrFail().getConnection());
+        } catch (SQLException | RuntimeException ex) {
+            permits.release();
+            throw ex;
+        }
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        acquire();
+        try {
+            return releasingOnClose(getTargetDataSourceOrFail().getConnection(username, password));
+        } catch (SQLException | RuntimeException ex) {
+            permits.release();
+            throw ex;
+        }
+    }
+
+    private DataSource getTargetDataSourceOrFail() {
+        DataSource target = getTargetDataSource();
+        if (target == null) {
+            throw new IllegalStateException("No target DataSource set");
+        }
+        return target;
+    }
+
+    private void acquire() throws SQLException {
+        long start = System.nanoTime();
+        try {
+            if (!permits.tryAcquire(timeoutMillis, TimeUnit.MILLISECONDS)) {
+                throw new SQLTransientConnectionException("Timed out after " + timeoutMillis + "ms waiting for database access");
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new SQLTransientConnectionException("Interrupted while waiting for database access", ex);
+        } finally {
+            permitWait.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    // Wraps the connection so that closing it, however often, gives the permit back exactly once
+    private Connection releasingOnClose(Connection connection) {
+        AtomicBoolean released = new AtomicBoolean();
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[]{Connection.class},
+                (proxy, method, args) -> {
+                    if (method.getName().equals("equals") && method.getParameterCount() == 1) {
+                        return proxy == args[0];
+                    }
+                    if (method.getName().equals("hashCode") && method.getParameterCount() == 0) {
+                        return System.identityHashCode(proxy);
+                    }
+                    if (method.getName().equals("close") && method.getParameterCount() == 0) {
+                        try {
+                            connection.close();
+                        } finally {
+                            if (released.compareAndSet(false, true)) {
+                                permits.release();
+                            }
+                        }
+                        return null;
+                    }
+                    try {
+                        return method.invoke(connection, args);
+                    } catch (InvocationTargetException ex) {
+                        throw ex.getTargetException();
+                    }
+                });
+    }
+}
@@ -0,0 +1,101 @@
+package com.movies.Movies.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.util.Map;
+
+/**
+ * Splits the SQLite connections into a writer pool and a reader pool.
+ * SQLite allows a single writer at a time: with several write connections, concurrent POSTs and PATCHes
+ * race for the database lock and fail with SQLITE_BUSY. The writer pool therefore holds exactly one connection,
+ * so writers queue in the pool instead, while read-only transactions run in parallel on the reader pool,
+ * which WAL mode keeps from blocking on the writer.
+ * Both pools take the spring.datasource.hikari settings, such as the SQLite pragmas, before their own sizes are applied.
+ * When requests run on virtual threads, access to both pools is additionally bounded by a
+ * {@link ConcurrencyLimitingDataSource}.
+ */
+@Configuration
+public class DataSourceConfig {
+
+    // Both also publish the hikaricp.connections.* metrics, tagged with the pool name
+    @Bean
+    public PoolMetrics writerPoolMetrics(MeterRegistry meterRegistry) {
+        return new PoolMetrics(new MicrometerMetricsTrackerFactory(meterRegistry));
+    }
+
+    @Bean
+    public PoolMetrics readerPoolMetrics(MeterRegistry meterRegistry) {
+        return new PoolMetrics(new MicrometerMetricsTrackerFactory(meterRegistry));
+    }
+
+    @Bean(destroyMethod = "close")
+    public HikariDataSource writerDataSource(DataSourceProperties properties, Environment environment,
+                                             @Qualifier("writerPoolMetrics") PoolMetrics metrics) {
+        HikariDataSource dataSource = createPool(properties, environment, metrics);
+        dataSource.setPoolName("writer");
+        dataSource.setMaximumPoolSize(1);
+        dataSource.setMinimumIdle(1);
+        return dataSource;
+    }
+
+    @Bean(destroyMethod = "close")
+    public HikariDataSource readerDataSource(DataSourceProperties properties, Environment environment,
+                                             @Qualifier("readerPoolMetrics") PoolMetrics metrics,
+                                             @Value("${movies.datasource.reader-pool-size:4}") int readerPoolSize) {
+        HikariDataSource dataSource = createPool(properties, environment, metrics);
+        dataSource.setPoolName("reader");
+        dataSource.setMaximumPoolSize(readerPoolSize);
+        // Lets the driver make opened connections read-only, which it does with PRAGMA query_only
+        dataSource.addDataSourceProperty("jdbc.explicit_readonly", "true");
+        dataSource.setReadOnly(true);
+        return dataSource;
+    }
+
+    /**
+     * The data source used by JPA, JdbcTemplate and Flyway.
+     */
+    @Bean
+    @Primary
+    public DataSource dataSource(@Qualifier("writerDataSource") HikariDataSource writer,
+                                 @Qualifier("readerDataSource") HikariDataSource reader,
+                                 @Value("${movies.virtual-threads.enabled:false}") boolean virtualThreads,
+                                 MeterRegistry meterRegistry) {
+        DataSource writeTarget = virtualThreads ? limited(writer, meterRegistry) : writer;
+        DataSource readTarget = virtualThreads ? limited(reader, meterRegistry) : reader;
+        ReadWriteRoutingDataSource routing = new ReadWriteRoutingDataSource();
+        routing.setTargetDataSources(Map.of(
+                ReadWriteRoutingDataSource.Route.WRITER, writeTarget,
+                ReadWriteRoutingDataSource.Route.READER, readTarget));
+        routing.setDefaultTargetDataSource(writeTarget);
+        routing.afterPropertiesSet();
+        return new LazyConnectionDataSourceProxy(routing);
+    }
+
+    // One permit per pooled connection: virtual threads queue on the semaphore instead of inside the pool
+    private DataSource limited(HikariDataSource pool, MeterRegistry meterRegistry) {
+        return new ConcurrencyLimitingDataSource(pool, pool.getMaximumPoolSize(), pool.getConnectionTimeout(),
+                pool.getPoolName(), meterRegistry);
+    }
+
+    private HikariDataSource createPool(DataSourceProperties properties, Environment environment, PoolMetrics metrics) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        Binder.get(environment).bind("spring.datasource.hikari", Bindable.ofInstance(dataSource));
+        dataSource.setMetricsTrackerFactory(metrics);
+        return dataSource;
+    }
+}
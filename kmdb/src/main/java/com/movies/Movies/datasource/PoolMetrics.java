@@ -0,0 +1,94 @@
+package com.movies.Movies.datasource;
+
+import com.movies.Movies.dto.PoolStatsDTO;
+import com.zaxxer.hikari.metrics.IMetricsTracker;
+import com.zaxxer.hikari.metrics.MetricsTrackerFactory;
+import com.zaxxer.hikari.metrics.PoolStats;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Connection acquisition statistics of one Hikari pool: how long callers waited for a connection,
+ * how long they held it, and how often they gave up waiting.
+ * Installed as the pool's {@link MetricsTrackerFactory}; Hikari reports every checkout to the tracker,
+ * which also forwards it to a delegate factory, such as Hikari's Micrometer tracker.
+ */
+public class PoolMetrics implements MetricsTrackerFactory {
+
+    private final MetricsTrackerFactory delegate;
+
+    private final LongAdder acquireCount = new LongAdder();
+    private final LongAdder acquireNanos = new LongAdder();
+    private final AtomicLong maxAcquireNanos = new AtomicLong();
+    private final LongAdder usageCount = new LongAdder();
+    private final LongAdder usageMillis = new LongAdder();
+    private final LongAdder timeoutCount = new LongAdder();
+
+    private volatile PoolStats poolStats;
+
+    /**
+     * @param delegate the factory of the tracker that every event is also forwarded to
+     */
+    public PoolMetrics(MetricsTrackerFactory delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public IMetricsTracker create(String poolName, PoolStats poolStats) {
+        this.poolStats = poolStats;
+        IMetricsTracker tracker = delegate.create(poolName, poolStats);
+        return new IMetricsTracker() {
+            @Override
+            public void recordConnectionCreatedMillis(long connectionCreatedMillis) {
+                tracker.recordConnectionCreatedMillis(connectionCreatedMillis);
+            }
+
+            @Override
+            public void recordConnectionAcquiredNanos(long elapsedAcquiredNanos) {
+                acquireCount.increment();
+                acquireNanos.add(elapsedAcquiredNanos);
+                maxAcquireNanos.accumulateAndGet(elapsedAcquiredNanos, Math::max);
+                tracker.recordConnectionAcquiredNanos(elapsedAcquiredNanos);
+            }
+
+            @Override
+            public void recordConnectionUsageMillis(long elapsedBorrowedMillis) {
+                usageCount.increment();
+                usageMillis.add(elapsedBorrowedMillis);
+                tracker.recordConnectionUsageMillis(elapsedBorrowedMillis);
+            }
+
+            @Override
+            public void recordConnectionTimeout() {
+                timeoutCount.increment();
+                tracker.recordConnectionTimeout();
+            }
+
+            @Override
+            public void close() {
+                tracker.close();
+            }
+        };
+    }
+
+    /**
+     * @return the current connection counts of the pool together with the acquisition statistics so far
+     */
+    public PoolStatsDTO snapshot() {
+        PoolStats stats = poolStats;
+        long count = acquireCount.sum();
+        long used = usageCount.sum();
+        double nanosPerMilli = TimeUnit.MILLISECONDS.toNanos(1);
+        return new PoolStatsDTO(
+                stats == null ? 0 : stats.getActiveConnections(),
+                stats == null ? 0 : stats.getIdleConnections(),
+                stats == null ? 0 : stats.getPendingThreads(),
+                count,
+                count == 0 ? 0.0 : acquireNanos.sum() / nanosPerMilli / count,
+                maxAcquireNanos.get() / nanosPerMilli,
+                used == 0 ? 0.0 : (double) usageMillis.sum() / used,
+                timeoutCount.sum());
+    }
+}
@@ -0,0 +1,24 @@
+package com.movies.Movies.datasource;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Routes connections to the writer pool or the reader pool by the read-only flag of the current transaction:
+ * {@code @Transactional(readOnly = true)} methods read from the reader pool, everything else, including work
+ * outside any transaction, goes to the single writer connection.
+ * The flag is only known once the transaction has started, so this data source must sit behind a
+ * {@link org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy}, which defers fetching the
+ * connection until the first statement.
+ */
+public class ReadWriteRoutingDataSource extends AbstractRoutingDataSource {
+
+    public enum Route {
+        WRITER, READER
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        return TransactionSynchronizationManager.isCurrentTransactionReadOnly() ? Route.READER : Route.WRITER;
+    }
+}
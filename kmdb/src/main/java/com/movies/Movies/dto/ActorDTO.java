@@ -24,6 +24,16 @@ public class ActorDTO {
     @JsonDeserialize(using = CustomLocalDateDeserializer.class)
     private LocalDate birthDate;
 
+    public ActorDTO() {
+    }
+
+    // Used by JPQL constructor expressions in ActorRepository
+    public ActorDTO(Long id, String name, LocalDate birthDate) {
+        this.id = id;
+        this.name = name;
+        this.birthDate = birthDate;
+    }
+
     // Getters and Setters
     public Long getId() {
         return id;
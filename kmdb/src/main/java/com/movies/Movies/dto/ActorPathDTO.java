@@ -0,0 +1,34 @@
+package com.movies.Movies.dto;
+
+import java.util.List;
+
+/**
+ * A shortest chain of actors linking two actors through movies they share, Kevin Bacon number style.
+ * The movie at index i was made by the actors at index i and i + 1.
+ */
+public class ActorPathDTO {
+
+    // The number of movies in the chain, 0 when both ends are the same actor
+    private final int degrees;
+    private final List<ActorDTO> actors;
+    private final List<MovieDTO> movies;
+
+    public ActorPathDTO(List<ActorDTO> actors, List<MovieDTO> movies) {
+        this.degrees = movies.size();
+        this.actors = actors;
+        this.movies = movies;
+    }
+
+    // Getters
+    public int getDegrees() {
+        return degrees;
+    }
+
+    public List<ActorDTO> getActors() {
+        return actors;
+    }
+
+    public List<MovieDTO> getMovies() {
+        return movies;
+    }
+}
@@ -0,0 +1,45 @@
+package com.movies.Movies.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Summary of a bulk import, with the outcome of every row in input order.
+ */
+public class BulkImportResultDTO {
+
+    private int created;
+    private int duplicates;
+    private int failed;
+    private final List<BulkRowResultDTO> rows = new ArrayList<>();
+
+    public void add(BulkRowResultDTO row) {
+        switch (row.getStatus()) {
+            case CREATED -> created++;
+            case DUPLICATE -> duplicates++;
+            case FAILED -> failed++;
+        }
+        rows.add(row);
+    }
+
+    // Getters
+    public int getReceived() {
+        return rows.size();
+    }
+
+    public int getCreated() {
+        return created;
+    }
+
+    public int getDuplicates() {
+        return duplicates;
+    }
+
+    public int getFailed() {
+        return failed;
+    }
+
+    public List<BulkRowResultDTO> getRows() {
+        return rows;
+    }
+}
@@ -0,0 +1,55 @@
+package com.movies.Movies.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/**
+ * Outcome of one row of a bulk import.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class BulkRowResultDTO {
+
+    public enum Status {
+        CREATED, DUPLICATE, FAILED
+    }
+
+    private final int index;
+    private final Status status;
+    private final Long id;
+    private final String message;
+
+    public BulkRowResultDTO(int index, Status status, Long id, String message) {
+        this.index = index;
+        this.status = status;
+        this.id = id;
+        this.message = message;
+    }
+
+    public static BulkRowResultDTO created(int index, Long id) {
+        return new BulkRowResultDTO(index, Status.CREATED, id, null);
+    }
+
+    public static BulkRowResultDTO duplicate(int index, String message) {
+        return new BulkRowResultDTO(index, Status.DUPLICATE, null, message);
+    }
+
+    public static BulkRowResultDTO failed(int index, String message) {
+        return new BulkRowResultDTO(index, Status.FAILED, null, message);
+    }
+
+    // Getters
+    public int getIndex() {
+        return index;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+}
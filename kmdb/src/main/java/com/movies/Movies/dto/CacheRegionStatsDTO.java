@@ -0,0 +1,32 @@
+package com.movies.Movies.dto;
+
+public class CacheRegionStatsDTO {
+
+    private final long hitCount;
+    private final long missCount;
+    private final long putCount;
+
+    public CacheRegionStatsDTO(long hitCount, long missCount, long putCount) {
+        this.hitCount = hitCount;
+        this.missCount = missCount;
+        this.putCount = putCount;
+    }
+
+    // Getters
+    public long getHitCount() {
+        return hitCount;
+    }
+
+    public long getMissCount() {
+        return missCount;
+    }
+
+    public long getPutCount() {
+        return putCount;
+    }
+
+    public double getHitRatio() {
+        long requests = hitCount + missCount;
+        return requests == 0 ? 0.0 : (double) hitCount / requests;
+    }
+}
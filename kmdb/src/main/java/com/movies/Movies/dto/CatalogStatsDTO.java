@@ -0,0 +1,39 @@
+package com.movies.Movies.dto;
+
+import java.util.List;
+
+/**
+ * Aggregate statistics of the whole catalog: its movie count and average duration, and the same per genre,
+ * most movies first, and per release year, in year order.
+ */
+public class CatalogStatsDTO {
+
+    private final long movieCount;
+    private final Double averageDuration;
+    private final List<StatsBucketDTO> genres;
+    private final List<StatsBucketDTO> years;
+
+    public CatalogStatsDTO(long movieCount, Double averageDuration, List<StatsBucketDTO> genres, List<StatsBucketDTO> years) {
+        this.movieCount = movieCount;
+        this.averageDuration = averageDuration;
+        this.genres = genres;
+        this.years = years;
+    }
+
+    // Getters
+    public long getMovieCount() {
+        return movieCount;
+    }
+
+    public Double getAverageDuration() {
+        return averageDuration;
+    }
+
+    public List<StatsBucketDTO> getGenres() {
+        return genres;
+    }
+
+    public List<StatsBucketDTO> getYears() {
+        return years;
+    }
+}
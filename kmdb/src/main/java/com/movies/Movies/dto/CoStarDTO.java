@@ -0,0 +1,30 @@
+package com.movies.Movies.dto;
+
+/**
+ * An actor who has appeared alongside another, with the number of movies they share.
+ */
+public class CoStarDTO {
+
+    private final Long id;
+    private final String name;
+    private final long sharedMovies;
+
+    public CoStarDTO(Long id, String name, long sharedMovies) {
+        this.id = id;
+        this.name = name;
+        this.sharedMovies = sharedMovies;
+    }
+
+    // Getters
+    public Long getId() {
+        return id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public long getSharedMovies() {
+        return sharedMovies;
+    }
+}
@@ -0,0 +1,46 @@
+package com.movies.Movies.dto;
+
+import java.util.List;
+
+/**
+ * One page of a keyset-paginated listing.
+ * Unlike {@link org.springframework.data.domain.Page} it carries no total count, only the token of the next page.
+ *
+ * @param <T> the type of the rows
+ */
+public class CursorPage<T> {
+
+    private final List<T> content;
+    private final int size;
+    private final String nextCursor;
+
+    public CursorPage(List<T> content, int size, String nextCursor) {
+        this.content = content;
+        this.size = size;
+        this.nextCursor = nextCursor;
+    }
+
+    // Getters
+    public List<T> getContent() {
+        return content;
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    public int getNumberOfElements() {
+        return content.size();
+    }
+
+    /**
+     * @return the token to pass as {@code after} for the next page, or null on the last page
+     */
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public boolean isHasNext() {
+        return nextCursor != null;
+    }
+}
@@ -0,0 +1,31 @@
+package com.movies.Movies.dto;
+
+/**
+ * The number of movies matching a query that have one value of a facet, such as one genre or one decade.
+ */
+public class FacetCountDTO {
+
+    // The genre id, or the first year of the decade
+    private final Long value;
+    private final String label;
+    private final long count;
+
+    public FacetCountDTO(Long value, String label, long count) {
+        this.value = value;
+        this.label = label;
+        this.count = count;
+    }
+
+    // Getters
+    public Long getValue() {
+        return value;
+    }
+
+    public String getLabel() {
+        return label;
+    }
+
+    public long getCount() {
+        return count;
+    }
+}
@@ -11,6 +11,15 @@ public class GenreDTO {
     @NotBlank(message = "Name can not be blank")
     private String name;
 
+    public GenreDTO() {
+    }
+
+    // Used by JPQL constructor expressions in GenreRepository
+    public GenreDTO(Long id, String name) {
+        this.id = id;
+        this.name = name;
+    }
+
     // Getters and Setters
     public Long getId() {
         return id;
@@ -8,7 +8,6 @@ import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 
-import java.util.ArrayList;
     @JsonInclude(JsonInclude.Include.NON_ABSENT)
     public class MovieDTO {
     private Long id;
@@ -22,11 +21,30 @@ import java.util.ArrayList;
     @Min(60)
     @NotNull(message = "Duration can not be null")
     private Integer duration;
-    private List<Long> actorIds = new ArrayList<>();
-    private List<Long> genreIds = new ArrayList<>();
+    // Null when left out of a request body, so a PATCH without them keeps the movie's actors and genres;
+    // an empty list clears them
+    private List<Long> actorIds;
+    private List<Long> genreIds;
+    // PATCH only: links to add to and remove from the movie's current ones, instead of replacing them with actorIds
+    // or genreIds
+    private List<Long> addActorIds;
+    private List<Long> removeActorIds;
+    private List<Long> addGenreIds;
+    private List<Long> removeGenreIds;
     private Optional<List<String>> actors = Optional.empty();
     private Optional<List<String>> genres = Optional.empty();
 
+    public MovieDTO() {
+    }
+
+    // Used by JPQL constructor expressions in MovieRepository; actors and genres are filled in afterwards
+    public MovieDTO(Long id, String title, Integer releaseYear, Integer duration) {
+        this.id = id;
+        this.title = title;
+        this.releaseYear = releaseYear;
+        this.duration = duration;
+    }
+
     // Getters and Setters
     public Long getId() {
         return id;
@@ -76,6 +94,38 @@ import java.util.ArrayList;
         this.genreIds = genreIds;
     }
 
+    public List<Long> getAddActorIds() {
+        return addActorIds;
+    }
+
+    public void setAddActorIds(List<Long> addActorIds) {
+        this.addActorIds = addActorIds;
+    }
+
+    public List<Long> getRemoveActorIds() {
+        return removeActorIds;
+    }
+
+    public void setRemoveActorIds(List<Long> removeActorIds) {
+        this.removeActorIds = removeActorIds;
+    }
+
+    public List<Long> getAddGenreIds() {
+        return addGenreIds;
+    }
+
+    public void setAddGenreIds(List<Long> addGenreIds) {
+        this.addGenreIds = addGenreIds;
+    }
+
+    public List<Long> getRemoveGenreIds() {
+        return removeGenreIds;
+    }
+
+    public void setRemoveGenreIds(List<Long> removeGenreIds) {
+        this.removeGenreIds = removeGenreIds;
+    }
+
     public Optional<List<String>> getActors() {
         return actors;
     }
@@ -0,0 +1,32 @@
+package com.movies.Movies.dto;
+
+import java.util.List;
+
+/**
+ * The number of movies matching a query per genre and per decade. The counts cover every movie matching
+ * the query, not only those on the page.
+ */
+public class MovieFacetsDTO {
+
+    private final List<FacetCountDTO> genres;
+    private final List<FacetCountDTO> decades;
+
+    public MovieFacetsDTO(List<FacetCountDTO> genres, List<FacetCountDTO> decades) {
+        this.genres = genres;
+        this.decades = decades;
+    }
+
+    /**
+     * @return the matching movies per genre, most movies first; a movie with several genres counts towards each
+     */
+    public List<FacetCountDTO> getGenres() {
+        return genres;
+    }
+
+    /**
+     * @return the matching movies per decade, oldest first
+     */
+    public List<FacetCountDTO> getDecades() {
+        return decades;
+    }
+}
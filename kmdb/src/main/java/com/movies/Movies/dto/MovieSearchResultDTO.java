@@ -0,0 +1,24 @@
+package com.movies.Movies.dto;
+
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+
+import java.util.List;
+
+/**
+ * One page of a faceted movie query: a regular {@link org.springframework.data.domain.Page} of movies,
+ * plus the number of matching movies per genre and per decade.
+ */
+public class MovieSearchResultDTO extends PageImpl<MovieDTO> {
+
+    private final MovieFacetsDTO facets;
+
+    public MovieSearchResultDTO(List<MovieDTO> content, Pageable pageable, long total, MovieFacetsDTO facets) {
+        super(content, pageable, total);
+        this.facets = facets;
+    }
+
+    public MovieFacetsDTO getFacets() {
+        return facets;
+    }
+}
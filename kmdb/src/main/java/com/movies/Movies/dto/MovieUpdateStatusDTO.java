@@ -0,0 +1,62 @@
+package com.movies.Movies.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/**
+ * Progress of one PATCH accepted by the write-behind movie update queue.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class MovieUpdateStatusDTO {
+
+    public enum Status {
+        PENDING, APPLIED, FAILED
+    }
+
+    private final long ticket;
+    private final Long movieId;
+    private final Status status;
+    // The number of patches applied together with this one, counting itself; null while pending
+    private final Integer mergedPatches;
+    private final String message;
+
+    public MovieUpdateStatusDTO(long ticket, Long movieId, Status status, Integer mergedPatches, String message) {
+        this.ticket = ticket;
+        this.movieId = movieId;
+        this.status = status;
+        this.mergedPatches = mergedPatches;
+        this.message = message;
+    }
+
+    public static MovieUpdateStatusDTO pending(long ticket, Long movieId) {
+        return new MovieUpdateStatusDTO(ticket, movieId, Status.PENDING, null, null);
+    }
+
+    public static MovieUpdateStatusDTO applied(long ticket, Long movieId, int mergedPatches) {
+        return new MovieUpdateStatusDTO(ticket, movieId, Status.APPLIED, mergedPatches, null);
+    }
+
+    public static MovieUpdateStatusDTO failed(long ticket, Long movieId, int mergedPatches, String message) {
+        return new MovieUpdateStatusDTO(ticket, movieId, Status.FAILED, mergedPatches, message);
+    }
+
+    // Getters
+    public long getTicket() {
+        return ticket;
+    }
+
+    public Long getMovieId() {
+        return movieId;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public Integer getMergedPatches() {
+        return mergedPatches;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+}
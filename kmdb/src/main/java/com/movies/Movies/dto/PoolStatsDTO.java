@@ -0,0 +1,58 @@
+package com.movies.Movies.dto;
+
+public class PoolStatsDTO {
+
+    private final int activeConnections;
+    private final int idleConnections;
+    private final int pendingThreads;
+    private final long acquireCount;
+    private final double meanAcquireMillis;
+    private final double maxAcquireMillis;
+    private final double meanUsageMillis;
+    private final long timeoutCount;
+
+    public PoolStatsDTO(int activeConnections, int idleConnections, int pendingThreads, long acquireCount,
+                        double meanAcquireMillis, double maxAcquireMillis, double meanUsageMillis, long timeoutCount) {
+        this.activeConnections = activeConnections;
+        this.idleConnections = idleConnections;
+        this.pendingThreads = pendingThreads;
+        this.acquireCount = acquireCount;
+        this.meanAcquireMillis = meanAcquireMillis;
+        this.maxAcquireMillis = maxAcquireMillis;
+        this.meanUsageMillis = meanUsageMillis;
+        this.timeoutCount = timeoutCount;
+    }
+
+    // Getters
+    public int getActiveConnections() {
+        return activeConnections;
+    }
+
+    public int getIdleConnections() {
+        return idleConnections;
+    }
+
+    public int getPendingThreads() {
+        return pendingThreads;
+    }
+
+    public long getAcquireCount() {
+        return acquireCount;
+    }
+
+    public double getMeanAcquireMillis() {
+        return meanAcquireMillis;
+    }
+
+    public double getMaxAcquireMillis() {
+        return maxAcquireMillis;
+    }
+
+    public double getMeanUsageMillis() {
+        return meanUsageMillis;
+    }
+
+    public long getTimeoutCount() {
+        return timeoutCount;
+    }
+}
@@ -0,0 +1,39 @@
+package com.movies.Movies.dto;
+
+/**
+ * The number of movies in one bucket of the catalog statistics, such as one release year, genre or actor,
+ * and their average duration.
+ */
+public class StatsBucketDTO {
+
+    // The release year, genre id or actor id
+    private final Long value;
+    private final String label;
+    private final long movieCount;
+    // Null when none of the movies has a duration
+    private final Double averageDuration;
+
+    public StatsBucketDTO(Long value, String label, long movieCount, Double averageDuration) {
+        this.value = value;
+        this.label = label;
+        this.movieCount = movieCount;
+        this.averageDuration = averageDuration;
+    }
+
+    // Getters
+    public Long getValue() {
+        return value;
+    }
+
+    public String getLabel() {
+        return label;
+    }
+
+    public long getMovieCount() {
+        return movieCount;
+    }
+
+    public Double getAverageDuration() {
+        return averageDuration;
+    }
+}
@@ -0,0 +1,57 @@
+package com.movies.Movies.event;
+
+/**
+ * Published by the services whenever a movie, actor or genre row is created, updated or deleted,
+ * including changes to the movie_actor and movie_genre links of a movie.
+ * Listeners that keep derived state, such as caches, react to it once the write has committed.
+ */
+public class CatalogChangeEvent {
+
+    public enum EntityType {
+        MOVIE, ACTOR, GENRE
+    }
+
+    public enum ChangeType {
+        CREATED, UPDATED, DELETED
+    }
+
+    private final EntityType entityType;
+    private final Long id;
+    private final ChangeType changeType;
+
+    public CatalogChangeEvent(EntityType entityType, Long id, ChangeType changeType) {
+        this.entityType = entityType;
+        this.id = id;
+        this.changeType = changeType;
+    }
+
+    public static CatalogChangeEvent movie(Long id, ChangeType changeType) {
+        return new CatalogChangeEvent(EntityType.MOVIE, id, changeType);
+    }
+
+    public static CatalogChangeEvent actor(Long id, ChangeType changeType) {
+        return new CatalogChangeEvent(EntityType.ACTOR, id, changeType);
+    }
+
+    public static CatalogChangeEvent genre(Long id, ChangeType changeType) {
+        return new CatalogChangeEvent(EntityType.GENRE, id, changeType);
+    }
+
+    // Getters
+    public EntityType getEntityType() {
+        return entityType;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public ChangeType getChangeType() {
+        return changeType;
+    }
+
+    @Override
+    public String toString() {
+        return entityType + " " + id + " " + changeType;
+    }
+}
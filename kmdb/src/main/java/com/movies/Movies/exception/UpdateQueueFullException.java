@@ -0,0 +1,12 @@
+package com.movies.Movies.exception;
+
+/**
+ * Thrown when the write-behind movie update queue can take no more movies, is shutting down, or does not apply
+ * a synchronous update in time.
+ */
+public class UpdateQueueFullException extends RuntimeException {
+
+    public UpdateQueueFullException(String message) {
+        super(message);
+    }
+}
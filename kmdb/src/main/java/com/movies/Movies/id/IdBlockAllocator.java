@@ -0,0 +1,128 @@
+package com.movies.Movies.id;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Hands out the ids of one table from blocks reserved in the id_sequence table, which holds, per sequence,
+ * the first id not yet reserved. A block of {@link #BLOCK_SIZE} ids costs one UPDATE and one SELECT;
+ * the ids within it are handed out from memory.
+ *
+ * <p>Blocks are reserved on the connection of the transaction that needs the id rather than in a separate
+ * transaction: SQLite allows a single writer, so a second connection updating id_sequence would wait for the
+ * very transaction that is waiting for it. If that transaction rolls back, the stored value goes back too,
+ * but this allocator remembers the highest id it ever reserved and never reserves below it again.
+ * That is enough because one process owns the SQLite file.
+ *
+ * <p>Reserving a block runs SQL while holding the lock, so this is a {@link ReentrantLock} rather than a monitor:
+ * a virtual thread waiting on a monitor pins its carrier thread, one parked on a ReentrantLock does not.
+ */
+public final class IdBlockAllocator {
+
+    // Ids reserved per round trip to id_sequence
+    public static final int BLOCK_SIZE = 50;
+
+    public static final String TABLE = "id_sequence";
+
+    private static final Map<String, IdBlockAllocator> ALLOCATORS = new ConcurrentHashMap<>();
+
+    private final String sequence;
+
+    private final ReentrantLock lock = new ReentrantLock();
+
+    // Guarded by lock: the next id of the current block, the end of the block (exclusive),
+    // and the end of the highest block reserved so far, including blocks reserved in bulk
+    private long next;
+    private long limit;
+    private long highWater;
+
+    private IdBlockAllocator(String sequence) {
+        this.sequence = sequence;
+    }
+
+    /**
+     * Returns the allocator of a sequence, shared by everything in the process that inserts into its table.
+     *
+     * @param sequence the name of the sequence, which is also the name of the table whose ids it generates
+     * @return the allocator
+     */
+    public static IdBlockAllocator forSequence(String sequence) {
+        return ALLOCATORS.computeIfAbsent(sequence, IdBlockAllocator::new);
+    }
+
+    /**
+     * Returns the next id, reserving a new block first if the current one is used up.
+     *
+     * @param connection the connection of the current transaction
+     * @return an id no other caller will get
+     * @throws SQLException if the block can not be reserved
+     */
+    public long next(Connection connection) throws SQLException {
+        lock.lock();
+        try {
+            if (next >= limit) {
+                limit = reserveBlock(connection, BLOCK_SIZE);
+                next = limit - BLOCK_SIZE;
+            }
+            return next++;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Reserves a block of consecutive ids for rows inserted without Hibernate, such as by the bulk import.
+     *
+     * @param connection the connection of the transaction that inserts the rows
+     * @param count      the number of ids to reserve
+     * @return the first id of the block
+     * @throws SQLException if the block can not be reserved
+     */
+    public long reserve(Connection connection, int count) throws SQLException {
+        lock.lock();
+        try {
+            return reserveBlock(connection, count) - count;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Returns the end (exclusive) of the reserved block
+    private long reserveBlock(Connection connection, int count) throws SQLException {
+        int updated;
+        try (PreparedStatement update = connection.prepareStatement(
+                "UPDATE " + TABLE + " SET next_val = MAX(next_val, ?) + ? WHERE sequence_name = ?")) {
+            update.setLong(1, highWater);
+            update.setLong(2, count);
+            update.setString(3, sequence);
+            updated = update.executeUpdate();
+        }
+        if (updated == 0) {
+            // First use of the sequence: start after the ids already in the table
+            try (PreparedStatement insert = connection.prepareStatement(
+                    "INSERT INTO " + TABLE + " (sequence_name, next_val) "
+                            + "SELECT ?, MAX(COALESCE(MAX(id), 0) + 1, ?) + ? FROM " + sequence)) {
+                insert.setString(1, sequence);
+                insert.setLong(2, highWater);
+                insert.setLong(3, count);
+                insert.executeUpdate();
+            }
+        }
+        long end;
+        try (PreparedStatement select = connection.prepareStatement(
+                "SELECT next_val FROM " + TABLE + " WHERE sequence_name = ?")) {
+            select.setString(1, sequence);
+            try (ResultSet rs = select.executeQuery()) {
+                rs.next();
+                end = rs.getLong(1);
+            }
+        }
+        highWater = Math.max(highWater, end);
+        return end;
+    }
+}
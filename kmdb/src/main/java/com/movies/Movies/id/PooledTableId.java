@@ -0,0 +1,23 @@
+package com.movies.Movies.id;
+
+import org.hibernate.annotations.IdGeneratorType;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks an id attribute whose values are drawn in blocks from the id_sequence table,
+ * by {@link PooledTableIdGenerator}.
+ */
+@IdGeneratorType(PooledTableIdGenerator.class)
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.FIELD, ElementType.METHOD})
+public @interface PooledTableId {
+
+    /**
+     * @return the name of the sequence, which is also the name of the table whose ids it generates
+     */
+    String value();
+}
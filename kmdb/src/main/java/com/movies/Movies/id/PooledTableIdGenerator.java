@@ -0,0 +1,31 @@
+package com.movies.Movies.id;
+
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.id.IdentifierGenerator;
+import org.hibernate.id.factory.spi.CustomIdGeneratorCreationContext;
+
+import java.lang.reflect.Member;
+import java.sql.SQLException;
+
+/**
+ * Hibernate id generator for {@link PooledTableId} attributes.
+ * Ids are known before the insert, unlike IDENTITY ids, so Hibernate can send inserts as JDBC batches.
+ */
+public class PooledTableIdGenerator implements IdentifierGenerator {
+
+    private final IdBlockAllocator allocator;
+
+    public PooledTableIdGenerator(PooledTableId config, Member member, CustomIdGeneratorCreationContext context) {
+        this.allocator = IdBlockAllocator.forSequence(config.value());
+    }
+
+    @Override
+    public Object generate(SharedSessionContractImplementor session, Object object) {
+        // New blocks are reserved on the connection of the current transaction, see IdBlockAllocator
+        try {
+            return allocator.next(session.getJdbcCoordinator().getLogicalConnection().getPhysicalConnection());
+        } catch (SQLException ex) {
+            throw session.getJdbcServices().getSqlExceptionHelper().convert(ex, "Could not reserve ids");
+        }
+    }
+}
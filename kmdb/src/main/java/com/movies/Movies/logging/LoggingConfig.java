@@ -0,0 +1,41 @@
+package com.movies.Movies.logging;
+
+import org.slf4j.MDC;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.TaskDecorator;
+
+import java.util.Map;
+
+/**
+ * Carries the logging context of the submitting thread, including the request's correlation id,
+ * over to asynchronous tasks such as the streamed export, so their log lines can be traced back to the request.
+ */
+@Configuration
+public class LoggingConfig {
+
+    // Spring Boot applies this to applicationTaskExecutor; VirtualThreadConfig applies it to its own executor
+    @Bean
+    public TaskDecorator mdcTaskDecorator() {
+        return task -> {
+            Map<String, String> context = MDC.getCopyOfContextMap();
+            return () -> {
+                Map<String, String> previous = MDC.getCopyOfContextMap();
+                if (context != null) {
+                    MDC.setContextMap(context);
+                } else {
+                    MDC.clear();
+                }
+                try {
+                    task.run();
+                } finally {
+                    if (previous != null) {
+                        MDC.setContextMap(previous);
+                    } else {
+                        MDC.clear();
+                    }
+                }
+            };
+        };
+    }
+}
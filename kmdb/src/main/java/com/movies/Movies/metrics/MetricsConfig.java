@@ -0,0 +1,34 @@
+package com.movies.Movies.metrics;
+
+import io.micrometer.core.aop.TimedAspect;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Metrics beyond those Spring Boot publishes by itself (HTTP requests, repository invocations, Hibernate
+ * statistics, connection pools): timers on the services, which carry {@link io.micrometer.core.annotation.Timed},
+ * and the per-request statement counts.
+ */
+@Configuration
+public class MetricsConfig {
+
+    // Turns @Timed on the service classes into movies.service timers tagged with class, method and exception
+    @Bean
+    public TimedAspect timedAspect(MeterRegistry meterRegistry) {
+        return new TimedAspect(meterRegistry);
+    }
+
+    @Bean
+    public StatementCounter statementCounter() {
+        return new StatementCounter();
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer statementCounterCustomizer(StatementCounter statementCounter) {
+        return properties -> properties.put(AvailableSettings.STATEMENT_INSPECTOR, statementCounter);
+    }
+}
@@ -0,0 +1,49 @@
+package com.movies.Movies.threads;
+
+import org.apache.coyote.ProtocolHandler;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.TaskDecorator;
+import org.springframework.core.task.support.TaskExecutorAdapter;
+
+import java.util.concurrent.Executors;
+
+/**
+ * Runs every request, and every asynchronous task, on its own virtual thread, when
+ * movies.virtual-threads.enabled is true. Request threads spend most of their time blocked on JDBC;
+ * a blocked virtual thread releases its carrier instead of holding one of Tomcat's 200 platform threads.
+ *
+ * <p>Pinning audit of the database path: the SQLite driver runs each statement in a synchronized native
+ * method, which pins the carrier for the duration of the statement. Each connection is used by one thread
+ * at a time, so those monitors are never contended, and the pinned time is the statement's own execution time.
+ * Waiting for a connection, which is where requests spend their time under load, happens on the fair semaphore
+ * of {@link com.movies.Movies.datasource.ConcurrencyLimitingDataSource} in front of each pool, and that wait
+ * parks without pinning. Hikari hands connections over without monitors. The id allocator, which runs SQL
+ * under its lock, uses a ReentrantLock. The remaining synchronized blocks, in the response cache, guard
+ * in-memory bookkeeping only.
+ */
+@Configuration
+@ConditionalOnProperty(name = "movies.virtual-threads.enabled", havingValue = "true")
+public class VirtualThreadConfig {
+
+    @Bean
+    public TomcatProtocolHandlerCustomizer<ProtocolHandler> virtualThreadRequestExecutor() {
+        return protocolHandler -> protocolHandler.setExecutor(
+                Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("http-vt-", 0).factory()));
+    }
+
+    /**
+     * Executor for @Async methods and for asynchronous MVC responses such as the streamed export,
+     * which both look it up by this name. Tasks keep the logging context of the thread that submitted them.
+     */
+    @Bean(name = {"applicationTaskExecutor", "taskExecutor"})
+    public AsyncTaskExecutor applicationTaskExecutor(TaskDecorator taskDecorator) {
+        TaskExecutorAdapter executor = new TaskExecutorAdapter(
+                Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("task-vt-", 0).factory()));
+        executor.setTaskDecorator(taskDecorator);
+        return executor;
+    }
+}
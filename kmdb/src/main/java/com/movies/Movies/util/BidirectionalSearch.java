@@ -0,0 +1,158 @@
+package com.movies.Movies.util;
+
+import java.util.Arrays;
+import java.util.Optional;
+
+/**
+ * Shortest paths in an unweighted, undirected graph whose nodes and edges are known by long ids, found by a
+ * breadth-first search from both ends at once. Each round expands the whole frontier of the side whose frontier is
+ * smaller, so the search visits two balls of about half the distance rather than one of the full distance: with
+ * 50 neighbours per node, a path of 6 hops costs some 2 * 50^3 nodes instead of 50^6.
+ * Neighbours are fetched a frontier at a time through an {@link Expander}, so a database behind it is queried once
+ * per hop rather than once per node. Node ids are row ids, so 0 is not a valid node.
+ */
+public final class BidirectionalSearch {
+
+    /**
+     * Receives the edges leaving a frontier.
+     */
+    public interface EdgeConsumer {
+
+        /**
+         * @param from the node of the frontier
+         * @param via  the id of the edge, such as the movie two actors share
+         * @param to   the neighbour
+         */
+        void edge(long from, long via, long to);
+    }
+
+    /**
+     * Hands over the edges leaving the nodes of a frontier. An expander is only ever used for one side of one
+     * search, so it may skip edges it knows lead back into nodes it has already handed over.
+     */
+    public interface Expander {
+
+        void expand(long[] frontier, EdgeConsumer edges);
+    }
+
+    /**
+     * The nodes one side of the search has reached, each with the node and edge it was reached through.
+     */
+    private static final class Side {
+
+        private final Expander expander;
+        private final LongIntHashMap entryOf = new LongIntHashMap(64);
+        private long[] nodes = new long[64];
+        private long[] via = new long[64];
+        private int[] parent = new int[64];
+        private int size;
+        private int depth;
+        private long[] frontier;
+
+        private Side(long root, Expander expander) {
+            this.expander = expander;
+            add(root, -1, 0);
+            frontier = new long[] {root};
+        }
+
+        private int add(long node, int parentEntry, long edge) {
+            if (size == nodes.length) {
+                nodes = Arrays.copyOf(nodes, size * 2);
+                via = Arrays.copyOf(via, size * 2);
+                parent = Arrays.copyOf(parent, size * 2);
+            }
+            nodes[size] = node;
+            via[size] = edge;
+            parent[size] = parentEntry;
+            entryOf.put(node, size);
+            return size++;
+        }
+
+        // Node and edge ids from the given entry back to the root: node, edge, node, ..., root
+        private long[] pathToRoot(int entry) {
+            int hops = 0;
+            for (int e = parent[entry]; e >= 0; e = parent[e]) {
+                hops++;
+            }
+            long[] path = new long[hops * 2 + 1];
+            int length = 0;
+            for (int e = entry; e >= 0; e = parent[e]) {
+                path[length++] = nodes[e];
+                if (parent[e] >= 0) {
+                    path[length++] = via[e];
+                }
+            }
+            return path;
+        }
+    }
+
+    private BidirectionalSearch() {
+    }
+
+    /**
+     * Finds one of the shortest paths between two nodes.
+     *
+     * @param from     the first node
+     * @param to       the last node
+     * @param maxHops  the longest path to look for, in edges
+     * @param fromSide the expander of the side searching from the first node
+     * @param toSide   the expander of the side searching from the last node
+     * @return the nodes of the path interleaved with the edges between them, from the first node to the last,
+     * or empty if the nodes are more than maxHops edges apart
+     */
+    public static Optional<long[]> shortestPath(long from, long to, int maxHops, Expander fromSide, Expander toSide) {
+        if (from == to) {
+            return Optional.of(new long[] {from});
+        }
+        Side forward = new Side(from, fromSide);
+        Side backward = new Side(to, toSide);
+        while (forward.depth + backward.depth < maxHops
+                && forward.frontier.length > 0 && backward.frontier.length > 0) {
+            Side side = forward.frontier.length <= backward.frontier.length ? forward : backward;
+            Side other = side == forward ? backward : forward;
+            // The first node both sides reach lies on a shortest path: any shorter one would have met a round earlier
+            int[] meeting = {-1};
+            long[][] next = {new long[Math.max(16, side.frontier.length)]};
+            int[] nextSize = {0};
+            side.expander.expand(side.frontier, (node, edge, neighbour) -> {
+                if (meeting[0] >= 0 || side.entryOf.get(neighbour) != LongIntHashMap.MISSING) {
+                    return;
+                }
+                int entry = side.add(neighbour, side.entryOf.get(node), edge);
+                if (nextSize[0] == next[0].length) {
+                    next[0] = Arrays.copyOf(next[0], nextSize[0] * 2);
+                }
+                next[0][nextSize[0]++] = neighbour;
+                if (other.entryOf.get(neighbour) != LongIntHashMap.MISSING) {
+                    meeting[0] = entry;
+                }
+            });
+            side.depth++;
+            side.frontier = Arrays.copyOf(next[0], nextSize[0]);
+            if (meeting[0] >= 0) {
+                long node = side.nodes[meeting[0]];
+                long[] sidePath = side.pathToRoot(meeting[0]);
+                long[] otherPath = other.pathToRoot(other.entryOf.get(node));
+                // Both halves start at the meeting node; join the side's half, reversed, to the other's without it
+                long[] path = new long[sidePath.length + otherPath.length - 1];
+                for (int i = 0; i < sidePath.length; i++) {
+                    path[i] = sidePath[sidePath.length - 1 - i];
+                }
+                System.arraycopy(otherPath, 1, path, sidePath.length, otherPath.length - 1);
+                if (side == backward) {
+                    reverse(path);
+                }
+                return Optional.of(path);
+            }
+        }
+        return Optional.empty();
+    }
+
+    private static void reverse(long[] values) {
+        for (int i = 0, j = values.length - 1; i < j; i++, j--) {
+            long value = values[i];
+            values[i] = values[j];
+            values[j] = value;
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package com.movies.Movies.util;
+
+import org.hibernate.community.dialect.SQLiteDialect;
+import org.hibernate.engine.jdbc.dialect.spi.DialectResolutionInfo;
+import org.hibernate.exception.ConstraintViolationException;
+import org.hibernate.exception.spi.SQLExceptionConversionDelegate;
+import org.hibernate.internal.util.JdbcExceptionHelper;
+
+/**
+ * The community SQLite dialect, extended to report SQLITE_CONSTRAINT errors as constraint violations.
+ * The stock dialect leaves them as generic JDBC errors, so a write rejected by a unique index would surface
+ * as a 500 instead of a DataIntegrityViolationException, which GlobalExceptionHandler answers with a 400.
+ */
+public class ConstraintAwareSQLiteDialect extends SQLiteDialect {
+
+    // Primary result code of every constraint failure; extended codes such as SQLITE_CONSTRAINT_UNIQUE share the low byte
+    private static final int SQLITE_CONSTRAINT = 19;
+
+    public ConstraintAwareSQLiteDialect() {
+        super();
+    }
+
+    public ConstraintAwareSQLiteDialect(DialectResolutionInfo info) {
+        super(info);
+    }
+
+    @Override
+    public SQLExceptionConversionDelegate buildSQLExceptionConversionDelegate() {
+        SQLExceptionConversionDelegate delegate = super.buildSQLExceptionConversionDelegate();
+        return (sqlException, message, sql) -> {
+            if ((JdbcExceptionHelper.extractErrorCode(sqlException) & 0xFF) == SQLITE_CONSTRAINT) {
+                return new ConstraintViolationException(message, sqlException, sql, null);
+            }
+            return delegate == null ? null : delegate.convert(sqlException, message, sql);
+        };
+    }
+}
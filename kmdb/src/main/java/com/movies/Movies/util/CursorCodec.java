@@ -0,0 +1,50 @@
+package com.movies.Movies.util;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Encodes and decodes the opaque {@code after} tokens of the keyset-paginated list endpoints.
+ * A token wraps the id of the last row of the previous page; clients are expected to pass it back unchanged.
+ */
+public final class CursorCodec {
+
+    private static final String PREFIX = "id:";
+
+    private CursorCodec() {
+    }
+
+    /**
+     * Builds the token that continues a listing after the given id.
+     *
+     * @param lastId the id of the last row returned
+     * @return the opaque token
+     */
+    public static String encode(long lastId) {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString((PREFIX + lastId).getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Reads the id a token continues after. A blank token starts from the beginning.
+     *
+     * @param token the token sent by the client, may be null or blank
+     * @return the id to seek past, 0 for the first page
+     * @throws IllegalArgumentException if the token was not issued by {@link #encode(long)}
+     */
+    public static long decode(String token) {
+        if (token == null || token.isBlank()) {
+            return 0L;
+        }
+        try {
+            String value = new String(Base64.getUrlDecoder().decode(token.trim()), StandardCharsets.UTF_8);
+            if (!value.startsWith(PREFIX)) {
+                throw new IllegalArgumentException("Invalid cursor: " + token);
+            }
+            return Long.parseLong(value.substring(PREFIX.length()));
+        } catch (IllegalArgumentException ex) {
+            // NumberFormatException and Base64 decoding errors both end up here
+            throw new IllegalArgumentException("Invalid cursor: " + token);
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package com.movies.Movies.util;
+
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+import java.time.LocalDate;
+
+/**
+ * Stores a LocalDate as the number of days since 1970-01-01 in an INTEGER column. SQLite has no date type;
+ * an integer compares and sorts in date order, so range filters and orderings run in the database on an index,
+ * and reading it back is a single {@link LocalDate#ofEpochDay(long)} instead of parsing a string.
+ */
+@Converter
+public class EpochDayConverter implements AttributeConverter<LocalDate, Long> {
+
+    @Override
+    public Long convertToDatabaseColumn(LocalDate date) {
+        return date != null ? date.toEpochDay() : null;
+    }
+
+    @Override
+    public LocalDate convertToEntityAttribute(Long epochDay) {
+        return epochDay != null ? LocalDate.ofEpochDay(epochDay) : null;
+    }
+}
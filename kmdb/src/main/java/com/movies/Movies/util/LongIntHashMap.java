@@ -0,0 +1,131 @@
+package com.movies.Movies.util;
+
+/**
+ * Open-addressing hash map from long keys to int values, without boxing either.
+ * A million entries take 12 bytes per slot at a load of at most 3/4, about 25 MB, where a
+ * {@code HashMap<Long, Integer>} needs some 80 bytes per entry. Keys are row ids, so 0 is reserved
+ * to mark empty slots. Not thread-safe.
+ */
+public final class LongIntHashMap {
+
+    // Returned by get for keys that are not in the map
+    public static final int MISSING = -1;
+
+    private long[] keys;
+    private int[] values;
+    private int size;
+
+    public LongIntHashMap(int expectedSize) {
+        int capacity = Integer.highestOneBit(Math.max(expectedSize * 4 / 3, 8) - 1) << 1;
+        keys = new long[capacity];
+        values = new int[capacity];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @param key the key, not 0
+     * @return the value of the key, or {@link #MISSING}
+     */
+    public int get(long key) {
+        int mask = keys.length - 1;
+        for (int slot = hash(key) & mask; keys[slot] != 0; slot = (slot + 1) & mask) {
+            if (keys[slot] == key) {
+                return values[slot];
+            }
+        }
+        return MISSING;
+    }
+
+    /**
+     * @param key   the key, not 0
+     * @param value the value, not negative
+     */
+    public void put(long key, int value) {
+        if (key == 0) {
+            throw new IllegalArgumentException("0 can not be used as a key");
+        }
+        int mask = keys.length - 1;
+        int slot = hash(key) & mask;
+        while (keys[slot] != 0) {
+            if (keys[slot] == key) {
+                values[slot] = value;
+                return;
+            }
+            slot = (slot + 1) & mask;
+        }
+        keys[slot] = key;
+        values[slot] = value;
+        if (++size > keys.length / 4 * 3) {
+            rehash(keys.length * 2);
+        }
+    }
+
+    /**
+     * @param key the key to remove
+     * @return the value the key had, or {@link #MISSING}
+     */
+    public int remove(long key) {
+        if (key == 0) {
+            return MISSING;
+        }
+        int mask = keys.length - 1;
+        int slot = hash(key) & mask;
+        while (keys[slot] != key) {
+            if (keys[slot] == 0) {
+                return MISSING;
+            }
+            slot = (slot + 1) & mask;
+        }
+        int value = values[slot];
+        // Shift later entries of the probe run back into the gap, so lookups never stop at a hole
+        int gap = slot;
+        for (int next = (gap + 1) & mask; keys[next] != 0; next = (next + 1) & mask) {
+            int home = hash(keys[next]) & mask;
+            if (((next - home) & mask) >= ((next - gap) & mask)) {
+                keys[gap] = keys[next];
+                values[gap] = values[next];
+                gap = next;
+            }
+        }
+        keys[gap] = 0;
+        size--;
+        return value;
+    }
+
+    // Approximate heap size of the two tables, for footprint reporting
+    public long sizeInBytes() {
+        return keys.length * (long) (Long.BYTES + Integer.BYTES);
+    }
+
+    private void rehash(int capacity) {
+        long[] oldKeys = keys;
+        int[] oldValues = values;
+        keys = new long[capacity];
+        values = new int[capacity];
+        int mask = capacity - 1;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != 0) {
+                int slot = hash(oldKeys[i]) & mask;
+                while (keys[slot] != 0) {
+                    slot = (slot + 1) & mask;
+                }
+                keys[slot] = oldKeys[i];
+                values[slot] = oldValues[i];
+            }
+        }
+    }
+
+    // Ids come in runs and fixed strides; mixing the bits keeps them from piling up in one probe run
+    private static int hash(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+
+    @Override
+    public String toString() {
+        return "LongIntHashMap[size=" + size + ", capacity=" + keys.length + "]";
+    }
+}
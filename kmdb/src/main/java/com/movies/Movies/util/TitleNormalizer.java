@@ -0,0 +1,29 @@
+package com.movies.Movies.util;
+
+import java.text.Normalizer;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+/**
+ * Normalizes movie titles for duplicate detection, so that titles differing only in case,
+ * surrounding or repeated whitespace, or Unicode compatibility forms count as the same title.
+ */
+public final class TitleNormalizer {
+
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    private TitleNormalizer() {
+    }
+
+    /**
+     * @param title the title as entered, may be null
+     * @return the normalized title, or null for a null title
+     */
+    public static String normalize(String title) {
+        if (title == null) {
+            return null;
+        }
+        String normalized = Normalizer.normalize(title, Normalizer.Form.NFKC).strip();
+        return WHITESPACE.matcher(normalized).replaceAll(" ").toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,96 @@
+package db.migration;
+
+import com.movies.Movies.util.TitleNormalizer;
+
+import org.flywaydb.core.api.migration.BaseJavaMigration;
+import org.flywaydb.core.api.migration.Context;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Adds movie.normalized_title and the unique natural-key indexes behind the duplicate checks on create:
+ * (normalized_title, release_year, duration) for movies and (name, birth_date) for actors.
+ * Written in Java because titles are normalized by {@link TitleNormalizer}, which SQLite can not reproduce,
+ * and because a database may already hold duplicates. The shipped movies.db does, for one movie. Failing the
+ * migration would keep such a database from starting, so the index is created without UNIQUE instead: the
+ * duplicate checks in the services stay fast and still turn away new duplicates, but two racing creates are
+ * no longer stopped by the database. The duplicate rows are logged with their ids; once they are removed,
+ * replacing the index with a UNIQUE one of the same name restores the constraint.
+ */
+public class V3__natural_key_indexes extends BaseJavaMigration {
+
+    private static final Logger log = LoggerFactory.getLogger(V3__natural_key_indexes.class);
+
+    @Override
+    public void migrate(Context context) throws Exception {
+        Connection connection = context.getConnection();
+        if (!hasColumn(connection, "movie", "normalized_title")) {
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("ALTER TABLE movie ADD COLUMN normalized_title varchar(255)");
+            }
+        }
+        backfillNormalizedTitles(connection);
+        createIndex(connection, "ux_movie_natural_key", "movie", "normalized_title, release_year, duration");
+        createIndex(connection, "ux_actor_natural_key", "actor", "name, birth_date");
+    }
+
+    private boolean hasColumn(Connection connection, String table, String column) throws SQLException {
+        try (Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery("PRAGMA table_info(" + table + ")")) {
+            while (rs.next()) {
+                if (column.equalsIgnoreCase(rs.getString("name"))) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private void backfillNormalizedTitles(Connection connection) throws SQLException {
+        List<Object[]> rows = new ArrayList<>();
+        try (Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery("SELECT id, title FROM movie WHERE normalized_title IS NULL AND title IS NOT NULL")) {
+            while (rs.next()) {
+                rows.add(new Object[]{TitleNormalizer.normalize(rs.getString("title")), rs.getLong("id")});
+            }
+        }
+        try (PreparedStatement update = connection.prepareStatement("UPDATE movie SET normalized_title = ? WHERE id = ?")) {
+            for (Object[] row : rows) {
+                update.setString(1, (String) row[0]);
+                update.setLong(2, (Long) row[1]);
+                update.addBatch();
+            }
+            update.executeBatch();
+        }
+        log.info("Normalized {} movie titles", rows.size());
+    }
+
+    private void createIndex(Connection connection, String name, String table, String columns) throws SQLException {
+        List<String> duplicates = new ArrayList<>();
+        try (Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery("SELECT " + columns.replace(", ", " || ' / ' || ") + ", group_concat(id, ', ')"
+                     + " FROM " + table + " GROUP BY " + columns + " HAVING COUNT(*) > 1")) {
+            while (rs.next()) {
+                duplicates.add(rs.getString(1) + " (ids " + rs.getString(2) + ")");
+            }
+        }
+        String unique = "UNIQUE ";
+        if (!duplicates.isEmpty()) {
+            log.warn("Stored {} rows are not unique on ({}), creating {} WITHOUT the unique constraint; the database will "
+                    + "not reject duplicates until these are removed and the index is recreated as UNIQUE: {}",
+                    table, columns, name, duplicates);
+            unique = "";
+        }
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("CREATE " + unique + "INDEX IF NOT EXISTS " + name + " ON " + table + " (" + columns + ")");
+        }
+    }
+}
@@ -0,0 +1,7 @@
+-- Schema as created by Hibernate's ddl-auto=update before migrations were introduced.
+-- Existing databases are baselined at this version, so this script only runs on an empty database.
+CREATE TABLE IF NOT EXISTS actor (id integer, birth_date date not null, name varchar(255), primary key (id));
+CREATE TABLE IF NOT EXISTS genre (id integer, name varchar(255), primary key (id));
+CREATE TABLE IF NOT EXISTS movie (id integer, duration integer check (duration>=1), release_year integer not null, title varchar(255), primary key (id));
+CREATE TABLE IF NOT EXISTS movie_actor (movie_id bigint not null, actor_id bigint not null);
+CREATE TABLE IF NOT EXISTS movie_genre (movie_id bigint not null, genre_id bigint not null);
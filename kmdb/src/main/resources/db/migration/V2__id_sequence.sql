@@ -0,0 +1,10 @@
+-- Block allocator state for Movie, Actor and Genre ids (see IdBlockAllocator): the first id not yet reserved.
+-- Each sequence starts after the highest id already in its table.
+CREATE TABLE IF NOT EXISTS id_sequence (sequence_name varchar(255) not null primary key, next_val bigint not null);
+
+INSERT INTO id_sequence (sequence_name, next_val) SELECT 'movie', COALESCE(MAX(id), 0) + 1 FROM movie WHERE true
+    ON CONFLICT (sequence_name) DO UPDATE SET next_val = MAX(next_val, excluded.next_val);
+INSERT INTO id_sequence (sequence_name, next_val) SELECT 'actor', COALESCE(MAX(id), 0) + 1 FROM actor WHERE true
+    ON CONFLICT (sequence_name) DO UPDATE SET next_val = MAX(next_val, excluded.next_val);
+INSERT INTO id_sequence (sequence_name, next_val) SELECT 'genre', COALESCE(MAX(id), 0) + 1 FROM genre WHERE true
+    ON CONFLICT (sequence_name) DO UPDATE SET next_val = MAX(next_val, excluded.next_val);
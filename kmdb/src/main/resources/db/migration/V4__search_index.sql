@@ -0,0 +1,7 @@
+-- Full-text indexes over movie titles and actor names (see SearchIndexRepository).
+-- The trigram tokenizer lets a quoted MATCH find the same rows as a case-insensitive substring LIKE.
+CREATE VIRTUAL TABLE IF NOT EXISTS movie_title_fts USING fts5(title, tokenize = 'trigram');
+CREATE VIRTUAL TABLE IF NOT EXISTS actor_name_fts USING fts5(name, tokenize = 'trigram');
+
+INSERT INTO movie_title_fts (rowid, title) SELECT id, title FROM movie WHERE id NOT IN (SELECT rowid FROM movie_title_fts);
+INSERT INTO actor_name_fts (rowid, name) SELECT id, name FROM actor WHERE id NOT IN (SELECT rowid FROM actor_name_fts);
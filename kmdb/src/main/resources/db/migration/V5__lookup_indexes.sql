@@ -0,0 +1,10 @@
+-- Covering indexes for the filters on release year, genre and actor, and for loading the credits of a page of movies.
+-- The join tables had no index at all, so every lookup in either direction was a full scan.
+CREATE INDEX IF NOT EXISTS ix_movie_release_year ON movie (release_year, id);
+CREATE INDEX IF NOT EXISTS ix_movie_genre_genre ON movie_genre (genre_id, movie_id);
+CREATE INDEX IF NOT EXISTS ix_movie_genre_movie ON movie_genre (movie_id, genre_id);
+CREATE INDEX IF NOT EXISTS ix_movie_actor_actor ON movie_actor (actor_id, movie_id);
+CREATE INDEX IF NOT EXISTS ix_movie_actor_movie ON movie_actor (movie_id, actor_id);
+
+-- Give the query planner statistics for the new indexes
+ANALYZE;
@@ -0,0 +1,8 @@
+-- Birth dates were stored as ISO 8601 strings; store them as days since 1970-01-01 (see EpochDayConverter).
+-- julianday counts from noon, so the epoch falls on day 2440587.5 and every midnight converts to a whole number.
+UPDATE actor SET birth_date = CAST(julianday(birth_date) - 2440587.5 AS INTEGER) WHERE typeof(birth_date) = 'text';
+
+-- Birth-year range filters, ordered by birth date
+CREATE INDEX IF NOT EXISTS ix_actor_birth_date ON actor (birth_date, id);
+
+ANALYZE actor;
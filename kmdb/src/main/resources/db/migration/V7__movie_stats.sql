@@ -0,0 +1,27 @@
+-- Aggregate statistics for /api/stats: the number of movies and their total duration for the whole catalog,
+-- per release year, per genre and per actor. The services keep the rows up to date in the same transaction as
+-- every write (see MovieStatsRepository), so reading them never scans the catalog.
+CREATE TABLE IF NOT EXISTS movie_stats (
+    dimension varchar(8) not null,  -- TOTAL, YEAR, GENRE or ACTOR
+    bucket bigint not null,         -- the release year, genre id or actor id; 0 for TOTAL
+    movie_count bigint not null,
+    duration_sum bigint not null,
+    duration_count bigint not null, -- movies with a duration, for the average
+    primary key (dimension, bucket)
+) WITHOUT ROWID;
+
+-- Buckets with the most movies first, for the actor ranking
+CREATE INDEX IF NOT EXISTS ix_movie_stats_count ON movie_stats (dimension, movie_count DESC, bucket);
+
+INSERT INTO movie_stats (dimension, bucket, movie_count, duration_sum, duration_count)
+SELECT * FROM (
+    SELECT 'TOTAL', 0, COUNT(*), COALESCE(SUM(duration), 0), COUNT(duration) FROM movie
+    UNION ALL
+    SELECT 'YEAR', release_year, COUNT(*), COALESCE(SUM(duration), 0), COUNT(duration) FROM movie GROUP BY release_year
+    UNION ALL
+    SELECT 'GENRE', mg.genre_id, COUNT(*), COALESCE(SUM(m.duration), 0), COUNT(m.duration)
+    FROM movie_genre mg JOIN movie m ON m.id = mg.movie_id GROUP BY mg.genre_id
+    UNION ALL
+    SELECT 'ACTOR', ma.actor_id, COUNT(*), COALESCE(SUM(m.duration), 0), COUNT(m.duration)
+    FROM movie_actor ma JOIN movie m ON m.id = ma.movie_id GROUP BY ma.actor_id
+) WHERE true;
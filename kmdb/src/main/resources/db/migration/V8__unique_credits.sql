@@ -0,0 +1,25 @@
+-- Movie actors and genres are now sets (see Movie): Hibernate adds and deletes single join table rows by movie
+-- and actor or genre, so each pair may appear only once. Drop any duplicates, which the old bags could write,
+-- then make the movie side indexes unique. The duplicate lookups run on the indexes being replaced. V7 counted
+-- the duplicates in the genre and actor statistics, so those buckets are counted again at the end.
+DELETE FROM movie_actor WHERE EXISTS (
+    SELECT 1 FROM movie_actor d
+    WHERE d.movie_id = movie_actor.movie_id AND d.actor_id = movie_actor.actor_id AND d.rowid < movie_actor.rowid);
+DELETE FROM movie_genre WHERE EXISTS (
+    SELECT 1 FROM movie_genre d
+    WHERE d.movie_id = movie_genre.movie_id AND d.genre_id = movie_genre.genre_id AND d.rowid < movie_genre.rowid);
+
+DROP INDEX IF EXISTS ix_movie_actor_movie;
+CREATE UNIQUE INDEX IF NOT EXISTS ix_movie_actor_movie ON movie_actor (movie_id, actor_id);
+DROP INDEX IF EXISTS ix_movie_genre_movie;
+CREATE UNIQUE INDEX IF NOT EXISTS ix_movie_genre_movie ON movie_genre (movie_id, genre_id);
+
+DELETE FROM movie_stats WHERE dimension IN ('GENRE', 'ACTOR');
+INSERT INTO movie_stats (dimension, bucket, movie_count, duration_sum, duration_count)
+SELECT * FROM (
+    SELECT 'GENRE', mg.genre_id, COUNT(*), COALESCE(SUM(m.duration), 0), COUNT(m.duration)
+    FROM movie_genre mg JOIN movie m ON m.id = mg.movie_id GROUP BY mg.genre_id
+    UNION ALL
+    SELECT 'ACTOR', ma.actor_id, COUNT(*), COALESCE(SUM(m.duration), 0), COUNT(m.duration)
+    FROM movie_actor ma JOIN movie m ON m.id = ma.movie_id GROUP BY ma.actor_id
+) WHERE true;
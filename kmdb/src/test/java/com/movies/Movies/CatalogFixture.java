@@ -0,0 +1,87 @@
+package com.movies.Movies;
+
+import com.movies.Movies.Service.ActorService;
+import com.movies.Movies.Service.GenreService;
+import com.movies.Movies.Service.MovieService;
+import com.movies.Movies.dto.ActorDTO;
+import com.movies.Movies.dto.GenreDTO;
+import com.movies.Movies.dto.MovieDTO;
+
+import org.springframework.context.annotation.Profile;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Seeds and clears the catalog for tests. Everything is written through the services, so the search indexes,
+ * statistics and snapshot stay in step with the tables just as they do in the application.
+ */
+@Component
+@Profile("test")
+public class CatalogFixture {
+
+    // The services delete at most this many rows per call
+    private static final int DELETE_CHUNK = 1000;
+
+    private final MovieService movieService;
+    private final ActorService actorService;
+    private final GenreService genreService;
+    private final JdbcTemplate jdbcTemplate;
+
+    public CatalogFixture(MovieService movieService, ActorService actorService, GenreService genreService,
+                          JdbcTemplate jdbcTemplate) {
+        this.movieService = movieService;
+        this.actorService = actorService;
+        this.genreService = genreService;
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public Long createGenre(String name) {
+        return genreService.createGenre(new GenreDTO(null, name)).getId();
+    }
+
+    public Long createActor(String name) {
+        return createActor(name, LocalDate.of(1970, 1, 1));
+    }
+
+    public Long createActor(String name, LocalDate birthDate) {
+        return actorService.createActor(new ActorDTO(null, name, birthDate)).getId();
+    }
+
+    public Long createMovie(String title, List<Long> actorIds, List<Long> genreIds) {
+        return createMovie(title, 2000, 100, actorIds, genreIds);
+    }
+
+    public Long createMovie(String title, int releaseYear, int duration, List<Long> actorIds, List<Long> genreIds) {
+        return movieService.createMovieWithActors(movie(title, releaseYear, duration, actorIds, genreIds)).getId();
+    }
+
+    /**
+     * Deletes every movie, actor and genre, including rows a test created without the fixture.
+     */
+    public void clear() {
+        deleteAll("SELECT id FROM movie", ids -> movieService.deleteMovies(ids, true));
+        deleteAll("SELECT id FROM actor", ids -> actorService.deleteActors(ids, true));
+        deleteAll("SELECT id FROM genre", ids -> genreService.deleteGenres(ids, true));
+    }
+
+    private void deleteAll(String query, Consumer<List<Long>> delete) {
+        List<Long> ids = jdbcTemplate.queryForList(query, Long.class);
+        for (int from = 0; from < ids.size(); from += DELETE_CHUNK) {
+            delete.accept(ids.subList(from, Math.min(from + DELETE_CHUNK, ids.size())));
+        }
+    }
+
+    /**
+     * Builds a request body for a new movie; null lists leave the movie without links of that kind.
+     */
+    public static MovieDTO movie(String title, int releaseYear, int duration, List<Long> actorIds, List<Long> genreIds) {
+        MovieDTO movie = new MovieDTO(null, title, releaseYear, duration);
+        movie.setActorIds(actorIds);
+        movie.setGenreIds(genreIds);
+        return movie;
+    }
+}
@@ -0,0 +1,28 @@
+package com.movies.Movies;
+
+import org.springframework.boot.autoconfigure.flyway.FlywayMigrationStrategy;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * Starts every test context from an empty database built by the migrations, so tests run against the same
+ * schema as the application. Flyway's clean drops the FTS5 shadow tables one by one, which SQLite refuses,
+ * so the full-text tables are dropped first.
+ */
+@Configuration
+@Profile("test")
+public class CleanDatabaseConfig {
+
+    @Bean
+    public FlywayMigrationStrategy cleanMigrateStrategy() {
+        return flyway -> {
+            JdbcTemplate jdbcTemplate = new JdbcTemplate(flyway.getConfiguration().getDataSource());
+            jdbcTemplate.execute("DROP TABLE IF EXISTS movie_title_fts");
+            jdbcTemplate.execute("DROP TABLE IF EXISTS actor_name_fts");
+            flyway.clean();
+            flyway.migrate();
+        };
+    }
+}
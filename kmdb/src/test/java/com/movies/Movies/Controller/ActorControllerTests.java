@@ -0,0 +1,112 @@
+package com.movies.Movies.Controller;
+
+import com.movies.Movies.CatalogFixture;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.hamcrest.Matchers.contains;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class ActorControllerTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private CatalogFixture catalogFixture;
+
+    private final List<Long> actorIds = new ArrayList<>();
+
+    @BeforeEach
+    void seedCatalog() {
+        // Created out of birth order, with dates on both sides of each year boundary and before 1970
+        actorIds.add(catalogFixture.createActor("Last of 1971", LocalDate.of(1971, 12, 31)));
+        actorIds.add(catalogFixture.createActor("New Year 1970", LocalDate.of(1970, 1, 1)));
+        actorIds.add(catalogFixture.createActor("Eve of 1970", LocalDate.of(1969, 12, 31)));
+        actorIds.add(catalogFixture.createActor("New Year 1972", LocalDate.of(1972, 1, 1)));
+        actorIds.add(catalogFixture.createActor("Silent Era", LocalDate.of(1899, 5, 4)));
+        actorIds.add(catalogFixture.createActor("Also New Year 1970", LocalDate.of(1970, 1, 1)));
+    }
+
+    @AfterEach
+    void clearCatalog() {
+        catalogFixture.clear();
+        actorIds.clear();
+    }
+
+    @Test
+    void birthYearFilterIncludesBothYearsWholeAndListsTheOldestFirst() throws Exception {
+        // Equal birth dates are listed by id
+        mockMvc.perform(get("/api/actors").param("bornFrom", "1970").param("bornTo", "1971"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[*].name").value(contains("New Year 1970", "Also New Year 1970", "Last of 1971")))
+                .andExpect(jsonPath("$.totalElements").value(3));
+        mockMvc.perform(get("/api/actors").param("bornFrom", "1969").param("bornTo", "1969"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[*].birthDate").value(contains("1969-12-31")));
+        mockMvc.perform(get("/api/actors").param("bornFrom", "1800").param("bornTo", "1969"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[*].birthDate").value(contains("1899-05-04", "1969-12-31")));
+        mockMvc.perform(get("/api/actors").param("bornFrom", "1970").param("bornTo", "2024")
+                        .param("page", "1").param("size", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[*].name").value(contains("Last of 1971", "New Year 1972")))
+                .andExpect(jsonPath("$.totalElements").value(4))
+                .andExpect(jsonPath("$.totalPages").value(2))
+                .andExpect(jsonPath("$.number").value(1))
+                .andExpect(jsonPath("$.last").value(true));
+    }
+
+    @Test
+    void bulkDeleteKeepsActorsWithMoviesUnlessForced() throws Exception {
+        Long movieId = catalogFixture.createMovie("Cast", List.of(actorIds.get(0)), null);
+        String bothEnds = actorIds.get(0) + "," + actorIds.get(1);
+
+        mockMvc.perform(delete("/api/actors").param("ids", bothEnds))
+                .andExpect(status().isBadRequest())
+                .andExpect(content().string("Actors [" + actorIds.get(0) + "] are associated with movies and cannot be deleted."));
+        mockMvc.perform(delete("/api/actors").param("ids", actorIds.get(1) + ",999999"))
+                .andExpect(status().isNotFound());
+        mockMvc.perform(get("/api/actors/{id}", actorIds.get(1))).andExpect(status().isOk());
+
+        mockMvc.perform(delete("/api/actors").param("ids", bothEnds).param("force", "true"))
+                .andExpect(status().isNoContent());
+        mockMvc.perform(get("/api/actors/{id}", actorIds.get(0))).andExpect(status().isNotFound());
+        mockMvc.perform(get("/api/actors/{id}", actorIds.get(1))).andExpect(status().isNotFound());
+        // The movie stays, without the deleted actor
+        mockMvc.perform(get("/api/movies/{id}/actors", movieId))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$").isEmpty());
+        mockMvc.perform(delete("/api/actors").param("ids", ""))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void birthYearFilterRejectsInvalidRanges() throws Exception {
+        mockMvc.perform(get("/api/actors").param("bornFrom", "1971").param("bornTo", "1970"))
+                .andExpect(status().isBadRequest())
+                .andExpect(content().string("Invalid input: bornFrom must not be after bornTo"));
+        mockMvc.perform(get("/api/actors").param("bornFrom", "0").param("bornTo", "1970"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/actors").param("bornFrom", "1970").param("bornTo", "10000"))
+                .andExpect(status().isBadRequest());
+    }
+}
@@ -0,0 +1,70 @@
+package com.movies.Movies.Controller;
+
+import com.movies.Movies.CatalogFixture;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.List;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class GenreControllerTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private CatalogFixture catalogFixture;
+
+    private Long dramaId;
+    private Long crimeId;
+    private Long westernId;
+    private Long movieId;
+
+    @BeforeEach
+    void seedCatalog() {
+        dramaId = catalogFixture.createGenre("Drama");
+        crimeId = catalogFixture.createGenre("Crime");
+        westernId = catalogFixture.createGenre("Western");
+        movieId = catalogFixture.createMovie("Movie", null, List.of(dramaId, crimeId));
+    }
+
+    @AfterEach
+    void clearCatalog() {
+        catalogFixture.clear();
+    }
+
+    @Test
+    void bulkDeleteKeepsGenresWithMoviesUnlessForced() throws Exception {
+        mockMvc.perform(delete("/api/genres").param("ids", dramaId + "," + westernId))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/genres/{id}", westernId)).andExpect(status().isOk());
+        mockMvc.perform(delete("/api/genres").param("ids", westernId + ",999999"))
+                .andExpect(status().isNotFound());
+
+        mockMvc.perform(delete("/api/genres").param("ids", westernId.toString()))
+                .andExpect(status().isNoContent());
+        mockMvc.perform(get("/api/genres/{id}", westernId)).andExpect(status().isNotFound());
+
+        mockMvc.perform(delete("/api/genres").param("ids", dramaId + "," + crimeId).param("force", "true"))
+                .andExpect(status().isNoContent());
+        mockMvc.perform(get("/api/genres/{id}", dramaId)).andExpect(status().isNotFound());
+        // The movie stays, without genres
+        mockMvc.perform(get("/api/movies/{id}", movieId))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.genreIds").doesNotExist());
+    }
+}
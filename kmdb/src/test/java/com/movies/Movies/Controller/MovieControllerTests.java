@@ -0,0 +1,166 @@
+package com.movies.Movies.Controller;
+
+import com.movies.Movies.CatalogFixture;
+import com.movies.Movies.Service.MovieService;
+import com.movies.Movies.dto.MovieDTO;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.not;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class MovieControllerTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private MovieService movieService;
+
+    @Autowired
+    private CatalogFixture catalogFixture;
+
+    private final List<Long> actorIds = new ArrayList<>();
+    private final List<Long> genreIds = new ArrayList<>();
+    private Long movieId;
+
+    @BeforeEach
+    void seedCatalog() {
+        for (int i = 0; i < 2; i++) {
+            actorIds.add(catalogFixture.createActor("Actor " + i));
+        }
+        genreIds.add(catalogFixture.createGenre("Drama"));
+        genreIds.add(catalogFixture.createGenre("Crime"));
+        movieId = catalogFixture.createMovie("Movie", 1990, 100, List.of(actorIds.get(0)), genreIds);
+    }
+
+    @AfterEach
+    void clearCatalog() {
+        catalogFixture.clear();
+        actorIds.clear();
+        genreIds.clear();
+    }
+
+    @Test
+    void patchKeepsTheLinksItLeavesOut() throws Exception {
+        mockMvc.perform(patch("/api/movies/{id}", movieId)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"addActorIds\":[" + actorIds.get(1) + "]}"))
+                .andExpect(status().isOk());
+        assertThat(credits().getActorIds()).containsExactly(actorIds.get(0), actorIds.get(1));
+        assertThat(credits().getGenreIds()).containsExactly(genreIds.get(0), genreIds.get(1));
+
+        mockMvc.perform(patch("/api/movies/{id}", movieId)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"title\":\"Renamed\"}"))
+                .andExpect(status().isOk());
+        assertThat(credits().getTitle()).isEqualTo("Renamed");
+        assertThat(credits().getActorIds()).containsExactly(actorIds.get(0), actorIds.get(1));
+        assertThat(credits().getGenreIds()).containsExactly(genreIds.get(0), genreIds.get(1));
+
+        // An empty list is still a replacement, and clears the links
+        mockMvc.perform(patch("/api/movies/{id}", movieId)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"genreIds\":[]}"))
+                .andExpect(status().isOk());
+        assertThat(credits().getGenreIds()).isNull();
+        assertThat(credits().getActorIds()).containsExactly(actorIds.get(0), actorIds.get(1));
+
+        mockMvc.perform(patch("/api/movies/{id}", movieId)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"actorIds\":[],\"addActorIds\":[" + actorIds.get(0) + "]}"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void cachedResponsesAreRevalidatedUntilTheMovieChanges() throws Exception {
+        String etag = mockMvc.perform(get("/api/movies/{id}", movieId))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.title").value("Movie"))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertThat(etag).isNotNull();
+        mockMvc.perform(get("/api/movies/{id}", movieId).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified());
+
+        mockMvc.perform(patch("/api/movies/{id}", movieId)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"title\":\"Renamed\"}"))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/api/movies/{id}", movieId).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, not(etag)))
+                .andExpect(jsonPath("$.title").value("Renamed"));
+    }
+
+    @Test
+    void queryAnswersWithAPageAndItsFacets() throws Exception {
+        mockMvc.perform(get("/api/movies/query").param("genres", genreIds.get(1).toString()).param("size", "10"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[0].id").value(movieId))
+                .andExpect(jsonPath("$.totalElements").value(1))
+                .andExpect(jsonPath("$.totalPages").value(1))
+                .andExpect(jsonPath("$.size").value(10))
+                .andExpect(jsonPath("$.facets.genres[*].label").value(containsInAnyOrder("Drama", "Crime")))
+                .andExpect(jsonPath("$.facets.decades[0].label").value("1990s"));
+    }
+
+    @Test
+    void bulkDeleteRemovesAllTheMoviesOrNone() throws Exception {
+        Long second = catalogFixture.createMovie("Second", null, null);
+        Long third = catalogFixture.createMovie("Third", null, null);
+
+        mockMvc.perform(delete("/api/movies").param("ids", second + ",999999"))
+                .andExpect(status().isNotFound())
+                .andExpect(content().string("Movies not found with ids: [999999]"));
+        // The first movie still has actors and genres
+        mockMvc.perform(delete("/api/movies").param("ids", movieId + "," + second))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/movies/{id}", second)).andExpect(status().isOk());
+
+        mockMvc.perform(delete("/api/movies").param("ids", second + "," + third + "," + second))
+                .andExpect(status().isNoContent());
+        mockMvc.perform(get("/api/movies/{id}", second)).andExpect(status().isNotFound());
+        mockMvc.perform(get("/api/movies/{id}", third)).andExpect(status().isNotFound());
+
+        mockMvc.perform(delete("/api/movies").param("ids", movieId.toString()).param("force", "true"))
+                .andExpect(status().isNoContent());
+        mockMvc.perform(get("/api/movies/{id}", movieId)).andExpect(status().isNotFound());
+        mockMvc.perform(get("/api/actors/{id}", actorIds.get(0))).andExpect(status().isOk());
+
+        String tooMany = LongStream.rangeClosed(1, 1001).mapToObj(Long::toString).collect(Collectors.joining(","));
+        mockMvc.perform(delete("/api/movies").param("ids", tooMany))
+                .andExpect(status().isBadRequest());
+    }
+
+    private MovieDTO credits() {
+        return movieService.getMoviesAfter("", 100).getContent().stream()
+                .filter(movie -> movie.getId().equals(movieId))
+                .findFirst()
+                .orElseThrow();
+    }
+}
@@ -0,0 +1,115 @@
+package com.movies.Movies.Repository;
+
+import com.movies.Movies.CatalogFixture;
+import com.movies.Movies.Entity.Movie;
+import com.movies.Movies.Repository.MovieSearchRepository.FacetRow;
+import com.movies.Movies.dto.MovieDTO;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.movies.Movies.Repository.MovieSpecifications.durationBetween;
+import static com.movies.Movies.Repository.MovieSpecifications.inAnyGenre;
+import static com.movies.Movies.Repository.MovieSpecifications.releasedBetween;
+import static com.movies.Movies.Repository.MovieSpecifications.titleStartsWith;
+import static com.movies.Movies.Repository.MovieSpecifications.withAnyActor;
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class MovieSearchRepositoryTests {
+
+    private static final PageRequest FIRST_PAGE = PageRequest.of(0, 100);
+
+    @Autowired
+    private MovieSearchRepository movieSearchRepository;
+
+    @Autowired
+    private CatalogFixture catalogFixture;
+
+    private Long dramaId;
+    private Long crimeId;
+    private Long comedyId;
+    private final List<Long> actorIds = new ArrayList<>();
+    private final List<Long> movieIds = new ArrayList<>();
+
+    @BeforeEach
+    void seedCatalog() {
+        // Genres are created in id order: drama < crime < comedy
+        dramaId = catalogFixture.createGenre("Drama");
+        crimeId = catalogFixture.createGenre("Crime");
+        comedyId = catalogFixture.createGenre("Comedy");
+        actorIds.add(catalogFixture.createActor("Actor 0"));
+        actorIds.add(catalogFixture.createActor("Actor 1"));
+        movieIds.add(catalogFixture.createMovie("The Godfather", 1994, 100, List.of(actorIds.get(0)), List.of(crimeId, dramaId)));
+        movieIds.add(catalogFixture.createMovie("The Good, the Bad and the Ugly", 1995, 120, List.of(actorIds.get(1)), List.of(comedyId, crimeId)));
+        movieIds.add(catalogFixture.createMovie("Heat", 2003, 90, List.of(actorIds.get(0)), null));
+        movieIds.add(catalogFixture.createMovie("The  Godfather Part II", 2005, 150, List.of(actorIds.get(1)), List.of(dramaId)));
+    }
+
+    @AfterEach
+    void clearCatalog() {
+        catalogFixture.clear();
+        actorIds.clear();
+        movieIds.clear();
+    }
+
+    @Test
+    void eachMovieCountsOnceTowardsItsDecadeThroughItsLowestGenre() {
+        List<FacetRow> rows = movieSearchRepository.countFacets(null);
+
+        // The first movie counts once, on its drama row; the second on its crime row; the third has no genre
+        assertThat(rows).containsExactlyInAnyOrder(
+                new FacetRow(dramaId, "Drama", 1990, 1, 1),
+                new FacetRow(crimeId, "Crime", 1990, 2, 1),
+                new FacetRow(comedyId, "Comedy", 1990, 1, 0),
+                new FacetRow(null, null, 2000, 1, 1),
+                new FacetRow(dramaId, "Drama", 2000, 1, 1));
+        assertThat(rows.stream().mapToLong(FacetRow::distinctMovies).sum()).isEqualTo(movieIds.size());
+    }
+
+    @Test
+    void facetsOfAFilteredQueryCountEveryGenreOfTheMatchingMovies() {
+        Specification<Movie> filter = Specification.allOf(inAnyGenre(List.of(crimeId)), withAnyActor(List.of(actorIds.get(0))));
+
+        assertThat(ids(filter)).containsExactly(movieIds.get(0));
+        assertThat(movieSearchRepository.countFacets(filter)).containsExactlyInAnyOrder(
+                new FacetRow(dramaId, "Drama", 1990, 1, 1),
+                new FacetRow(crimeId, "Crime", 1990, 1, 0));
+    }
+
+    @Test
+    void filtersOnCollectionsReturnEachMovieOnce() {
+        assertThat(ids(inAnyGenre(List.of(dramaId, crimeId)))).containsExactly(movieIds.get(0), movieIds.get(1), movieIds.get(3));
+        assertThat(ids(withAnyActor(actorIds))).containsExactlyElementsOf(movieIds);
+        assertThat(ids(Specification.allOf(inAnyGenre(List.of(dramaId, comedyId)), withAnyActor(List.of(actorIds.get(1))))))
+                .containsExactly(movieIds.get(1), movieIds.get(3));
+    }
+
+    @Test
+    void rangeAndPrefixFiltersCombine() {
+        assertThat(ids(releasedBetween(1990, 1999))).containsExactly(movieIds.get(0), movieIds.get(1));
+        assertThat(ids(durationBetween(110, null))).containsExactly(movieIds.get(1), movieIds.get(3));
+        assertThat(ids(durationBetween(null, 100))).containsExactly(movieIds.get(0), movieIds.get(2));
+        // Case and runs of whitespace are ignored, on both sides
+        assertThat(ids(titleStartsWith("THE godfather"))).containsExactly(movieIds.get(0), movieIds.get(3));
+        assertThat(ids(Specification.allOf(titleStartsWith("the go"), releasedBetween(1995, null), durationBetween(100, 130))))
+                .containsExactly(movieIds.get(1));
+        // Filters that were not given do not restrict the result
+        assertThat(ids(Specification.allOf(inAnyGenre(List.of()), releasedBetween(null, null), titleStartsWith(" "))))
+                .containsExactlyElementsOf(movieIds);
+    }
+
+    private List<Long> ids(Specification<Movie> filter) {
+        return movieSearchRepository.findMovieDTOs(filter, FIRST_PAGE).stream().map(MovieDTO::getId).toList();
+    }
+}
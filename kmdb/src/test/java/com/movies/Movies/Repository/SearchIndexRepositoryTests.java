@@ -0,0 +1,96 @@
+package com.movies.Movies.Repository;
+
+import com.movies.Movies.CatalogFixture;
+import com.movies.Movies.Service.ActorService;
+import com.movies.Movies.Service.MovieService;
+import com.movies.Movies.dto.ActorDTO;
+import com.movies.Movies.dto.MovieDTO;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class SearchIndexRepositoryTests {
+
+    @Autowired
+    private SearchIndexRepository searchIndexRepository;
+
+    @Autowired
+    private MovieService movieService;
+
+    @Autowired
+    private ActorService actorService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private CatalogFixture catalogFixture;
+
+    private final List<Long> movieIds = new ArrayList<>();
+    private Long actorId;
+
+    @BeforeEach
+    void seedCatalog() {
+        for (String title : List.of("Interstellar", "Stellar Drift", "Stella", "Ground Control")) {
+            movieIds.add(catalogFixture.createMovie(title, null, null));
+        }
+        actorId = catalogFixture.createActor("Ellen Ripley");
+    }
+
+    @AfterEach
+    void clearCatalog() {
+        catalogFixture.clear();
+        movieIds.clear();
+    }
+
+    @Test
+    void searchesFollowRenamesThroughTheServicesAndAroundThem() {
+        Page<MovieDTO> first = movieService.searchMoviesByTitle("stellar", PageRequest.of(0, 1));
+        assertThat(first.getTotalElements()).isEqualTo(2);
+        assertThat(first.getContent()).hasSize(1);
+        Page<MovieDTO> second = movieService.searchMoviesByTitle("stellar", PageRequest.of(1, 1));
+        assertThat(List.of(first.getContent().get(0).getId(), second.getContent().get(0).getId()))
+                .containsExactlyInAnyOrder(movieIds.get(0), movieIds.get(1));
+        // Too short for the index: a substring scan in id order
+        assertThat(movieService.searchMoviesByTitle("st", PageRequest.of(0, 10)).getContent())
+                .extracting(MovieDTO::getId)
+                .containsExactly(movieIds.get(0), movieIds.get(1), movieIds.get(2));
+
+        MovieDTO rename = new MovieDTO();
+        rename.setTitle("Solaris");
+        movieService.updateMovie(movieIds.get(1), rename);
+        actorService.updateActor(actorId, new ActorDTO(null, "Sarah Connor", null));
+        assertThat(ids(searchIndexRepository.searchMovieIds("stellar", PageRequest.of(0, 10)))).containsExactly(movieIds.get(0));
+        assertThat(ids(searchIndexRepository.searchMovieIds("olari", PageRequest.of(0, 10)))).containsExactly(movieIds.get(1));
+        assertThat(ids(searchIndexRepository.searchActorIds("ripley", PageRequest.of(0, 10)))).isEmpty();
+        assertThat(actorService.getActorsByName("connor", PageRequest.of(0, 10)).getContent())
+                .extracting(ActorDTO::getId)
+                .containsExactly(actorId);
+
+        // A rename that bypasses the services leaves the row count alone, but is still caught at startup
+        jdbcTemplate.update("UPDATE movie SET title = 'Ground Zero' WHERE id = ?", movieIds.get(3));
+        assertThat(ids(searchIndexRepository.searchMovieIds("zero", PageRequest.of(0, 10)))).isEmpty();
+        searchIndexRepository.verifyIndexes();
+        assertThat(ids(searchIndexRepository.searchMovieIds("zero", PageRequest.of(0, 10)))).containsExactly(movieIds.get(3));
+        assertThat(ids(searchIndexRepository.searchMovieIds("control", PageRequest.of(0, 10)))).isEmpty();
+    }
+
+    private static List<Long> ids(Optional<Page<Long>> page) {
+        return page.orElseThrow().getContent();
+    }
+}
@@ -0,0 +1,111 @@
+package com.movies.Movies.Service;
+
+import com.movies.Movies.CatalogFixture;
+import com.movies.Movies.dto.BulkImportResultDTO;
+import com.movies.Movies.dto.BulkRowResultDTO;
+import com.movies.Movies.dto.BulkRowResultDTO.Status;
+import com.movies.Movies.dto.MovieDTO;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = "movies.bulk-import.chunk-size=3")
+@ActiveProfiles("test")
+class BulkImportServiceTests {
+
+    @Autowired
+    private BulkImportService bulkImportService;
+
+    @Autowired
+    private MovieService movieService;
+
+    @Autowired
+    private CatalogFixture catalogFixture;
+
+    private Long actorId;
+    private Long dramaId;
+
+    @BeforeEach
+    void seedCatalog() {
+        actorId = catalogFixture.createActor("Actor 0");
+        dramaId = catalogFixture.createGenre("Drama");
+        catalogFixture.createMovie("Heat", 1995, 170, List.of(actorId), List.of(dramaId));
+    }
+
+    @AfterEach
+    void clearCatalog() {
+        catalogFixture.clear();
+    }
+
+    @Test
+    void everyMovieRowGetsItsOwnOutcome() throws Exception {
+        BulkImportResultDTO result = bulkImportService.importMovies(ndjson(
+                "{\"title\":\"Ronin\",\"releaseYear\":1998,\"duration\":122,\"actorIds\":[" + actorId + "],\"genreIds\":[" + dramaId + "]}",
+                "{\"title\":\"  HEAT \",\"releaseYear\":1995,\"duration\":170}",
+                "{\"title\":\"Soon\",\"releaseYear\":\"next year\",\"duration\":100}",
+                "{\"title\":\"Thief\",\"releaseYear\":1981,\"duration\":30}",
+                "{\"title\":\"Collateral\",\"releaseYear\":2004,\"duration\":120,\"actorIds\":[999999]}",
+                "{\"title\":\"ronin\",\"releaseYear\":1998,\"duration\":122}",
+                "{\"title\":\"Manhunter\",\"releaseYear\":1986,\"duration\":120}"));
+
+        assertThat(result.getRows()).extracting(BulkRowResultDTO::getIndex).containsExactly(0, 1, 2, 3, 4, 5, 6);
+        assertThat(result.getRows()).extracting(BulkRowResultDTO::getStatus).containsExactly(
+                Status.CREATED, Status.DUPLICATE, Status.FAILED, Status.FAILED, Status.FAILED, Status.DUPLICATE, Status.CREATED);
+        assertThat(result.getRows().get(2).getMessage()).startsWith("Invalid row: ");
+        assertThat(result.getRows().get(3).getMessage()).startsWith("duration: ");
+        assertThat(result.getRows().get(4).getMessage()).isEqualTo("unknown actor ids [999999]");
+        assertThat(result.getCreated()).isEqualTo(2);
+
+        MovieDTO ronin = movieService.getMoviesAfter("", 10).getContent().stream()
+                .filter(movie -> movie.getId().equals(result.getRows().get(0).getId()))
+                .findFirst().orElseThrow();
+        assertThat(ronin.getActorIds()).containsExactly(actorId);
+        assertThat(ronin.getGenreIds()).containsExactly(dramaId);
+        assertThat(movieService.searchMoviesByTitle("manhunter", PageRequest.of(0, 10)).getTotalElements()).isEqualTo(1);
+    }
+
+    @Test
+    void unreadableActorRowsDoNotStopTheImport() throws Exception {
+        BulkImportResultDTO result = bulkImportService.importActors(ndjson(
+                "{\"name\":\"Actor 0\",\"birthDate\":\"1970-01-01\"}",
+                "{\"name\":\"Bad Month\",\"birthDate\":\"1970-13-01\"}",
+                "{\"name\":\"No Birthday\"}",
+                "{\"name\":\"Actor 1\",\"birthDate\":\"1971-02-03\"}",
+                "{\"name\":\"Cut off\","));
+
+        assertThat(result.getRows()).extracting(BulkRowResultDTO::getStatus).containsExactly(
+                Status.DUPLICATE, Status.FAILED, Status.FAILED, Status.CREATED, Status.FAILED);
+        assertThat(result.getRows().get(1).getMessage()).contains("Invalid month in birthDate");
+        assertThat(result.getRows().get(4).getMessage()).startsWith("Malformed JSON, import stopped: ");
+    }
+
+    @Test
+    void genreNamesAreComparedIgnoringCase() throws Exception {
+        BulkImportResultDTO result = bulkImportService.importGenres(json(
+                "[{\"name\":\"DRAMA\"}, {\"name\":\"Crime\"}, {\"name\":\" \"}, {\"name\":\"crime\"}]"));
+
+        assertThat(result.getRows()).extracting(BulkRowResultDTO::getStatus).containsExactly(
+                Status.DUPLICATE, Status.CREATED, Status.FAILED, Status.DUPLICATE);
+        assertThat(result.getCreated()).isEqualTo(1);
+    }
+
+    private static InputStream ndjson(String... rows) {
+        return json(String.join("\n", rows));
+    }
+
+    private static InputStream json(String body) {
+        return new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8));
+    }
+}
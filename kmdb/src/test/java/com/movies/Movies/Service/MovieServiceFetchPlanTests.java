@@ -0,0 +1,154 @@
+package com.movies.Movies.Service;
+
+import com.movies.Movies.CatalogFixture;
+import com.movies.Movies.dto.ActorDTO;
+import com.movies.Movies.dto.CursorPage;
+import com.movies.Movies.dto.MovieDTO;
+
+import jakarta.persistence.EntityManagerFactory;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class MovieServiceFetchPlanTests {
+
+    private static final int MOVIE_COUNT = 60;
+
+    @Autowired
+    private MovieService movieService;
+
+    @Autowired
+    private CatalogFixture catalogFixture;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    private Long genreId;
+
+    @BeforeEach
+    void seedCatalog() {
+        genreId = catalogFixture.createGenre("Drama");
+        List<Long> genreIds = List.of(genreId, catalogFixture.createGenre("Crime"));
+        for (int i = 0; i < MOVIE_COUNT; i++) {
+            List<Long> actorIds = List.of(catalogFixture.createActor("Lead " + i), catalogFixture.createActor("Support " + i));
+            catalogFixture.createMovie("Movie " + i, 2000 + i % 3, 90 + i, actorIds, genreIds);
+        }
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @AfterEach
+    void clearCatalog() {
+        catalogFixture.clear();
+    }
+
+    @Test
+    void pageLoadUsesSameNumberOfStatementsForAnyPageSize() {
+        long smallPage = statementsFor(() -> movieService.getAllMovies(PageRequest.of(0, 5)));
+        long largePage = statementsFor(() -> movieService.getAllMovies(PageRequest.of(0, 50)));
+
+        assertThat(smallPage).isEqualTo(largePage).isLessThanOrEqualTo(4);
+    }
+
+    @Test
+    void pageLoadMapsActorsAndGenres() {
+        Page<MovieDTO> page = movieService.getAllMovies(PageRequest.of(0, 20));
+
+        assertThat(page.getTotalElements()).isEqualTo(MOVIE_COUNT);
+        assertThat(page.getContent()).hasSize(20).allSatisfy(movie -> {
+            assertThat(movie.getActorIds()).hasSize(2);
+            assertThat(movie.getGenres()).hasValue(List.of("Drama", "Crime"));
+        });
+    }
+
+    @Test
+    void listEndpointsUseConstantNumberOfStatements() {
+        assertThat(statementsFor(() -> movieService.getMoviesByReleaseYear(2000, PageRequest.of(0, 100)))).isLessThanOrEqualTo(3);
+        assertThat(statementsFor(() -> movieService.searchMoviesByTitle("movie", PageRequest.of(0, 100)))).isLessThanOrEqualTo(3);
+        assertThat(statementsFor(() -> movieService.getMoviesByGenre(genreId, PageRequest.of(0, 100)))).isLessThanOrEqualTo(4);
+    }
+
+    @Test
+    void cursorPagesWalkTheWholeCatalogWithoutCounting() {
+        List<Long> seen = new ArrayList<>();
+        String cursor = "";
+        do {
+            CursorPage<MovieDTO> page = movieService.getMoviesAfter(cursor, 25);
+            page.getContent().forEach(movie -> seen.add(movie.getId()));
+            cursor = page.getNextCursor();
+        } while (cursor != null);
+
+        assertThat(seen).hasSize(MOVIE_COUNT).isSorted().doesNotHaveDuplicates();
+    }
+
+    @Test
+    void deepCursorPageCostsTheSameAsTheFirst() {
+        CursorPage<MovieDTO> first = movieService.getMoviesAfter("", 5);
+        String deepCursor = movieService.getMoviesAfter("", MOVIE_COUNT - 10).getNextCursor();
+
+        long firstPage = statementsFor(() -> movieService.getMoviesAfter("", 5));
+        long deepPage = statementsFor(() -> movieService.getMoviesAfter(deepCursor, 5));
+
+        assertThat(first.getContent()).hasSize(5);
+        assertThat(deepPage).isEqualTo(firstPage).isLessThanOrEqualTo(2);
+    }
+
+    @Test
+    void creditChangesWriteOnlyTheJoinRowsThatChange() {
+        MovieDTO movie = movieService.getAllMovies(PageRequest.of(0, 1)).getContent().get(0);
+        Long lead = movie.getActorIds().get(0);
+        Long support = movie.getActorIds().get(1);
+        Long newcomer = catalogFixture.createActor("Newcomer");
+
+        // The full list with one more actor, then one actor added and one removed by id
+        MovieDTO recast = new MovieDTO();
+        recast.setActorIds(List.of(support, newcomer, lead));
+        statistics.clear();
+        movieService.updateMovie(movie.getId(), recast);
+        assertThat(statistics.getCollectionRecreateCount()).isZero();
+        assertThat(statistics.getCollectionRemoveCount()).isZero();
+        assertThat(statistics.getCollectionUpdateCount()).isEqualTo(1);
+
+        MovieDTO change = new MovieDTO();
+        change.setAddActorIds(List.of(catalogFixture.createActor("Cameo")));
+        change.setRemoveActorIds(List.of(lead));
+        statistics.clear();
+        movieService.updateMovie(movie.getId(), change);
+        assertThat(statistics.getCollectionRecreateCount()).isZero();
+        assertThat(statistics.getCollectionUpdateCount()).isEqualTo(1);
+
+        assertThat(movieService.getActorsByMovieId(movie.getId())).extracting(ActorDTO::getName)
+                .containsExactlyInAnyOrder("Support 0", "Newcomer", "Cameo");
+        assertThat(movieService.getMoviesAfter("", 1).getContent().get(0).getGenres()).hasValue(List.of("Drama", "Crime"));
+
+        MovieDTO contradiction = new MovieDTO();
+        contradiction.setAddActorIds(List.of(lead));
+        contradiction.setRemoveActorIds(List.of(lead));
+        assertThatThrownBy(() -> movieService.updateMovie(movie.getId(), contradiction))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private long statementsFor(Runnable pageLoad) {
+        statistics.clear();
+        pageLoad.run();
+        return statistics.getPrepareStatementCount();
+    }
+}
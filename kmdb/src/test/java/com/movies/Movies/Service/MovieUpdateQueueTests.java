@@ -0,0 +1,282 @@
+package com.movies.Movies.Service;
+
+import com.movies.Movies.CatalogFixture;
+import com.movies.Movies.Entity.Movie;
+import com.movies.Movies.Repository.MovieRepository;
+import com.movies.Movies.dto.ActorDTO;
+import com.movies.Movies.dto.MovieDTO;
+import com.movies.Movies.dto.MovieUpdateStatusDTO;
+import com.movies.Movies.dto.MovieUpdateStatusDTO.Status;
+import com.movies.Movies.exception.UpdateQueueFullException;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest(properties = {"movies.write-behind.enabled=true", "movies.write-behind.sync-timeout=PT2S"})
+@ActiveProfiles("test")
+class MovieUpdateQueueTests {
+
+    @Autowired
+    private MovieUpdateQueue movieUpdateQueue;
+
+    @Autowired
+    private MovieService movieService;
+
+    @Autowired
+    private MovieRepository movieRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private CatalogFixture catalogFixture;
+
+    private final List<Long> actorIds = new ArrayList<>();
+    private final List<Long> movieIds = new ArrayList<>();
+
+    @BeforeEach
+    void seedCatalog() {
+        for (int i = 0; i < 2; i++) {
+            actorIds.add(catalogFixture.createActor("Actor " + i));
+        }
+        for (int i = 0; i < 3; i++) {
+            movieIds.add(catalogFixture.createMovie("Movie " + i, 1990, 100, List.of(actorIds.get(0)), null));
+        }
+    }
+
+    @AfterEach
+    void clearCatalog() {
+        catalogFixture.clear();
+        movieIds.clear();
+        actorIds.clear();
+    }
+
+    @Test
+    void patchesToAWaitingMovieAreMergedAndAppliedInOrder() throws Exception {
+        Long id = movieIds.get(0);
+        List<Long> tickets = new ArrayList<>();
+        // Keep the writer busy on the first patch while the rest arrive
+        holdingTheWriterConnection(() -> {
+            tickets.add(movieUpdateQueue.enqueue(id, patch("First", null, List.of(actorIds.get(1)))).getTicket());
+            awaitTaken();
+            tickets.add(movieUpdateQueue.enqueue(id, patch("Second", 2001, null)).getTicket());
+            tickets.add(movieUpdateQueue.enqueue(id, patch(null, 2002, null)).getTicket());
+            tickets.add(movieUpdateQueue.enqueue(id, patch("Third", null, null)).getTicket());
+            assertThat(movieUpdateQueue.getStatus(tickets.get(3)).getStatus()).isEqualTo(Status.PENDING);
+        });
+
+        assertThat(awaitOutcome(tickets.get(0)).getMergedPatches()).isEqualTo(1);
+        for (Long ticket : tickets.subList(1, 4)) {
+            MovieUpdateStatusDTO status = awaitOutcome(ticket);
+            assertThat(status.getStatus()).isEqualTo(Status.APPLIED);
+            assertThat(status.getMergedPatches()).isEqualTo(3);
+        }
+        Movie movie = movieService.getMovieById(id);
+        assertThat(movie.getTitle()).isEqualTo("Third");
+        assertThat(movie.getReleaseYear()).isEqualTo(2002);
+        assertThat(movieService.getActorsByMovieId(id)).extracting(ActorDTO::getId).containsExactly(actorIds.get(1));
+
+        // A synchronous patch waits for its own write and returns the result
+        Movie updated = movieUpdateQueue.updateNow(id, patch(null, null, null));
+        assertThat(updated.getDuration()).isEqualTo(100);
+        assertThat(updated.getTitle()).isEqualTo("Third");
+    }
+
+    @Test
+    void addedAndRemovedActorsNetOutWhenMerged() throws Exception {
+        Long id = movieIds.get(0);
+        List<Long> tickets = new ArrayList<>();
+        holdingTheWriterConnection(() -> {
+            movieUpdateQueue.enqueue(movieIds.get(1), patch("Waits", null, null));
+            awaitTaken();
+            // Add actor 1, drop actor 0, then swap them back
+            tickets.add(movieUpdateQueue.enqueue(id, change(List.of(actorIds.get(1)), null)).getTicket());
+            tickets.add(movieUpdateQueue.enqueue(id, change(null, List.of(actorIds.get(0)))).getTicket());
+            tickets.add(movieUpdateQueue.enqueue(id, change(List.of(actorIds.get(0)), List.of(actorIds.get(1)))).getTicket());
+        });
+
+        assertThat(awaitOutcome(tickets.get(2)).getMergedPatches()).isEqualTo(3);
+        assertThat(movieService.getActorsByMovieId(id)).extracting(ActorDTO::getId).containsExactly(actorIds.get(0));
+    }
+
+    @Test
+    void requestBodiesMergeWithoutClearingTheLinksTheyLeaveOut() throws Exception {
+        Long id = movieIds.get(0);
+        List<Long> tickets = new ArrayList<>();
+        holdingTheWriterConnection(() -> {
+            movieUpdateQueue.enqueue(movieIds.get(1), json("{\"title\":\"Waits\"}"));
+            awaitTaken();
+            tickets.add(movieUpdateQueue.enqueue(id, json("{\"actorIds\":[" + actorIds.get(1) + "," + actorIds.get(0) + "]}")).getTicket());
+            tickets.add(movieUpdateQueue.enqueue(id, json("{\"title\":\"Renamed\"}")).getTicket());
+            tickets.add(movieUpdateQueue.enqueue(movieIds.get(2), json("{\"addActorIds\":[" + actorIds.get(1) + "]}")).getTicket());
+            tickets.add(movieUpdateQueue.enqueue(movieIds.get(2), json("{\"releaseYear\":1999}")).getTicket());
+        });
+
+        assertThat(awaitOutcome(tickets.get(1)).getMergedPatches()).isEqualTo(2);
+        assertThat(awaitOutcome(tickets.get(3)).getMergedPatches()).isEqualTo(2);
+        assertThat(movieService.getMovieById(id).getTitle()).isEqualTo("Renamed");
+        assertThat(movieService.getActorsByMovieId(id)).extracting(ActorDTO::getId)
+                .containsExactlyInAnyOrder(actorIds.get(0), actorIds.get(1));
+        assertThat(movieService.getMovieById(movieIds.get(2)).getReleaseYear()).isEqualTo(1999);
+        assertThat(movieService.getActorsByMovieId(movieIds.get(2))).extracting(ActorDTO::getId)
+                .containsExactlyInAnyOrder(actorIds.get(0), actorIds.get(1));
+    }
+
+    @Test
+    void aSynchronousUpdateGivesUpWaitingButStaysQueued() throws Exception {
+        Long id = movieIds.get(0);
+        holdingTheWriterConnection(() ->
+                assertThatThrownBy(() -> movieUpdateQueue.updateNow(id, patch("Late", null, null)))
+                        .isInstanceOf(UpdateQueueFullException.class)
+                        .hasMessageContaining("/api/movies/updates/"));
+
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (!"Late".equals(movieService.getMovieById(id).getTitle()) && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertThat(movieService.getMovieById(id).getTitle()).isEqualTo("Late");
+    }
+
+    @Test
+    void aFailingUpdateDoesNotTakeItsBatchDownWithIt() throws Exception {
+        List<Long> tickets = new ArrayList<>();
+        CountDownLatch deleted = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        // Delete the third movie in a transaction that commits only once its patch has been queued
+        CompletableFuture<Void> delete = CompletableFuture.runAsync(() ->
+                new TransactionTemplate(transactionManager).executeWithoutResult(transaction -> {
+                    movieService.deleteMovieById(movieIds.get(2), true);
+                    deleted.countDown();
+                    await(release);
+                }));
+        await(deleted);
+        tickets.add(movieUpdateQueue.enqueue(movieIds.get(0), patch("Waits", null, null)).getTicket());
+        awaitTaken();
+        tickets.add(movieUpdateQueue.enqueue(movieIds.get(1), patch("Applied", null, null)).getTicket());
+        tickets.add(movieUpdateQueue.enqueue(movieIds.get(2), patch("Gone", null, null)).getTicket());
+        release.countDown();
+        delete.get(10, TimeUnit.SECONDS);
+
+        assertThat(awaitOutcome(tickets.get(0)).getStatus()).isEqualTo(Status.APPLIED);
+        assertThat(awaitOutcome(tickets.get(1)).getStatus()).isEqualTo(Status.APPLIED);
+        MovieUpdateStatusDTO failed = awaitOutcome(tickets.get(2));
+        assertThat(failed.getStatus()).isEqualTo(Status.FAILED);
+        assertThat(failed.getMessage()).isEqualTo("Movie not found");
+        assertThat(movieService.getMovieById(movieIds.get(1)).getTitle()).isEqualTo("Applied");
+    }
+
+    @Test
+    void anInvalidPatchIsTurnedAwayWithoutFailingTheOnesItWouldJoin() throws Exception {
+        Long id = movieIds.get(0);
+        List<Long> tickets = new ArrayList<>();
+        holdingTheWriterConnection(() -> {
+            movieUpdateQueue.enqueue(movieIds.get(1), patch("Waits", null, null));
+            awaitTaken();
+            tickets.add(movieUpdateQueue.enqueue(id, patch("Kept", null, null)).getTicket());
+            assertThatThrownBy(() -> movieUpdateQueue.enqueue(id, patch(null, 1800, null)))
+                    .isInstanceOf(IllegalArgumentException.class)
+                    .hasMessage("Release year can not be earlier than 1880");
+            assertThatThrownBy(() -> movieUpdateQueue.updateNow(id, json("{\"releaseYear\":2001,\"duration\":0}")))
+                    .isInstanceOf(IllegalArgumentException.class)
+                    .hasMessage("Duration must be at least 1 minute");
+            tickets.add(movieUpdateQueue.enqueue(id, patch(null, 2001, null)).getTicket());
+        });
+
+        MovieUpdateStatusDTO status = awaitOutcome(tickets.get(1));
+        assertThat(status.getStatus()).isEqualTo(Status.APPLIED);
+        assertThat(status.getMergedPatches()).isEqualTo(2);
+        Movie movie = movieService.getMovieById(id);
+        assertThat(movie.getTitle()).isEqualTo("Kept");
+        assertThat(movie.getReleaseYear()).isEqualTo(2001);
+        assertThat(movie.getDuration()).isEqualTo(100);
+    }
+
+    // Runs the action while another transaction holds the single writer connection
+    private void holdingTheWriterConnection(Runnable action) throws Exception {
+        CountDownLatch holding = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<Void> holder = CompletableFuture.runAsync(() ->
+                new TransactionTemplate(transactionManager).executeWithoutResult(transaction -> {
+                    movieRepository.count();
+                    holding.countDown();
+                    await(release);
+                }));
+        await(holding);
+        try {
+            action.run();
+        } finally {
+            release.countDown();
+            holder.get(10, TimeUnit.SECONDS);
+        }
+    }
+
+    // Waits for the writer to take everything queued so far
+    private void awaitTaken() {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (movieUpdateQueue.pendingCount() > 0 && System.nanoTime() < deadline) {
+            Thread.onSpinWait();
+        }
+        assertThat(movieUpdateQueue.pendingCount()).isZero();
+    }
+
+    private MovieUpdateStatusDTO awaitOutcome(long ticket) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        MovieUpdateStatusDTO status = movieUpdateQueue.getStatus(ticket);
+        while (status.getStatus() == Status.PENDING && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+            status = movieUpdateQueue.getStatus(ticket);
+        }
+        return status;
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            assertThat(latch.await(10, TimeUnit.SECONDS)).isTrue();
+        } catch (InterruptedException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private MovieDTO json(String body) {
+        try {
+            return objectMapper.readValue(body, MovieDTO.class);
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static MovieDTO change(List<Long> addActorIds, List<Long> removeActorIds) {
+        MovieDTO change = patch(null, null, null);
+        change.setAddActorIds(addActorIds);
+        change.setRemoveActorIds(removeActorIds);
+        return change;
+    }
+
+    private static MovieDTO patch(String title, Integer releaseYear, List<Long> actorIds) {
+        MovieDTO patch = new MovieDTO();
+        patch.setTitle(title);
+        patch.setReleaseYear(releaseYear);
+        patch.setActorIds(actorIds);
+        return patch;
+    }
+}
@@ -0,0 +1,149 @@
+package com.movies.Movies.Service;
+
+import com.movies.Movies.CatalogFixture;
+import com.movies.Movies.Repository.MovieStatsRepository;
+import com.movies.Movies.dto.CatalogStatsDTO;
+import com.movies.Movies.dto.MovieDTO;
+import com.movies.Movies.dto.StatsBucketDTO;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.movies.Movies.CatalogFixture.movie;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class StatsServiceTests {
+
+    @Autowired
+    private StatsService statsService;
+
+    @Autowired
+    private MovieService movieService;
+
+    @Autowired
+    private ActorService actorService;
+
+    @Autowired
+    private GenreService genreService;
+
+    @Autowired
+    private BulkImportService bulkImportService;
+
+    @Autowired
+    private MovieStatsRepository movieStatsRepository;
+
+    @Autowired
+    private CatalogFixture catalogFixture;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Long dramaId;
+    private Long crimeId;
+    private final List<Long> actorIds = new ArrayList<>();
+
+    @BeforeEach
+    void seedCatalog() {
+        // Other tests write through the repositories, which leave the statistics behind
+        movieStatsRepository.rebuild();
+        dramaId = catalogFixture.createGenre("Drama");
+        crimeId = catalogFixture.createGenre("Crime");
+        for (int i = 0; i < 3; i++) {
+            actorIds.add(catalogFixture.createActor("Actor " + i));
+        }
+    }
+
+    @AfterEach
+    void clearCatalog() {
+        catalogFixture.clear();
+        actorIds.clear();
+    }
+
+    @Test
+    void statisticsFollowEveryWriteWithoutDrift() throws Exception {
+        long first = movieService.createMovieWithActors(movie("First", 1994, 100, List.of(actorIds.get(0)), List.of(dramaId))).getId();
+        long second = movieService.createMovieWithActors(movie("Second", 1994, 120, actorIds, List.of(dramaId, crimeId))).getId();
+        long third = movieService.createMovieWithActors(movie("Third", 2001, 90, List.of(actorIds.get(1)), List.of(crimeId))).getId();
+
+        CatalogStatsDTO stats = statsService.getStats();
+        assertThat(stats.getMovieCount()).isEqualTo(3);
+        assertThat(stats.getAverageDuration()).isEqualTo(310 / 3.0);
+        assertThat(stats.getYears()).extracting(StatsBucketDTO::getValue, StatsBucketDTO::getMovieCount)
+                .containsExactly(tuple(1994L, 2L), tuple(2001L, 1L));
+        assertThat(bucket(stats.getGenres(), dramaId).getAverageDuration()).isEqualTo(110.0);
+        assertThat(bucket(stats.getGenres(), crimeId).getLabel()).isEqualTo("Crime");
+        assertThat(statsService.getActorStats(PageRequest.of(0, 10)).getContent())
+                .extracting(StatsBucketDTO::getValue)
+                .containsExactly(actorIds.get(0), actorIds.get(1), actorIds.get(2));
+
+        // Move the first movie to another year and cast, rename the second, and delete the third
+        MovieDTO change = movie(null, 2001, 80, List.of(actorIds.get(2)), List.of(crimeId));
+        movieService.updateMovie(first, change);
+        MovieDTO rename = new MovieDTO();
+        rename.setTitle("Second, renamed");
+        movieService.updateMovie(second, rename);
+        movieService.deleteMovieById(third, true);
+        assertThat(movieStatsRepository.countDrift()).isZero();
+        assertThat(bucket(statsService.getStats().getGenres(), dramaId).getMovieCount()).isEqualTo(1);
+
+        // Bulk writes, and deletes that only drop links
+        bulkImportService.importMovies(new ByteArrayInputStream(("{\"title\":\"Imported\",\"releaseYear\":1994,\"duration\":95,"
+                + "\"actorIds\":[" + actorIds.get(0) + "],\"genreIds\":[" + dramaId + "]}")
+                .getBytes(StandardCharsets.UTF_8)));
+        actorService.deleteActor(actorIds.get(1), true);
+        genreService.deleteGenre(crimeId, true);
+        assertThat(movieStatsRepository.countDrift()).isZero();
+        stats = statsService.getStats();
+        assertThat(stats.getMovieCount()).isEqualTo(3);
+        assertThat(stats.getGenres()).extracting(StatsBucketDTO::getValue).containsExactly(dramaId);
+
+        movieService.deleteMovies(List.of(first, second), true);
+        assertThat(movieStatsRepository.countDrift()).isZero();
+        assertThat(statsService.getStats().getMovieCount()).isEqualTo(1);
+        // 2001 and actor 2 have no movies left, and no buckets either
+        assertThat(emptyBuckets()).isZero();
+        assertThat(statsService.getStats().getYears()).extracting(StatsBucketDTO::getValue).containsExactly(1994L);
+        assertThat(statsService.getActorStats(PageRequest.of(0, 10)).getContent())
+                .extracting(StatsBucketDTO::getValue)
+                .containsExactly(actorIds.get(0));
+    }
+
+    @Test
+    void reconciliationRepairsWritesThatBypassTheServices() {
+        movieService.createMovieWithActors(movie("Counted", 1994, 100, List.of(actorIds.get(0)), List.of(dramaId)));
+        jdbcTemplate.update("INSERT INTO movie (id, title, normalized_title, release_year, duration) "
+                + "VALUES (900000001, 'Sneaked in', 'sneaked in', 1994, 140)");
+        assertThat(statsService.getStats().getMovieCount()).isEqualTo(1);
+
+        // The TOTAL and 1994 buckets are off
+        assertThat(statsService.reconcile()).isEqualTo(2);
+
+        assertThat(movieStatsRepository.countDrift()).isZero();
+        CatalogStatsDTO stats = statsService.getStats();
+        assertThat(stats.getMovieCount()).isEqualTo(2);
+        assertThat(stats.getAverageDuration()).isEqualTo(120.0);
+        assertThat(statsService.reconcile()).isZero();
+    }
+
+    private long emptyBuckets() {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM movie_stats WHERE dimension <> 'TOTAL' AND movie_count = 0", Long.class);
+    }
+
+    private static StatsBucketDTO bucket(List<StatsBucketDTO> buckets, Long value) {
+        return buckets.stream().filter(bucket -> bucket.getValue().equals(value)).findFirst().orElseThrow();
+    }
+}
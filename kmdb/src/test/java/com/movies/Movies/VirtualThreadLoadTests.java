@@ -0,0 +1,173 @@
+package com.movies.Movies;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Compares request latency with platform request threads and with virtual request threads, at 2,000 concurrent
+ * clients reading pages of movies, single movies and single actors.
+ * Takes a few minutes, so it only runs when asked for:
+ * {@code mvn test -Dtest=VirtualThreadLoadTests -Dmovies.load-test=true}.
+ * Latencies depend on the machine, so the test only requires every request to succeed and logs the percentiles.
+ */
+@EnabledIfSystemProperty(named = "movies.load-test", matches = "true")
+class VirtualThreadLoadTests {
+
+    private static final Logger log = LoggerFactory.getLogger(VirtualThreadLoadTests.class);
+
+    private static final int CLIENTS = 2_000;
+    private static final int REQUESTS_PER_CLIENT = 10;
+    private static final int MOVIES = 2_000;
+    private static final int ACTORS = 500;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private final HttpClient client = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .executor(Executors.newVirtualThreadPerTaskExecutor())
+            .connectTimeout(Duration.ofSeconds(30))
+            .build();
+
+    @Test
+    void virtualThreadsUnderConcurrentClients() throws Exception {
+        LoadResult platform = run(false);
+        LoadResult virtual = run(true);
+        log.info("Platform threads: {}", platform);
+        log.info("Virtual threads:  {}", virtual);
+        assertThat(platform.failures).isZero();
+        assertThat(virtual.failures).isZero();
+    }
+
+    private LoadResult run(boolean virtualThreads) throws Exception {
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(MoviesApplication.class)
+                .profiles("test")
+                // Arguments rather than default properties, which application.properties would override
+                .run("--server.port=0", "--movies.virtual-threads.enabled=" + virtualThreads)) {
+            String baseUrl = "http://localhost:" + context.getEnvironment().getProperty("local.server.port");
+            List<String> urls = seed(baseUrl);
+            // Warm up the JIT, the pools and the response cache before measuring
+            load(urls, 200, 5);
+            return load(urls, CLIENTS, REQUESTS_PER_CLIENT);
+        }
+    }
+
+    // Imports a catalog through the bulk endpoints and returns the URLs the clients request
+    private List<String> seed(String baseUrl) throws Exception {
+        List<Long> genreIds = importRows(baseUrl + "/api/genres/bulk", IntStream.range(0, 10)
+                .mapToObj(i -> "{\"name\":\"Genre " + i + "\"}"));
+        List<Long> actorIds = importRows(baseUrl + "/api/actors/bulk", IntStream.range(0, ACTORS)
+                .mapToObj(i -> "{\"name\":\"Actor " + i + "\",\"birthDate\":\"1970-01-01\"}"));
+        List<Long> movieIds = importRows(baseUrl + "/api/movies/bulk", IntStream.range(0, MOVIES)
+                .mapToObj(i -> "{\"title\":\"Movie " + i + "\",\"releaseYear\":" + (1950 + i % 70) + ",\"duration\":" + (60 + i % 120)
+                        + ",\"actorIds\":[" + actorIds.get(i % ACTORS) + "," + actorIds.get((i + 1) % ACTORS) + "]"
+                        + ",\"genreIds\":[" + genreIds.get(i % genreIds.size()) + "]}"));
+        List<String> urls = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            urls.add(baseUrl + "/api/movies?page=" + i + "&size=20");
+            urls.add(baseUrl + "/api/movies/" + movieIds.get(i * MOVIES / 100));
+            urls.add(baseUrl + "/api/actors/" + actorIds.get(i * ACTORS / 100));
+        }
+        return urls;
+    }
+
+    private List<Long> importRows(String url, Stream<String> lines) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(url))
+                .header("Content-Type", "application/x-ndjson")
+                .POST(HttpRequest.BodyPublishers.ofString(lines.collect(Collectors.joining("\n"))))
+                .build();
+        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+        assertThat(response.statusCode()).isEqualTo(200);
+        List<Long> ids = new ArrayList<>();
+        for (JsonNode row : objectMapper.readTree(response.body()).get("rows")) {
+            ids.add(row.get("id").asLong());
+        }
+        return ids;
+    }
+
+    private LoadResult load(List<String> urls, int clients, int requestsPerClient) throws InterruptedException {
+        long[] latencies = new long[clients * requestsPerClient];
+        AtomicInteger failures = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        long began;
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int c = 0; c < clients; c++) {
+                int clientIndex = c;
+                executor.submit(() -> {
+                    start.await();
+                    for (int r = 0; r < requestsPerClient; r++) {
+                        int slot = clientIndex * requestsPerClient + r;
+                        HttpRequest request = HttpRequest.newBuilder(URI.create(urls.get(slot % urls.size())))
+                                .timeout(Duration.ofSeconds(60))
+                                .build();
+                        long sent = System.nanoTime();
+                        try {
+                            HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+                            if (response.statusCode() != 200) {
+                                failures.incrementAndGet();
+                            }
+                        } catch (Exception ex) {
+                            failures.incrementAndGet();
+                        }
+                        latencies[slot] = System.nanoTime() - sent;
+                    }
+                    return null;
+                });
+            }
+            began = System.nanoTime();
+            start.countDown();
+        }
+        long elapsed = System.nanoTime() - began;
+        Arrays.sort(latencies);
+        return new LoadResult(latencies, elapsed, failures.get());
+    }
+
+    private static final class LoadResult {
+
+        private final long[] sortedLatencies;
+        private final long elapsedNanos;
+        private final int failures;
+
+        LoadResult(long[] sortedLatencies, long elapsedNanos, int failures) {
+            this.sortedLatencies = sortedLatencies;
+            this.elapsedNanos = elapsedNanos;
+            this.failures = failures;
+        }
+
+        private double percentileMillis(double percentile) {
+            int index = (int) Math.ceil(percentile / 100 * sortedLatencies.length) - 1;
+            return sortedLatencies[Math.max(index, 0)] / 1_000_000.0;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%d requests, %.0f req/s, p50 %.1f ms, p99 %.1f ms, max %.1f ms, %d failed",
+                    sortedLatencies.length, sortedLatencies.length / (elapsedNanos / 1_000_000_000.0),
+                    percentileMillis(50), percentileMillis(99), percentileMillis(100), failures);
+        }
+    }
+}
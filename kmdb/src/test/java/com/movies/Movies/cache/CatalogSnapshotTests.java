@@ -0,0 +1,194 @@
+package com.movies.Movies.cache;
+
+import com.movies.Movies.CatalogFixture;
+import com.movies.Movies.Repository.ActorGraphRepository;
+import com.movies.Movies.Repository.ActorRepository;
+import com.movies.Movies.Repository.MovieRepository;
+import com.movies.Movies.Service.ActorService;
+import com.movies.Movies.Service.MovieService;
+import com.movies.Movies.dto.ActorDTO;
+import com.movies.Movies.dto.ActorPathDTO;
+import com.movies.Movies.dto.CoStarDTO;
+import com.movies.Movies.dto.MovieDTO;
+import com.movies.Movies.exception.ResourceNotFoundException;
+import com.movies.Movies.util.BidirectionalSearch;
+
+import jakarta.persistence.EntityManagerFactory;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest(properties = "movies.catalog-snapshot.enabled=true")
+@ActiveProfiles("test")
+class CatalogSnapshotTests {
+
+    private static final PageRequest FIRST_PAGE = PageRequest.of(0, 100);
+
+    @Autowired
+    private CatalogSnapshot catalogSnapshot;
+
+    @Autowired
+    private MovieService movieService;
+
+    @Autowired
+    private ActorService actorService;
+
+    @Autowired
+    private CatalogFixture catalogFixture;
+
+    @Autowired
+    private MovieRepository movieRepository;
+
+    @Autowired
+    private ActorRepository actorRepository;
+
+    @Autowired
+    private ActorGraphRepository actorGraphRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private final List<Long> actorIds = new ArrayList<>();
+    private Long dramaId;
+    private Long crimeId;
+    private final List<Long> movieIds = new ArrayList<>();
+
+    @BeforeEach
+    void seedCatalog() {
+        dramaId = catalogFixture.createGenre("Drama");
+        crimeId = catalogFixture.createGenre("Crime");
+        for (int i = 0; i < 4; i++) {
+            actorIds.add(catalogFixture.createActor("Actor " + i, LocalDate.of(1970 + i, 1, 1)));
+        }
+        for (int i = 0; i < 6; i++) {
+            movieIds.add(catalogFixture.createMovie("Movie " + i, List.of(actorIds.get(i % 4), actorIds.get((i + 1) % 4)),
+                    i % 2 == 0 ? List.of(dramaId) : List.of(dramaId, crimeId)));
+        }
+    }
+
+    @AfterEach
+    void clearCatalog() {
+        catalogFixture.clear();
+        movieIds.clear();
+        actorIds.clear();
+    }
+
+    @Test
+    void lookupsFollowServiceWritesWithoutStatements() {
+        assertThat(catalogSnapshot.isReady()).isTrue();
+
+        // Move the first movie from actors 0 and 1 to actors 2 and 3, and drop a genre from the second
+        MovieDTO recast = new MovieDTO();
+        recast.setActorIds(List.of(actorIds.get(3), actorIds.get(2)));
+        movieService.updateMovie(movieIds.get(0), recast);
+        MovieDTO regenre = new MovieDTO();
+        regenre.setGenreIds(List.of(crimeId));
+        movieService.updateMovie(movieIds.get(1), regenre);
+        // Remove actor 1 with their movies' links, and rename actor 2
+        actorService.deleteActor(actorIds.get(1), true);
+        actorService.updateActor(actorIds.get(2), new ActorDTO(null, "Renamed", null));
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        Page<MovieDTO> byActor = movieService.getMoviesByActorId(actorIds.get(2), FIRST_PAGE);
+        Page<MovieDTO> byGenre = movieService.getMoviesByGenre(crimeId, PageRequest.of(1, 2));
+        List<ActorDTO> actors = movieService.getActorsByMovieId(movieIds.get(0));
+        assertThat(statistics.getPrepareStatementCount()).isZero();
+
+        assertThat(ids(byActor)).isEqualTo(ids(movieRepository.findMovieDTOsByActor(actorIds.get(2), FIRST_PAGE)));
+        assertThat(byGenre.getTotalElements()).isEqualTo(3);
+        assertThat(byGenre.getContent()).hasSize(1);
+        assertThat(ids(byGenre)).isEqualTo(ids(movieRepository.findMovieDTOsByGenre(crimeId, PageRequest.of(1, 2))));
+        assertThat(actors).extracting(ActorDTO::getId).containsExactly(actorIds.get(2), actorIds.get(3));
+        assertThat(actors).extracting(ActorDTO::getName).containsExactly("Renamed", "Actor 3");
+        assertThat(byActor.getContent().get(0).getActors()).hasValue(List.of("Renamed", "Actor 3"));
+        assertThat(byActor.getContent().get(0).getGenres()).hasValue(List.of("Drama"));
+
+        // Movie 1 had actors 1 and 2; only actor 2 is left
+        MovieDTO movie1 = byActor.getContent().stream().filter(movie -> movie.getId().equals(movieIds.get(1))).findFirst().orElseThrow();
+        assertThat(movie1.getActorIds()).containsExactly(actorIds.get(2));
+        assertThat(movie1.getGenreIds()).containsExactly(crimeId);
+
+        assertThatThrownBy(() -> movieService.getMoviesByActorId(actorIds.get(1), FIRST_PAGE))
+                .isInstanceOf(ResourceNotFoundException.class);
+    }
+
+    @Test
+    void castsComeInIdOrderFromTheSnapshotAndTheDatabase() {
+        List<Long> cast = List.of(actorIds.get(3), actorIds.get(0), actorIds.get(2));
+        Long movieId = catalogFixture.createMovie("Ensemble", cast, null);
+        movieIds.add(movieId);
+        MovieDTO recast = new MovieDTO();
+        recast.setAddActorIds(List.of(actorIds.get(1)));
+        movieService.updateMovie(movieId, recast);
+
+        List<ActorDTO> fromSnapshot = movieService.getActorsByMovieId(movieId);
+        List<ActorDTO> fromDatabase = actorRepository.findActorDTOsByMovieId(movieId);
+        assertThat(fromSnapshot).extracting(ActorDTO::getId).containsExactlyElementsOf(actorIds).isSorted();
+        assertThat(fromDatabase).usingRecursiveFieldByFieldElementComparator().isEqualTo(fromSnapshot);
+    }
+
+    @Test
+    void reloadGivesTheSameAnswersAsIncrementalUpdates() {
+        movieService.deleteMovieById(movieIds.get(5), true);
+        movieIds.remove(5);
+        Page<MovieDTO> before = movieService.getMoviesByGenre(dramaId, FIRST_PAGE);
+
+        catalogSnapshot.reload();
+
+        Page<MovieDTO> after = movieService.getMoviesByGenre(dramaId, FIRST_PAGE);
+        assertThat(after.getTotalElements()).isEqualTo(5);
+        assertThat(after.getContent()).usingRecursiveFieldByFieldElementComparator().isEqualTo(before.getContent());
+    }
+
+    @Test
+    void collaborationGraphMatchesTheJoinTable() {
+        // Movies i cast actors i % 4 and (i + 1) % 4, so the actors form a ring; actor 4 has no movies
+        actorIds.add(catalogFixture.createActor("Loner"));
+
+        List<CoStarDTO> coStars = actorService.getCoStars(actorIds.get(0), 10);
+        assertThat(coStars).extracting(CoStarDTO::getId).containsExactly(actorIds.get(1), actorIds.get(3));
+        assertThat(coStars).extracting(CoStarDTO::getSharedMovies).containsExactly(2L, 1L);
+        assertThat(coStars).usingRecursiveFieldByFieldElementComparator()
+                .isEqualTo(actorGraphRepository.findCoStars(actorIds.get(0), 10));
+
+        ActorPathDTO path = actorService.getPath(actorIds.get(0), actorIds.get(2), 6);
+        assertThat(path.getDegrees()).isEqualTo(2);
+        assertThat(path.getActors()).extracting(ActorDTO::getId).startsWith(actorIds.get(0)).endsWith(actorIds.get(2));
+        for (int i = 0; i < path.getDegrees(); i++) {
+            List<Long> cast = actorRepository.findActorDTOsByMovieId(path.getMovies().get(i).getId()).stream()
+                    .map(ActorDTO::getId)
+                    .collect(Collectors.toList());
+            assertThat(cast).contains(path.getActors().get(i).getId(), path.getActors().get(i + 1).getId());
+        }
+        long[] sqlPath = BidirectionalSearch.shortestPath(actorIds.get(0), actorIds.get(2), 6,
+                actorGraphRepository::findCoStarEdges, actorGraphRepository::findCoStarEdges).orElseThrow();
+        assertThat(sqlPath).hasSize(5);
+
+        assertThat(actorService.getPath(actorIds.get(1), actorIds.get(1), 6).getDegrees()).isZero();
+        assertThatThrownBy(() -> actorService.getPath(actorIds.get(0), actorIds.get(2), 1))
+                .isInstanceOf(ResourceNotFoundException.class);
+        assertThatThrownBy(() -> actorService.getPath(actorIds.get(0), actorIds.get(4), 10))
+                .isInstanceOf(ResourceNotFoundException.class);
+    }
+
+    private static List<Long> ids(Page<MovieDTO> page) {
+        return page.getContent().stream().map(MovieDTO::getId).collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,89 @@
+package com.movies.Movies.cache;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.movies.Movies.event.CatalogChangeEvent;
+import com.movies.Movies.event.CatalogChangeEvent.ChangeType;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.context.request.WebRequest;
+
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ResponseCacheTests {
+
+    // Holds Caffeine's maintenance and removal notifications until the test runs them
+    private final Queue<Runnable> tasks = new ArrayDeque<>();
+
+    private final ResponseCache responseCache = new ResponseCache(new ObjectMapper(), new SimpleMeterRegistry(), 1, tasks::add);
+
+    private final Map<Long, Integer> loads = new HashMap<>();
+
+    @Test
+    void aChangeEvictsTheResponsesBuiltFromItsRow() {
+        ResponseEntity<byte[]> first = serve(1L, null);
+        assertThat(first.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(new String(first.getBody())).isEqualTo("\"movie 1\"");
+
+        // The client's copy is current until the movie changes
+        assertThat(serve(1L, first.getHeaders().getETag()).getStatusCode()).isEqualTo(HttpStatus.NOT_MODIFIED);
+        assertThat(loads).containsEntry(1L, 1);
+
+        responseCache.onCatalogChange(CatalogChangeEvent.movie(1L, ChangeType.UPDATED));
+        ResponseEntity<byte[]> second = serve(1L, first.getHeaders().getETag());
+        assertThat(second.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(second.getHeaders().getETag()).isNotEqualTo(first.getHeaders().getETag());
+        assertThat(loads).containsEntry(1L, 2);
+    }
+
+    @Test
+    void aLateEvictionNoticeDoesNotUnindexTheReloadedEntry() {
+        serve(1L, null);
+        runTasks();
+        serve(2L, null);
+        // Only one entry fits: maintenance evicts one of the two and queues the notice of its eviction
+        tasks.remove().run();
+        assertThat(tasks).isNotEmpty();
+
+        // The evicted movie is loaded again before the notice is handled
+        serve(1L, null);
+        serve(2L, null);
+        assertThat(loads.values()).containsExactlyInAnyOrder(1, 2);
+        long reloaded = loads.get(1L) == 2 ? 1L : 2L;
+        tasks.remove().run();
+
+        responseCache.onCatalogChange(CatalogChangeEvent.movie(reloaded, ChangeType.UPDATED));
+        serve(reloaded, null);
+        assertThat(loads).containsEntry(reloaded, 3);
+    }
+
+    private ResponseEntity<byte[]> serve(Long movieId, String ifNoneMatch) {
+        MockHttpServletRequest servletRequest = new MockHttpServletRequest("GET", "/api/movies/" + movieId);
+        if (ifNoneMatch != null) {
+            servletRequest.addHeader(HttpHeaders.IF_NONE_MATCH, ifNoneMatch);
+        }
+        WebRequest request = new ServletWebRequest(servletRequest);
+        return responseCache.serve("movie:" + movieId, request, () -> {
+            loads.merge(movieId, 1, Integer::sum);
+            return new ResponseCache.Cacheable("movie " + movieId, Set.of(ResponseCache.movieTag(movieId)));
+        });
+    }
+
+    private void runTasks() {
+        while (!tasks.isEmpty()) {
+            tasks.remove().run();
+        }
+    }
+}
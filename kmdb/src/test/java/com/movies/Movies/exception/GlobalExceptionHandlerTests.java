@@ -0,0 +1,60 @@
+package com.movies.Movies.exception;
+
+import com.movies.Movies.Entity.Actor;
+import com.movies.Movies.Repository.ActorRepository;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.sqlite.SQLiteErrorCode;
+import org.sqlite.SQLiteException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowableOfType;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class GlobalExceptionHandlerTests {
+
+    @Autowired
+    private GlobalExceptionHandler globalExceptionHandler;
+
+    @Autowired
+    private ActorRepository actorRepository;
+
+    @AfterEach
+    void clearActors() {
+        actorRepository.deleteAll();
+    }
+
+    @Test
+    void onlyUniqueViolationsAreReportedAsExistingResources() {
+        actorRepository.saveAndFlush(actor("Twin", LocalDate.of(1970, 1, 1)));
+        DataIntegrityViolationException duplicate = catchThrowableOfType(() ->
+                actorRepository.saveAndFlush(actor("Twin", LocalDate.of(1970, 1, 1))), DataIntegrityViolationException.class);
+        // Validation keeps NULLs away from the entities, so the other constraints are only reached by statements
+        DataIntegrityViolationException missingValue = new DataIntegrityViolationException("could not execute statement",
+                new SQLiteException("NOT NULL constraint failed: movie_stats.movie_count", SQLiteErrorCode.SQLITE_CONSTRAINT_NOTNULL));
+
+        ResponseEntity<String> exists = globalExceptionHandler.handleDataIntegrityViolationException(duplicate);
+        assertThat(exists.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+        assertThat(exists.getBody()).isEqualTo("Resource already exists with the same details.");
+        ResponseEntity<String> invalid = globalExceptionHandler.handleDataIntegrityViolationException(missingValue);
+        assertThat(invalid.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+        assertThat(invalid.getBody()).isEqualTo("Invalid input: the data breaks a database constraint.");
+    }
+
+    private static Actor actor(String name, LocalDate birthDate) {
+        Actor actor = new Actor();
+        actor.setName(name);
+        actor.setBirthDate(birthDate);
+        return actor;
+    }
+}
@@ -0,0 +1,85 @@
+package com.movies.Movies.id;
+
+import com.movies.Movies.CatalogFixture;
+import com.movies.Movies.Entity.Actor;
+import com.movies.Movies.Repository.ActorRepository;
+import com.movies.Movies.dto.ActorDTO;
+
+import jakarta.persistence.EntityManagerFactory;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class InsertBatchingTests {
+
+    private static final int ACTOR_COUNT = 120;
+
+    @Autowired
+    private ActorRepository actorRepository;
+
+    @Autowired
+    private CatalogFixture catalogFixture;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void clearStatistics() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @AfterEach
+    void clearCatalog() {
+        catalogFixture.clear();
+    }
+
+    @Test
+    void entityInsertsAreSentInBatches() {
+        List<Actor> actors = new ArrayList<>();
+        for (int i = 0; i < ACTOR_COUNT; i++) {
+            Actor actor = new Actor();
+            actor.setName("Actor " + i);
+            actor.setBirthDate(LocalDate.of(1970, 1, 1));
+            actors.add(actor);
+        }
+        actorRepository.saveAll(actors);
+
+        // Unbatched, every insert would prepare its own statement
+        assertThat(statistics.getEntityInsertCount()).isEqualTo(ACTOR_COUNT);
+        assertThat(statistics.getPrepareStatementCount()).isLessThan(ACTOR_COUNT / 10);
+    }
+
+    @Test
+    void joinTableRowsAreSentInBatches() {
+        List<Long> actorIds = new ArrayList<>();
+        for (int i = 0; i < ACTOR_COUNT; i++) {
+            actorIds.add(catalogFixture.createActor("Actor " + i));
+        }
+        List<Long> genreIds = List.of(catalogFixture.createGenre("Drama"));
+        statistics.clear();
+        Long movieId = catalogFixture.createMovie("Ensemble", actorIds, genreIds);
+
+        // The movie, its title in the search index, its statistics and all of its join table rows
+        assertThat(statistics.getEntityInsertCount()).isEqualTo(1);
+        assertThat(statistics.getPrepareStatementCount()).isLessThan(ACTOR_COUNT / 10);
+        assertThat(actorRepository.findActorDTOsByMovieId(movieId)).extracting(ActorDTO::getId)
+                .containsExactlyInAnyOrderElementsOf(actorIds);
+    }
+}